@@ -0,0 +1,52 @@
+package frc.robot.benchmarks;
+
+import frc.robot.Constants;
+import frc.robot.subsystems.noteplayer.ShotLookupGrid;
+import frc.robot.subsystems.noteplayer.ShotSolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the shot lookups in {@link ShotLookupGrid}, building the grid at boot,
+ * and the shoot on the move solve in {@link ShotSolver}
+ */
+@State(Scope.Thread)
+public class ShootingMathBenchmark implements Constants.NotePlayerConstants, Constants.FieldCoordinates {
+
+    private ShotLookupGrid shotGrid;
+    private ShotSolver shotSolver;
+
+    private double distance;
+
+    @Setup
+    public void setup() {
+        shotGrid = ShotLookupGrid.build(SHOT_TABLE_DISTANCES, SHOT_TABLE_SPEEDS, SHOT_TABLE_ANGLES);
+        shotSolver = new ShotSolver(() -> shotGrid);
+
+        distance = 2.2;
+    }
+
+    @Benchmark
+    public double speedLookup() {
+        return shotGrid.getWheelSpeed(distance);
+    }
+
+    @Benchmark
+    public double angleLookup() {
+        return shotGrid.getArmDegrees(distance);
+    }
+
+    @Benchmark
+    public ShotLookupGrid buildShotGrid() {
+        return ShotLookupGrid.build(SHOT_TABLE_DISTANCES, SHOT_TABLE_SPEEDS, SHOT_TABLE_ANGLES);
+    }
+
+    @Benchmark
+    public double shootOnTheMoveSolve() {
+        shotSolver.solve(2.5, 4.5, 1.5, -1.0, 0.8, 0.3, 40,
+                BLUE_SPEAKER.getX(), BLUE_SPEAKER.getY());
+        return shotSolver.getHeadingRadians();
+    }
+}
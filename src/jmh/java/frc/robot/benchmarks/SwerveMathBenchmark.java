@@ -0,0 +1,68 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.lib.util.SwerveModuleConstants;
+import frc.robot.Constants;
+import frc.robot.subsystems.swervedrive.SwerveDrive;
+import frc.robot.subsystems.swervedrive.SwerveModule;
+import frc.robot.subsystems.swervedrive.SwerveModuleIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the swerve math done every loop in {@link SwerveDrive#drive} and {@link SwerveModule#setDesiredState}.
+ * The modules have IO that does nothing, so setDesiredState runs without any hardware
+ */
+@State(Scope.Thread)
+public class SwerveMathBenchmark implements Constants.Swerve {
+
+    // Faster than the robot can go, so desaturation actually has to scale the states
+    private ChassisSpeeds speeds;
+    private SwerveModuleState[] desiredStates;
+    private Rotation2d[] currentAngles;
+    private SwerveModule[] modules;
+
+    @Setup
+    public void setup() {
+        speeds = new ChassisSpeeds(4.5, 2.0, 6.0);
+        desiredStates = SwerveDrive.toModuleStates(speeds);
+        currentAngles = new Rotation2d[]{
+                Rotation2d.fromDegrees(10), Rotation2d.fromDegrees(170),
+                Rotation2d.fromDegrees(-95), Rotation2d.fromDegrees(265)
+        };
+        modules = new SwerveModule[4];
+        for (int i = 0; i < modules.length; i++) {
+            modules[i] = new SwerveModule(i, new SwerveModuleConstants(0, 0, 0, new Rotation2d()), new SwerveModuleIO() {});
+        }
+    }
+
+    @Benchmark
+    public SwerveModuleState[] toModuleStatesAndDesaturate() {
+        return SwerveDrive.toModuleStates(speeds);
+    }
+
+    /**
+     * The angle optimization and cosine scaling each module does in setDesiredState, from angles that need it
+     */
+    @Benchmark
+    public void optimizeModuleStates(Blackhole blackhole) {
+        for (int i = 0; i < desiredStates.length; i++) {
+            blackhole.consume(SwerveModule.optimize(desiredStates[i], currentAngles[i]));
+        }
+    }
+
+    /**
+     * All of setDesiredState in closed loop, including the drive feed forward
+     */
+    @Benchmark
+    public void setDesiredStates() {
+        for (int i = 0; i < modules.length; i++) {
+            modules[i].setDesiredState(desiredStates[i], false);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import frc.robot.subsystems.PoseEstimator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks working out how much to trust a vision measurement, which is done for every camera frame
+ */
+@State(Scope.Thread)
+public class VisionStdDevsBenchmark {
+
+    @Param({"1", "2"})
+    private int numTags;
+
+    private double avgDist = 2.5;
+
+    @Benchmark
+    public Matrix<N3, N1> getVisionEstimationStdDevs() {
+        return PoseEstimator.getVisionEstimationStdDevs(numTags, avgDist, false);
+    }
+}
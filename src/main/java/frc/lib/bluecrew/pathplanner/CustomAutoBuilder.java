@@ -1,27 +1,32 @@
 package frc.lib.bluecrew.pathplanner;
 
 import com.pathplanner.lib.auto.AutoBuilder;
-import com.pathplanner.lib.auto.AutoBuilderException;
 import com.pathplanner.lib.commands.PathPlannerAuto;
 import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
-import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
 import org.json.simple.parser.JSONParser;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 /**
  * This is a customized {@link AutoBuilder} that can build {@link SendableChooser} with options for all Path Planner autos in a given folder in the Path Planner UI
  */
 public class CustomAutoBuilder extends com.pathplanner.lib.auto.AutoBuilder {
 
+    // Which Path Planner UI folder each auto is in, built the first time it's needed
+    private static Map<String, List<String>> autoFolderIndex;
+
     /**
      * @param defaultAutoName The name of the auto the chooser should default to
      * @param pathplannerFolderName The name of the auto folder in the Path Planner UI from which this should pull autos from
@@ -37,26 +42,34 @@ public class CustomAutoBuilder extends com.pathplanner.lib.auto.AutoBuilder {
         SendableChooser<Command> chooser = new SendableChooser<>();
         List<String> autoNames = getAllAutoNamesInPPFolder(pathplannerFolderName);
 
-        PathPlannerAuto defaultOption = null;
-        List<PathPlannerAuto> options = new ArrayList<>();
+        // The autos are only built once they're selected, or when they're run if they somehow weren't built yet
+        Map<String, Command> builtAutos = new ConcurrentHashMap<>();
+        Map<Command, String> autoNamesByOption = new HashMap<>();
 
+        boolean hasDefault = false;
         for (String autoName : autoNames) {
-            PathPlannerAuto auto = new PathPlannerAuto(autoName);
+            Command option = Commands.deferredProxy(() -> builtAutos.computeIfAbsent(autoName, PathPlannerAuto::new))
+                    .withName(autoName);
+            autoNamesByOption.put(option, autoName);
 
             if (!defaultAutoName.isEmpty() && defaultAutoName.equals(autoName)) {
-                defaultOption = auto;
+                chooser.setDefaultOption(autoName, option);
+                hasDefault = true;
             } else {
-                options.add(auto);
+                chooser.addOption(autoName, option);
             }
         }
 
-        if (defaultOption == null) {
+        if (!hasDefault) {
             chooser.setDefaultOption("None", Commands.none());
-        } else {
-            chooser.setDefaultOption(defaultOption.getName(), defaultOption);
         }
 
-        options.forEach(auto -> chooser.addOption(auto.getName(), auto));
+        chooser.onChange(option -> {
+            String autoName = autoNamesByOption.get(option);
+            if (autoName != null) {
+                builtAutos.computeIfAbsent(autoName, PathPlannerAuto::new);
+            }
+        });
 
         return chooser;
     }
@@ -76,34 +89,104 @@ public class CustomAutoBuilder extends com.pathplanner.lib.auto.AutoBuilder {
      * @return List of all auto names in the folder
      */
     public static List<String> getAllAutoNamesInPPFolder(String pathplannerFolder) {
-        List<String> allAutoNames = AutoBuilder.getAllAutoNames();
-        List<String> wantedAutoNames = new ArrayList<>();
-
-        for(String autoName : allAutoNames) {
-            try (BufferedReader br =
-                         new BufferedReader(
-                                 new FileReader(
-                                         new File(
-                                                 Filesystem.getDeployDirectory(), "pathplanner/autos/" + autoName + ".auto")))) {
-                StringBuilder fileContentBuilder = new StringBuilder();
-                String line;
-                while ((line = br.readLine()) != null) {
-                    fileContentBuilder.append(line);
-                }
-
-                String fileContent = fileContentBuilder.toString();
-                JSONObject json = (JSONObject) new JSONParser().parse(fileContent);
-
-                if(Objects.equals(json.get("folder").toString(), pathplannerFolder)) {
-                    wantedAutoNames.add(autoName);
-                }
-            } catch (AutoBuilderException e) {
-                throw e;
-            } catch (Exception e) {
-                throw new RuntimeException(e.getMessage());
-            }
+        return getAutoFolderIndex().getOrDefault(pathplannerFolder, List.of());
+    }
+
+    /**
+     * Builds the index of which Path Planner UI folder every auto is in, the first time it's needed.
+     * The auto files are read in parallel, and only the folder field is pulled out of each one.
+     *
+     * @return A map of folder names to the sorted names of the autos in them
+     */
+    private static synchronized Map<String, List<String>> getAutoFolderIndex() {
+        if (autoFolderIndex == null) {
+            autoFolderIndex = AutoBuilder.getAllAutoNames().parallelStream()
+                    .collect(Collectors.groupingByConcurrent(CustomAutoBuilder::readAutoFolder));
+            autoFolderIndex.replaceAll((folder, autoNames) -> autoNames.stream().sorted().toList());
+        }
+        return autoFolderIndex;
+    }
+
+    /**
+     * Streams through an auto file, stopping as soon as the top level folder field has been read
+     *
+     * @param autoName The name of the auto
+     * @return The name of the folder the auto is in, or an empty string if it isn't in one
+     */
+    private static String readAutoFolder(String autoName) {
+        FolderFieldHandler folderFieldHandler = new FolderFieldHandler();
+
+        try (BufferedReader br =
+                     new BufferedReader(
+                             new FileReader(
+                                     new File(
+                                             Filesystem.getDeployDirectory(), "pathplanner/autos/" + autoName + ".auto")))) {
+            new JSONParser().parse(br, folderFieldHandler);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read the folder of auto " + autoName, e);
         }
 
-        return wantedAutoNames;
+        return folderFieldHandler.folder;
+    }
+
+    /**
+     * A {@link ContentHandler} that only looks for the top level "folder" field, and stops the parser once it finds it
+     */
+    private static class FolderFieldHandler implements ContentHandler {
+        private int depth = 0;
+        private boolean inFolderField = false;
+        private String folder = "";
+
+        @Override
+        public void startJSON() {}
+
+        @Override
+        public void endJSON() {}
+
+        @Override
+        public boolean startObject() {
+            depth++;
+            return true;
+        }
+
+        @Override
+        public boolean endObject() {
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            inFolderField = depth == 1 && "folder".equals(key);
+            return true;
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            inFolderField = false;
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            depth++;
+            return true;
+        }
+
+        @Override
+        public boolean endArray() {
+            depth--;
+            return true;
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            if (inFolderField) {
+                folder = Objects.toString(value, "");
+                // Returning false stops the parser, we have what we came for
+                return false;
+            }
+            return true;
+        }
     }
 }
@@ -0,0 +1,249 @@
+package frc.lib.bluecrew.pathplanner;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.auto.NamedCommands;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is singleton, and loads every Path Planner path and auto in the deploy directory once, so paths can be
+ * looked up, and autos built, by name without reading or parsing any files during autonomous.
+ * <p>
+ * The alliance flipped version of each path is made at the same time. Flipped paths are marked so the path followers
+ * don't flip them again, so they should only be followed on the red alliance.
+ */
+public final class PathRepository {
+
+    private static final String PATH_FILE_EXTENSION = ".path";
+    private static final String AUTO_FILE_EXTENSION = ".auto";
+
+    /**
+     * One step of a Path Planner auto, as read from its .auto file
+     *
+     * @param type The command type: wait, named, path, sequential, parallel, race or deadline
+     * @param name The named command or path name, for those types
+     * @param waitSeconds How long to wait, for a wait
+     * @param steps The steps inside a group, for the group types
+     */
+    private record AutoStep(String type, String name, double waitSeconds, List<AutoStep> steps) {}
+
+    private static PathRepository instance;
+
+    private final Map<String, PathPlannerPath> paths = new ConcurrentHashMap<>();
+    private final Map<String, PathPlannerPath> flippedPaths = new ConcurrentHashMap<>();
+    private final Map<String, Double> pathDurations = new ConcurrentHashMap<>();
+    private final Map<String, AutoStep> autos = new ConcurrentHashMap<>();
+
+    private volatile boolean preloaded = false;
+
+    private PathRepository() {}
+
+    public static synchronized PathRepository getInstance() {
+        if (instance == null) {
+            instance = new PathRepository();
+        }
+        return instance;
+    }
+
+    /**
+     * Loads and parses every path in deploy/pathplanner/paths, and every auto in deploy/pathplanner/autos, in parallel.
+     * This should be called once in robotInit, before anything builds autonomous commands.
+     */
+    public void loadAll() {
+        File[] pathFiles = new File(Filesystem.getDeployDirectory(), "pathplanner/paths")
+                .listFiles((dir, name) -> name.endsWith(PATH_FILE_EXTENSION));
+        if (pathFiles == null) {
+            DataLogManager.log("No Path Planner paths found in the deploy directory");
+            return;
+        }
+
+        long startTime = System.nanoTime();
+
+        Arrays.stream(pathFiles).parallel().forEach(file -> {
+            String pathName = file.getName().substring(0, file.getName().length() - PATH_FILE_EXTENSION.length());
+            try {
+                load(pathName);
+            } catch (RuntimeException e) {
+                DataLogManager.log("Failed to load path " + pathName + ": " + e.getMessage());
+            }
+        });
+
+        File[] autoFiles = new File(Filesystem.getDeployDirectory(), "pathplanner/autos")
+                .listFiles((dir, name) -> name.endsWith(AUTO_FILE_EXTENSION));
+        if (autoFiles != null) {
+            Arrays.stream(autoFiles).parallel().forEach(file -> {
+                String autoName = file.getName().substring(0, file.getName().length() - AUTO_FILE_EXTENSION.length());
+                try {
+                    loadAuto(autoName);
+                } catch (RuntimeException e) {
+                    DataLogManager.log("Failed to load auto " + autoName + ": " + e.getMessage());
+                }
+            });
+        }
+
+        preloaded = true;
+        DataLogManager.log("Loaded " + paths.size() + " paths and " + autos.size() + " autos in "
+                + (System.nanoTime() - startTime) / 1E6 + " ms");
+    }
+
+    /**
+     * @param pathName The name of the path, as it appears in the Path Planner UI
+     * @return The {@link PathPlannerPath}, as drawn for the blue alliance
+     */
+    public PathPlannerPath getPath(String pathName) {
+        PathPlannerPath path = paths.get(pathName);
+        return path != null ? path : load(pathName);
+    }
+
+    /**
+     * @param pathName The name of the path, as it appears in the Path Planner UI
+     * @param flipped Whether to get the path flipped to the red alliance side of the field
+     * @return The {@link PathPlannerPath}
+     */
+    public PathPlannerPath getPath(String pathName, boolean flipped) {
+        if (!flipped) return getPath(pathName);
+
+        PathPlannerPath path = flippedPaths.get(pathName);
+        if (path != null) return path;
+        load(pathName);
+        return flippedPaths.get(pathName);
+    }
+
+    /**
+     * @param pathName The name of the path, as it appears in the Path Planner UI
+     * @return Whether there is a path with this name
+     */
+    public boolean hasPath(String pathName) {
+        return paths.containsKey(pathName);
+    }
+
+    /**
+     * How long it takes to follow a path from a standstill, from the trajectory Path Planner generates for it.
+     * The trajectory is only generated the first time, after that this is a lookup. It's the same for both alliances
+     *
+     * @param pathName The name of the path, as it appears in the Path Planner UI
+     * @return How long the path takes to follow, in seconds
+     */
+    public double getDurationSeconds(String pathName) {
+        Double duration = pathDurations.get(pathName);
+        if (duration != null) return duration;
+
+        PathPlannerPath path = getPath(pathName);
+        duration = path.getTrajectory(new ChassisSpeeds(), path.getPreviewStartingHolonomicPose().getRotation())
+                .getTotalTimeSeconds();
+        pathDurations.put(pathName, duration);
+        return duration;
+    }
+
+    /**
+     * Builds the commands for a Path Planner auto, like {@link AutoBuilder#buildAuto}, but from the loaded auto and paths,
+     * so no files are read. The paths are followed already flipped for the alliance, instead of being flipped when they start.
+     * Starting poses aren't applied, these autos are pieces of a routine. This must be called on the main robot thread
+     *
+     * @param autoName The name of the auto, as it appears in the Path Planner UI
+     * @param flipped Whether to follow the paths flipped to the red alliance side of the field
+     * @return The auto's {@link Command}
+     */
+    public Command buildAuto(String autoName, boolean flipped) {
+        AutoStep auto = autos.get(autoName);
+        return buildStep(auto != null ? auto : loadAuto(autoName), flipped);
+    }
+
+    private Command buildStep(AutoStep step, boolean flipped) {
+        return switch (step.type()) {
+            case "wait" -> Commands.waitSeconds(step.waitSeconds());
+            case "named" -> NamedCommands.getCommand(step.name());
+            case "path" -> AutoBuilder.followPath(getPath(step.name(), flipped));
+            case "sequential" -> Commands.sequence(buildSteps(step.steps(), flipped));
+            case "parallel" -> Commands.parallel(buildSteps(step.steps(), flipped));
+            case "race" -> Commands.race(buildSteps(step.steps(), flipped));
+            case "deadline" -> {
+                Command[] commands = buildSteps(step.steps(), flipped);
+                yield commands.length == 0 ? Commands.none()
+                        : Commands.deadline(commands[0], Arrays.copyOfRange(commands, 1, commands.length));
+            }
+            default -> Commands.none();
+        };
+    }
+
+    private Command[] buildSteps(List<AutoStep> steps, boolean flipped) {
+        Command[] commands = new Command[steps.size()];
+        for (int i = 0; i < commands.length; i++) {
+            commands[i] = buildStep(steps.get(i), flipped);
+        }
+        return commands;
+    }
+
+    /**
+     * @return The names of every loaded path
+     */
+    public Set<String> getPathNames() {
+        return paths.keySet();
+    }
+
+    private PathPlannerPath load(String pathName) {
+        if (preloaded) {
+            // Everything should have been loaded in robotInit, so this means a path is missing or was added late
+            DataLogManager.log("Path " + pathName + " was not preloaded, loading it from file");
+        }
+        PathPlannerPath path = PathPlannerPath.fromPathFile(pathName);
+        PathPlannerPath flippedPath = path.flipPath();
+        // It's already flipped, so the followers shouldn't flip it back
+        flippedPath.preventFlipping = true;
+        flippedPaths.put(pathName, flippedPath);
+        paths.put(pathName, path);
+        return path;
+    }
+
+    private AutoStep loadAuto(String autoName) {
+        if (preloaded) {
+            DataLogManager.log("Auto " + autoName + " was not preloaded, loading it from file");
+        }
+        File autoFile = new File(Filesystem.getDeployDirectory(), "pathplanner/autos/" + autoName + AUTO_FILE_EXTENSION);
+        try (Reader reader = new FileReader(autoFile)) {
+            JSONObject json = (JSONObject) new JSONParser().parse(reader);
+            AutoStep auto = parseStep((JSONObject) json.get("command"));
+            autos.put(autoName, auto);
+            return auto;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to read auto " + autoName, e);
+        }
+    }
+
+    private static AutoStep parseStep(JSONObject json) {
+        String type = (String) json.get("type");
+        JSONObject data = (JSONObject) json.get("data");
+        return switch (type) {
+            case "wait" -> new AutoStep(type, null, ((Number) data.get("waitTime")).doubleValue(), List.of());
+            case "named" -> new AutoStep(type, (String) data.get("name"), 0, List.of());
+            case "path" -> new AutoStep(type, (String) data.get("pathName"), 0, List.of());
+            default -> {
+                List<AutoStep> steps = new ArrayList<>();
+                JSONArray commands = (JSONArray) data.get("commands");
+                if (commands != null) {
+                    for (Object command : commands) {
+                        steps.add(parseStep((JSONObject) command));
+                    }
+                }
+                yield new AutoStep(type, null, 0, List.copyOf(steps));
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package frc.lib.bluecrew.pathplanner;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class is singleton, and looks up how long it takes to drive between two autonomous waypoints, from the file
+ * {@link TravelTimeMatrixGenerator} makes at build time. The file is memory mapped, so loading it doesn't read
+ * the times in, and each lookup is a single read from the mapped file.
+ * <p>
+ * The file is the magic number, the number of waypoints, each waypoint name (as written by
+ * {@link java.io.DataOutputStream#writeUTF}), then the travel time in seconds from each waypoint to every other as floats,
+ * one row per starting waypoint.
+ */
+public final class TravelTimeMatrix implements Constants.PathPlannerConstants {
+
+    static final int FILE_MAGIC = 0x54544D31; // "TTM1"
+
+    private static TravelTimeMatrix instance;
+
+    private final Map<String, Integer> waypointIndices = new HashMap<>();
+    private volatile MappedByteBuffer times;
+    private int waypointCount;
+    private int timesOffset;
+
+    private TravelTimeMatrix() {}
+
+    public static synchronized TravelTimeMatrix getInstance() {
+        if (instance == null) {
+            instance = new TravelTimeMatrix();
+        }
+        return instance;
+    }
+
+    /**
+     * Maps the travel time file in the deploy directory. This should be called once in robotInit.
+     * If there is no file, {@link #isLoaded()} stays false and the callers fall back to the path durations
+     */
+    public synchronized void load() {
+        File file = new File(Filesystem.getDeployDirectory(), TRAVEL_TIMES_FILE);
+        if (!file.exists()) {
+            DataLogManager.log("No travel time file, run ./gradlew generateTravelTimes to make one");
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != FILE_MAGIC) {
+                DataLogManager.log("Travel time file " + file + " isn't in the expected format");
+                return;
+            }
+
+            waypointCount = buffer.getInt();
+            for (int i = 0; i < waypointCount; i++) {
+                byte[] name = new byte[Short.toUnsignedInt(buffer.getShort())];
+                buffer.get(name);
+                waypointIndices.put(new String(name, StandardCharsets.UTF_8), i);
+            }
+            timesOffset = buffer.position();
+            times = buffer;
+            DataLogManager.log("Mapped travel times between " + waypointCount + " waypoints");
+        } catch (IOException e) {
+            DataLogManager.log("Failed to map the travel time file: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return Whether the travel time file was loaded
+     */
+    public boolean isLoaded() {
+        return times != null;
+    }
+
+    /**
+     * @param waypoint The waypoint name, e.g. {@code CN3} or {@code Sp-AmpLn}
+     * @return The index to look the waypoint up with, or -1 if there's no such waypoint (or nothing is loaded)
+     */
+    public int indexOf(String waypoint) {
+        Integer index = waypointIndices.get(waypoint);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * @param from The index of the waypoint to start at, from {@link #indexOf}
+     * @param to The index of the waypoint to end at, from {@link #indexOf}
+     * @return How long it takes to drive from one waypoint to the other, in seconds
+     */
+    public double getSeconds(int from, int to) {
+        ByteBuffer buffer = times;
+        return buffer.getFloat(timesOffset + (from * waypointCount + to) * Float.BYTES);
+    }
+
+    /**
+     * @param from The name of the waypoint to start at
+     * @param to The name of the waypoint to end at
+     * @return How long it takes to drive from one waypoint to the other in seconds, or NaN if either isn't in the file
+     */
+    public double getSeconds(String from, String to) {
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (!isLoaded() || fromIndex < 0 || toIndex < 0) return Double.NaN;
+        return getSeconds(fromIndex, toIndex);
+    }
+}
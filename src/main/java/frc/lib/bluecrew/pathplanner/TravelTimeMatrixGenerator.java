@@ -0,0 +1,263 @@
+package frc.lib.bluecrew.pathplanner;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Works out how long it takes to drive between every pair of autonomous waypoints, and writes them to the file
+ * {@link TravelTimeMatrix} reads. This runs on the computer at build time, not on the robot, with
+ * {@code ./gradlew generateTravelTimes} (deploying and simulating run it first).
+ * <p>
+ * The waypoints are the ends of the Path Planner paths, named from the path names: {@code Amp}, {@code SN1} to
+ * {@code SN3} and {@code CN1} to {@code CN5}, plus {@code Sp-<lane>}, {@code CL-<lane>} and {@code SL-<lane>}, which are
+ * in different places in each lane. Each travel time is the shortest route around the obstacles in navgrid.json,
+ * driven from a stop to a stop at the {@link Constants.PathPlannerConstants#pathConstraints} velocity and acceleration.
+ */
+public final class TravelTimeMatrixGenerator implements Constants.PathPlannerConstants {
+
+    private static final String LANE_SUFFIX = "Ln";
+    // These waypoints are somewhere different in each lane
+    private static final List<String> LANE_WAYPOINTS = List.of("Sp", "CL", "SL");
+
+    private final boolean[][] obstacles;
+    private final double nodeSize;
+    private final int rows;
+    private final int columns;
+
+    private TravelTimeMatrixGenerator(boolean[][] obstacles, double nodeSize) {
+        this.obstacles = obstacles;
+        this.nodeSize = nodeSize;
+        rows = obstacles.length;
+        columns = obstacles[0].length;
+    }
+
+    /**
+     * @param args The deploy directory
+     */
+    public static void main(String... args) throws IOException, ParseException {
+        File deployDirectory = new File(args[0]);
+        TravelTimeMatrixGenerator generator = loadNavGrid(new File(deployDirectory, "pathplanner/navgrid.json"));
+        Map<String, Translation2d> waypoints = findWaypoints(new File(deployDirectory, "pathplanner/paths"));
+
+        String[] names = waypoints.keySet().toArray(String[]::new);
+        Translation2d[] positions = waypoints.values().toArray(Translation2d[]::new);
+        float[][] seconds = new float[names.length][names.length];
+        IntStream.range(0, names.length).parallel().forEach(from -> {
+            for (int to = 0; to < names.length; to++) {
+                if (from != to) seconds[from][to] = (float) generator.travelSeconds(positions[from], positions[to]);
+            }
+        });
+
+        File outputFile = new File(deployDirectory, TRAVEL_TIMES_FILE);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)))) {
+            out.writeInt(TravelTimeMatrix.FILE_MAGIC);
+            out.writeInt(names.length);
+            for (String name : names) {
+                out.writeUTF(name);
+            }
+            for (float[] row : seconds) {
+                for (float value : row) {
+                    out.writeFloat(value);
+                }
+            }
+        }
+        System.out.println("Wrote travel times between " + names.length + " waypoints to " + outputFile);
+    }
+
+    private static TravelTimeMatrixGenerator loadNavGrid(File navGridFile) throws IOException, ParseException {
+        JSONObject json = readJson(navGridFile);
+        JSONArray grid = (JSONArray) json.get("grid");
+
+        boolean[][] obstacles = new boolean[grid.size()][];
+        for (int row = 0; row < grid.size(); row++) {
+            JSONArray cells = (JSONArray) grid.get(row);
+            obstacles[row] = new boolean[cells.size()];
+            for (int column = 0; column < cells.size(); column++) {
+                obstacles[row][column] = (Boolean) cells.get(column);
+            }
+        }
+        return new TravelTimeMatrixGenerator(obstacles, ((Number) json.get("nodeSizeMeters")).doubleValue());
+    }
+
+    /**
+     * Names the start and end of every path, and averages where each one is across all the paths it's in
+     */
+    private static Map<String, Translation2d> findWaypoints(File pathDirectory) throws IOException, ParseException {
+        File[] pathFiles = pathDirectory.listFiles((dir, name) -> name.endsWith(".path"));
+        if (pathFiles == null) throw new IOException("No paths in " + pathDirectory);
+        Arrays.sort(pathFiles);
+
+        Map<String, Translation2d> positionSums = new TreeMap<>();
+        Map<String, Integer> counts = new TreeMap<>();
+        for (File pathFile : pathFiles) {
+            String[] parts = pathFile.getName().substring(0, pathFile.getName().length() - ".path".length()).split("-");
+            // Only paths between two waypoints, optionally through a lane, name their ends
+            String lane;
+            if (parts.length == 2) {
+                lane = null;
+            } else if (parts.length == 3 && parts[1].endsWith(LANE_SUFFIX)) {
+                lane = parts[1];
+            } else {
+                continue;
+            }
+
+            JSONArray pathWaypoints = (JSONArray) readJson(pathFile).get("waypoints");
+            String[] ends = {parts[0], parts[parts.length - 1]};
+            Translation2d[] endPositions = {getAnchor(pathWaypoints.get(0)), getAnchor(pathWaypoints.get(pathWaypoints.size() - 1))};
+            for (int i = 0; i < ends.length; i++) {
+                String name = ends[i];
+                if (LANE_WAYPOINTS.contains(name)) {
+                    if (lane == null) continue;
+                    name += "-" + lane;
+                }
+                positionSums.merge(name, endPositions[i], Translation2d::plus);
+                counts.merge(name, 1, Integer::sum);
+            }
+        }
+
+        Map<String, Translation2d> waypoints = new TreeMap<>();
+        positionSums.forEach((name, sum) -> waypoints.put(name, sum.div(counts.get(name))));
+        return waypoints;
+    }
+
+    private static Translation2d getAnchor(Object waypoint) {
+        JSONObject anchor = (JSONObject) ((JSONObject) waypoint).get("anchor");
+        return new Translation2d(((Number) anchor.get("x")).doubleValue(), ((Number) anchor.get("y")).doubleValue());
+    }
+
+    private static JSONObject readJson(File file) throws IOException, ParseException {
+        try (Reader reader = new FileReader(file)) {
+            return (JSONObject) new JSONParser().parse(reader);
+        }
+    }
+
+    /**
+     * @return How long it takes to drive the shortest route around the obstacles, from a stop to a stop
+     */
+    private double travelSeconds(Translation2d start, Translation2d end) {
+        double distance = routeLength(start, end);
+        double maxVelocity = pathConstraints.getMaxVelocityMps();
+        double maxAcceleration = pathConstraints.getMaxAccelerationMpsSq();
+
+        // If we can't get up to full speed, we accelerate halfway there and slow down the rest of the way
+        if (distance < maxVelocity * maxVelocity / maxAcceleration) {
+            return 2 * Math.sqrt(distance / maxAcceleration);
+        }
+        return distance / maxVelocity + maxVelocity / maxAcceleration;
+    }
+
+    /**
+     * A* across the grid, then cuts corners wherever there's a straight line between the nodes on the route
+     */
+    private double routeLength(Translation2d start, Translation2d end) {
+        int startNode = nearestOpenNode(start);
+        int endNode = nearestOpenNode(end);
+
+        double[] costs = new double[rows * columns];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        int[] cameFrom = new int[rows * columns];
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+
+        costs[startNode] = 0;
+        open.add(new double[]{heuristic(startNode, endNode), startNode});
+        while (!open.isEmpty()) {
+            int node = (int) open.poll()[1];
+            if (node == endNode) break;
+
+            int row = node / columns;
+            int column = node % columns;
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dColumn = -1; dColumn <= 1; dColumn++) {
+                    int nextRow = row + dRow;
+                    int nextColumn = column + dColumn;
+                    if ((dRow == 0 && dColumn == 0) || isBlocked(nextRow, nextColumn)) continue;
+                    // Don't cut the corner of an obstacle going diagonally
+                    if (dRow != 0 && dColumn != 0 && (isBlocked(row, nextColumn) || isBlocked(nextRow, column))) continue;
+
+                    int next = nextRow * columns + nextColumn;
+                    double cost = costs[node] + Math.hypot(dRow, dColumn) * nodeSize;
+                    if (cost < costs[next]) {
+                        costs[next] = cost;
+                        cameFrom[next] = node;
+                        open.add(new double[]{cost + heuristic(next, endNode), next});
+                    }
+                }
+            }
+        }
+        if (Double.isInfinite(costs[endNode])) {
+            throw new IllegalStateException("There's no route from " + start + " to " + end);
+        }
+
+        List<Translation2d> route = new ArrayList<>();
+        route.add(end);
+        for (int node = endNode; node != startNode; node = cameFrom[node]) {
+            route.add(nodeCenter(node));
+        }
+        route.add(start);
+
+        // Walk the route, skipping straight to the furthest node we can see from each one
+        double length = 0;
+        int from = route.size() - 1;
+        while (from > 0) {
+            int to = 0;
+            while (to < from - 1 && !hasLineOfSight(route.get(from), route.get(to))) to++;
+            length += route.get(from).getDistance(route.get(to));
+            from = to;
+        }
+        return length;
+    }
+
+    private int nearestOpenNode(Translation2d position) {
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        for (int node = 0; node < rows * columns; node++) {
+            if (obstacles[node / columns][node % columns]) continue;
+            double distance = nodeCenter(node).getDistance(position);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private boolean hasLineOfSight(Translation2d from, Translation2d to) {
+        int steps = (int) Math.ceil(from.getDistance(to) / (nodeSize / 2));
+        for (int i = 1; i < steps; i++) {
+            Translation2d point = from.interpolate(to, (double) i / steps);
+            if (isBlocked((int) (point.getY() / nodeSize), (int) (point.getX() / nodeSize))) return false;
+        }
+        return true;
+    }
+
+    private boolean isBlocked(int row, int column) {
+        return row < 0 || row >= rows || column < 0 || column >= columns || obstacles[row][column];
+    }
+
+    private double heuristic(int node, int endNode) {
+        return nodeCenter(node).getDistance(nodeCenter(endNode));
+    }
+
+    private Translation2d nodeCenter(int node) {
+        return new Translation2d((node % columns + 0.5) * nodeSize, (node / columns + 0.5) * nodeSize);
+    }
+}
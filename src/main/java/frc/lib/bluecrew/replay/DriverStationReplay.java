@@ -0,0 +1,111 @@
+package frc.lib.bluecrew.replay;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.networktables.GenericPublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.robot.Constants;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Feeds the logged driver station state back into the simulated driver station when replaying: the robot mode,
+ * the alliance, the joysticks, and the autonomous dashboard settings. The robot has to have recorded its driver station
+ * data with {@link DriverStation#startDataLog}.
+ */
+public final class DriverStationReplay implements Constants.ReplayConstants {
+
+    private static final String ALLIANCE_LOG_ENTRY = "FieldState/OnRedAlliance";
+
+    private final ReplayLog replayLog;
+
+    private final Map<String, GenericPublisher> dashboardPublishers = new HashMap<>();
+    private final Map<String, Object> lastDashboardValues = new HashMap<>();
+
+    public DriverStationReplay(ReplayLog replayLog) {
+        this.replayLog = replayLog;
+
+        DriverStationSim.setDsAttached(true);
+    }
+
+    /**
+     * Sets the simulated driver station to how it was during a logged loop. This should be called right before running the loop
+     *
+     * @param loop The loop index in the {@link ReplayLog}
+     */
+    public void apply(int loop) {
+        DriverStationSim.setEnabled(getBoolean("DS:enabled", loop));
+        DriverStationSim.setAutonomous(getBoolean("DS:autonomous", loop));
+        DriverStationSim.setTest(getBoolean("DS:test", loop));
+        DriverStationSim.setEStop(getBoolean("DS:estop", loop));
+        DriverStationSim.setAllianceStationId(getBoolean(ALLIANCE_LOG_ENTRY, loop) ? AllianceStationID.Red1 : AllianceStationID.Blue1);
+
+        for (int stick = 0; stick < DriverStation.kJoystickPorts; stick++) {
+            applyJoystick(stick, loop);
+        }
+
+        applyDashboard(loop);
+
+        DriverStationSim.notifyNewData();
+    }
+
+    private void applyJoystick(int stick, int loop) {
+        String prefix = "DS:joystick" + stick + "/";
+
+        if (replayLog.getLatest(prefix + "axes", loop) instanceof float[] axes) {
+            DriverStationSim.setJoystickAxisCount(stick, axes.length);
+            for (int axis = 0; axis < axes.length; axis++) {
+                DriverStationSim.setJoystickAxis(stick, axis, axes[axis]);
+            }
+        }
+        if (replayLog.getLatest(prefix + "buttons", loop) instanceof boolean[] buttons) {
+            DriverStationSim.setJoystickButtonCount(stick, buttons.length);
+            for (int button = 0; button < buttons.length; button++) {
+                // Buttons are numbered from 1
+                DriverStationSim.setJoystickButton(stick, button + 1, buttons[button]);
+            }
+        }
+        if (replayLog.getLatest(prefix + "povs", loop) instanceof long[] povs) {
+            DriverStationSim.setJoystickPOVCount(stick, povs.length);
+            for (int pov = 0; pov < povs.length; pov++) {
+                DriverStationSim.setJoystickPOV(stick, pov, (int) povs[pov]);
+            }
+        }
+    }
+
+    /**
+     * Publishes the logged autonomous dashboard values to NetworkTables, so the choosers pick what was picked in the match
+     */
+    private void applyDashboard(int loop) {
+        for (String name : replayLog.getEntryNames()) {
+            if (!name.startsWith(REPLAYED_NETWORK_TABLES_PREFIX)) continue;
+
+            Object value = replayLog.getLatest(name, loop);
+            // Only single values are dashboard settings, arrays are things like the chooser options the robot publishes
+            if (!(value instanceof Double || value instanceof Long || value instanceof Boolean || value instanceof String)) continue;
+            if (Objects.equals(value, lastDashboardValues.get(name))) continue;
+            lastDashboardValues.put(name, value);
+
+            String type = replayLog.getType(name);
+            GenericPublisher publisher = dashboardPublishers.computeIfAbsent(name, entryName ->
+                    NetworkTableInstance.getDefault().getTopic(entryName.substring("NT:".length())).genericPublish(type));
+
+            if (value instanceof Double number) {
+                publisher.setDouble(number);
+            } else if (value instanceof Long number) {
+                publisher.setInteger(number);
+            } else if (value instanceof Boolean bool) {
+                publisher.setBoolean(bool);
+            } else if (value instanceof String string) {
+                publisher.setString(string);
+            }
+        }
+    }
+
+    private boolean getBoolean(String name, int loop) {
+        return replayLog.getLatest(name, loop) instanceof Boolean value && value;
+    }
+}
@@ -0,0 +1,183 @@
+package frc.lib.bluecrew.replay;
+
+import frc.lib.bluecrew.util.StateLogger;
+import frc.robot.Constants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * This class is singleton, and sits between the hardware IO classes and everything that uses their inputs.
+ * On the robot, every input is recorded to the log under {@value INPUTS_LOG_PREFIX} as it's read. When replaying
+ * (the {@value REPLAY_LOG_ENVIRONMENT_VARIABLE} environment variable is set to a log file), the IO classes do nothing,
+ * and the inputs are read back out of that log instead, one robot loop at a time.
+ * <p>
+ * This should only be used from the main robot thread.
+ */
+public final class InputLogger implements Constants.ReplayConstants {
+
+    private static final String replayLogPath = System.getenv(REPLAY_LOG_ENVIRONMENT_VARIABLE);
+
+    private static InputLogger instance;
+
+    // Only set when replaying
+    private final ReplayLog replayLog;
+    private int replayLoop = -1;
+
+    // Only used on the robot
+    private final int loopStartEntry;
+    private long loopCount = 0;
+
+    private InputLogger() {
+        if (isReplay()) {
+            try {
+                replayLog = new ReplayLog(replayLogPath);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read the replay log " + replayLogPath, e);
+            }
+            loopStartEntry = -1;
+        } else {
+            replayLog = null;
+            loopStartEntry = StateLogger.getInstance().startEntry(LOOP_START_LOG_ENTRY, "int64");
+        }
+    }
+
+    public static synchronized InputLogger getInstance() {
+        if (instance == null) {
+            instance = new InputLogger();
+        }
+        return instance;
+    }
+
+    /**
+     * @return Whether we are replaying a log, instead of running on hardware
+     */
+    public static boolean isReplay() {
+        return replayLogPath != null;
+    }
+
+    /**
+     * Marks the start of a robot loop. On the robot this is recorded to the log, when replaying it moves on to the next logged loop
+     */
+    public void startLoop() {
+        if (replayLog != null) {
+            replayLoop++;
+        } else {
+            StateLogger.getInstance().recordInteger(loopStartEntry, loopCount++);
+        }
+    }
+
+    /**
+     * @return The log being replayed, or null if we are running on hardware
+     */
+    public ReplayLog getReplayLog() {
+        return replayLog;
+    }
+
+    /**
+     * Gets the entry for a set of inputs that are read once per loop.
+     * This should be called once and the {@link InputsEntry} kept, not called every loop.
+     *
+     * @param name The name to log the inputs under, after {@value INPUTS_LOG_PREFIX}
+     * @param inputs The inputs, which the entry will record or overwrite
+     * @return The {@link InputsEntry}
+     */
+    public InputsEntry getInputsEntry(String name, LoggableInputs inputs) {
+        return new InputsEntry(name, inputs);
+    }
+
+    /**
+     * Gets the entry for inputs that come in as zero or more samples each loop, such as odometry or vision measurements.
+     * This should be called once and the {@link SampleEntry} kept, not called every loop.
+     *
+     * @param name The name to log the samples under, after {@value INPUTS_LOG_PREFIX}
+     * @param size How many values are in each sample
+     * @return The {@link SampleEntry}
+     */
+    public SampleEntry getSampleEntry(String name, int size) {
+        return new SampleEntry(name, size);
+    }
+
+    private int startInputEntry(String name, int size) {
+        if (size * Double.BYTES > Constants.StateLogging.STATE_LOGGER_MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException(name + " has too many inputs to log, " + size + " values won't fit in one record");
+        }
+        return replayLog == null ? StateLogger.getInstance().startEntry(INPUTS_LOG_PREFIX + name, "double[]") : -1;
+    }
+
+    /**
+     * A set of inputs that is read once per loop
+     */
+    public final class InputsEntry {
+        private final String name;
+        private final LoggableInputs inputs;
+        private final double[] values;
+        private final int entry;
+
+        private InputsEntry(String name, LoggableInputs inputs) {
+            this.name = INPUTS_LOG_PREFIX + name;
+            this.inputs = inputs;
+            values = new double[inputs.size()];
+            entry = startInputEntry(name, inputs.size());
+        }
+
+        /**
+         * Records the inputs, or when replaying, overwrites them with the ones logged this loop.
+         * This should be called right after the IO updates the inputs
+         */
+        public void process() {
+            if (replayLog == null) {
+                inputs.toLog(values);
+                StateLogger.getInstance().recordDoubleArray(entry, values);
+            } else if (replayLoop >= 0) {
+                // Before the first loop there's nothing to replay, so the inputs keep their defaults
+                if (replayLog.getLatest(name, replayLoop) instanceof double[] logged && logged.length == values.length) {
+                    inputs.fromLog(logged);
+                }
+            }
+        }
+    }
+
+    /**
+     * Inputs that come in as zero or more samples each loop
+     */
+    public final class SampleEntry {
+        private final String name;
+        private final int entry;
+
+        private List<Object> replayedSamples = List.of();
+        private int replayedSampleLoop = -1;
+        private int nextReplayedSample = 0;
+
+        private SampleEntry(String name, int size) {
+            this.name = INPUTS_LOG_PREFIX + name;
+            entry = startInputEntry(name, size);
+        }
+
+        /**
+         * Records a sample. This does nothing when replaying
+         *
+         * @param values The sample, which is copied, so it can be reused
+         */
+        public void record(double[] values) {
+            if (replayLog == null) {
+                StateLogger.getInstance().recordDoubleArray(entry, values);
+            }
+        }
+
+        /**
+         * @return The next sample that was logged this loop, or null if there are no more (or we aren't replaying)
+         */
+        public double[] pollReplayed() {
+            if (replayLog == null || replayLoop < 0) return null;
+
+            if (replayedSampleLoop != replayLoop) {
+                replayedSamples = replayLog.getInLoop(name, replayLoop);
+                replayedSampleLoop = replayLoop;
+                nextReplayedSample = 0;
+            }
+            return nextReplayedSample < replayedSamples.size() ? (double[]) replayedSamples.get(nextReplayedSample++) : null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package frc.lib.bluecrew.replay;
+
+/**
+ * A set of hardware inputs that can be recorded to the log as a double[], and read back when replaying.
+ * Booleans are logged as 1 or 0.
+ */
+public interface LoggableInputs {
+
+    /**
+     * @return How many values these inputs are logged as
+     */
+    int size();
+
+    /**
+     * Writes every input into values, always in the same order
+     *
+     * @param values The array to write into, {@link #size()} long
+     */
+    void toLog(double[] values);
+
+    /**
+     * Reads every input back out of values, in the same order as {@link #toLog(double[])}
+     *
+     * @param values The logged values, {@link #size()} long
+     */
+    void fromLog(double[] values);
+}
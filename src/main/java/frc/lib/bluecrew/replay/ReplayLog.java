@@ -0,0 +1,182 @@
+package frc.lib.bluecrew.replay;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.Constants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A DataLog read into memory, with every record grouped into the robot loop it was recorded in.
+ * Loop k covers everything recorded from the k-th {@value Constants.ReplayConstants#LOOP_START_LOG_ENTRY} marker
+ * up to the next one.
+ */
+public final class ReplayLog implements Constants.ReplayConstants {
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final long[] loopStartTimestamps;
+
+    /**
+     * Reads the entries listed in {@link Constants.ReplayConstants#REPLAYED_LOG_PREFIXES} out of a log file
+     *
+     * @param path The path of the .wpilog file
+     * @throws IOException If the file can't be read, or isn't a DataLog
+     */
+    public ReplayLog(String path) throws IOException {
+        DataLogReader reader = new DataLogReader(path);
+        if (!reader.isValid()) {
+            throw new IOException(path + " is not a valid DataLog");
+        }
+
+        Map<Integer, Entry> entriesById = new HashMap<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData startData = record.getStartData();
+                if (shouldLoad(startData.name)) {
+                    Entry entry = entries.computeIfAbsent(startData.name, name -> new Entry(startData.type));
+                    entriesById.put(startData.entry, entry);
+                } else {
+                    entriesById.remove(startData.entry);
+                }
+            } else if (!record.isControl()) {
+                Entry entry = entriesById.get(record.getEntry());
+                if (entry == null) continue;
+
+                Object value = decode(record, entry.type);
+                if (value != null) entry.add(record.getTimestamp(), value);
+            }
+        }
+
+        Entry loopStarts = entries.get(LOOP_START_LOG_ENTRY);
+        loopStartTimestamps = loopStarts == null ? new long[0] : Arrays.copyOf(loopStarts.timestamps, loopStarts.size);
+    }
+
+    /**
+     * @return How many robot loops were recorded
+     */
+    public int getLoopCount() {
+        return loopStartTimestamps.length;
+    }
+
+    /**
+     * @param loop The loop index
+     * @return When the loop started, in microseconds on the robot's FPGA clock
+     */
+    public long getLoopTimestampMicros(int loop) {
+        return loopStartTimestamps[loop];
+    }
+
+    /**
+     * @return The names of every entry that was read
+     */
+    public Set<String> getEntryNames() {
+        return entries.keySet();
+    }
+
+    /**
+     * @param name The name of the entry
+     * @return The DataLog type string of the entry, or null if it wasn't in the log
+     */
+    public String getType(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? null : entry.type;
+    }
+
+    /**
+     * @param name The name of the entry
+     * @param loop The loop index
+     * @return The newest value recorded by the end of this loop, or null if there isn't one
+     */
+    public Object getLatest(String name, int loop) {
+        Entry entry = entries.get(name);
+        if (entry == null) return null;
+
+        int index = entry.lowerBound(getLoopEnd(loop)) - 1;
+        return index >= 0 ? entry.values.get(index) : null;
+    }
+
+    /**
+     * @param name The name of the entry
+     * @param loop The loop index
+     * @return Every value recorded during this loop, oldest first. This is a view of the log, so don't modify it
+     */
+    public List<Object> getInLoop(String name, int loop) {
+        Entry entry = entries.get(name);
+        if (entry == null) return Collections.emptyList();
+
+        return entry.values.subList(entry.lowerBound(loopStartTimestamps[loop]), entry.lowerBound(getLoopEnd(loop)));
+    }
+
+    private long getLoopEnd(int loop) {
+        return loop + 1 < loopStartTimestamps.length ? loopStartTimestamps[loop + 1] : Long.MAX_VALUE;
+    }
+
+    private static boolean shouldLoad(String name) {
+        for (String prefix : REPLAYED_LOG_PREFIXES) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private static Object decode(DataLogRecord record, String type) {
+        return switch (type) {
+            case "double" -> record.getDouble();
+            case "float" -> record.getFloat();
+            case "int64", "int" -> record.getInteger();
+            case "boolean" -> record.getBoolean();
+            case "string" -> record.getString();
+            case "double[]" -> record.getDoubleArray();
+            case "float[]" -> record.getFloatArray();
+            case "int64[]", "int[]" -> record.getIntegerArray();
+            case "boolean[]" -> record.getBooleanArray();
+            // Nothing we replay uses any other type
+            default -> null;
+        };
+    }
+
+    /**
+     * Every value recorded to one entry, in the order they were recorded
+     */
+    private static final class Entry {
+        private final String type;
+        private long[] timestamps = new long[64];
+        private final List<Object> values = new ArrayList<>();
+        private int size = 0;
+
+        private Entry(String type) {
+            this.type = type;
+        }
+
+        private void add(long timestamp, Object value) {
+            if (size == timestamps.length) {
+                timestamps = Arrays.copyOf(timestamps, size * 2);
+            }
+            timestamps[size++] = timestamp;
+            values.add(value);
+        }
+
+        /**
+         * @return The index of the first value recorded at or after the timestamp
+         */
+        private int lowerBound(long timestamp) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (timestamps[middle] < timestamp) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
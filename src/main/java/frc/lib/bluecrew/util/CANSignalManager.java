@@ -0,0 +1,98 @@
+package frc.lib.bluecrew.util;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.hardware.ParentDevice;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.bluecrew.util.Telemetry.Verbosity;
+import frc.robot.Constants;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class is singleton, and keeps track of every Phoenix 6 status signal we actually use, and how often we need it.
+ * Once everything is registered, {@link #applyAll()} sets those update rates and turns off every other signal,
+ * so the CAN bus is free for the signals that matter.
+ */
+public final class CANSignalManager implements Constants.CANSignalFrequencies {
+
+    private static CANSignalManager instance;
+
+    private final Set<ParentDevice> devices = new LinkedHashSet<>();
+    private final List<Double> frequencies = new ArrayList<>();
+    private final List<BaseStatusSignal[]> signalGroups = new ArrayList<>();
+
+    private int loopsSinceBusUtilizationPublished = 0;
+
+    /* Only published every BUS_UTILIZATION_PUBLISH_LOOPS loops already, so the signals don't need to hold any back */
+    private final Telemetry.DoubleSignal busUtilizationTelemetry =
+            Telemetry.getInstance().getDoubleSignal("CAN Bus Utilization", Verbosity.COMPETITION, 0, 1);
+    private final Telemetry.DoubleSignal busOffCountTelemetry =
+            Telemetry.getInstance().getDoubleSignal("CAN Bus Off Count", Verbosity.DEBUG, 0, 1);
+    private final Telemetry.DoubleSignal txFullCountTelemetry =
+            Telemetry.getInstance().getDoubleSignal("CAN TX Full Count", Verbosity.DEBUG, 0, 1);
+
+    /* DataLog entries */
+    private final int busUtilizationLogEntry = StateLogger.getInstance().startEntry("CAN/BusUtilizationPercent", "double");
+    private final int busOffCountLogEntry = StateLogger.getInstance().startEntry("CAN/BusOffCount", "int64");
+    private final int txFullCountLogEntry = StateLogger.getInstance().startEntry("CAN/TxFullCount", "int64");
+
+    private CANSignalManager() {}
+
+    public static synchronized CANSignalManager getInstance() {
+        if (instance == null) {
+            instance = new CANSignalManager();
+        }
+        return instance;
+    }
+
+    /**
+     * Declares which signals we use from a device, and how often we need them.
+     * This can be called more than once for the same device with different frequencies.
+     *
+     * @param device The device the signals come from
+     * @param frequencyHz How often the signals should be sent, in Hz
+     * @param signals The signals we read from the device
+     */
+    public synchronized void register(ParentDevice device, double frequencyHz, BaseStatusSignal... signals) {
+        devices.add(device);
+        if (signals.length > 0) {
+            frequencies.add(frequencyHz);
+            signalGroups.add(signals);
+        }
+    }
+
+    /**
+     * Sets the update frequency of every registered signal, and then turns off every signal that wasn't registered.
+     * This should be called once, after all the subsystems have been created.
+     */
+    public synchronized void applyAll() {
+        for (int i = 0; i < signalGroups.size(); i++) {
+            BaseStatusSignal.setUpdateFrequencyForAll(frequencies.get(i), signalGroups.get(i));
+        }
+        for (ParentDevice device : devices) {
+            device.optimizeBusUtilization();
+        }
+    }
+
+    /**
+     * Publishes how busy the CAN bus is to the dashboard, and records it to the log. This only actually publishes every
+     * {@value BUS_UTILIZATION_PUBLISH_LOOPS} loops, so it's safe to call every loop.
+     */
+    public void publishBusUtilization() {
+        if (++loopsSinceBusUtilizationPublished < BUS_UTILIZATION_PUBLISH_LOOPS) return;
+        loopsSinceBusUtilizationPublished = 0;
+
+        var canStatus = RobotController.getCANStatus();
+        double busUtilizationPercent = canStatus.percentBusUtilization * 100;
+        busUtilizationTelemetry.set(busUtilizationPercent);
+        busOffCountTelemetry.set(canStatus.busOffCount);
+        txFullCountTelemetry.set(canStatus.txFullCount);
+
+        StateLogger.getInstance().recordDouble(busUtilizationLogEntry, busUtilizationPercent);
+        StateLogger.getInstance().recordInteger(busOffCountLogEntry, canStatus.busOffCount);
+        StateLogger.getInstance().recordInteger(txFullCountLogEntry, canStatus.txFullCount);
+    }
+}
@@ -0,0 +1,224 @@
+package frc.lib.bluecrew.util;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is singleton, and times each part of the robot loop so we can tell what is causing loop overruns.
+ * Each timed part is a {@link Section}, which keeps the last {@value LOOP_PROFILER_WINDOW} times in a ring buffer,
+ * and publishes the p50, p99 and max to NetworkTables and the DataLog every {@value LOOP_PROFILER_PUBLISH_LOOPS} loops.
+ * <p>
+ * This should only be used from the main robot thread.
+ */
+public final class LoopProfiler implements Constants.LoopProfiling {
+
+    private static LoopProfiler instance;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("LoopProfiler");
+
+    private final List<Section> sections = new ArrayList<>();
+    private final Map<String, Section> commandSections = new HashMap<>();
+    private final Section loopSection;
+
+    private long loopCount = 0;
+    private long loopStartNanos;
+    private long lastCommandMarkNanos;
+    private int loopsSincePublished = 0;
+
+    private LoopProfiler() {
+        loopSection = new Section("Loop");
+    }
+
+    public static synchronized LoopProfiler getInstance() {
+        if (instance == null) {
+            instance = new LoopProfiler();
+        }
+        return instance;
+    }
+
+    /**
+     * Gets the {@link Section} with this name, making it if it doesn't exist.
+     * This should be called once and the {@link Section} kept, not called every loop.
+     *
+     * @param name The name to publish the timings under
+     * @return The {@link Section} to time
+     */
+    public Section getSection(String name) {
+        for (Section section : sections) {
+            if (section.name.equals(name)) return section;
+        }
+        return new Section(name);
+    }
+
+    /**
+     * Starts timing every scheduled command's execute. This should be called once all the button bindings have been made.
+     * <p>
+     * The scheduler only tells us after a command has executed, so each command is timed from the previous command
+     * finishing (or the buttons being polled, for the first command), which includes the previous command's isFinished.
+     */
+    public void bindToScheduler() {
+        if (!LOOP_PROFILER_ENABLED) return;
+
+        // The button loop is polled right before the commands run
+        CommandScheduler.getInstance().getDefaultButtonLoop().bind(() -> lastCommandMarkNanos = System.nanoTime());
+        CommandScheduler.getInstance().onCommandExecute(this::commandExecuted);
+    }
+
+    /**
+     * Marks the start of a robot loop
+     */
+    public void startLoop() {
+        if (!LOOP_PROFILER_ENABLED) return;
+
+        loopStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a robot loop, logs what was slowest if the loop overran, and publishes the timings every
+     * {@value LOOP_PROFILER_PUBLISH_LOOPS} loops
+     */
+    public void endLoop() {
+        if (!LOOP_PROFILER_ENABLED) return;
+
+        loopSection.record(System.nanoTime() - loopStartNanos);
+
+        if (loopSection.lastNanos > LOOP_OVERRUN_THRESHOLD_NANOS) {
+            reportOverrun();
+        }
+
+        if (++loopsSincePublished >= LOOP_PROFILER_PUBLISH_LOOPS) {
+            loopsSincePublished = 0;
+            for (Section section : sections) {
+                section.publish();
+            }
+        }
+
+        loopCount++;
+    }
+
+    private void commandExecuted(Command command) {
+        long now = System.nanoTime();
+
+        Section section = commandSections.get(command.getName());
+        if (section == null) {
+            section = new Section(command.getName() + ".execute");
+            commandSections.put(command.getName(), section);
+        }
+        section.record(now - lastCommandMarkNanos);
+
+        lastCommandMarkNanos = now;
+    }
+
+    private void reportOverrun() {
+        Section slowest = null;
+        for (Section section : sections) {
+            if (section != loopSection && section.lastLoop == loopCount && (slowest == null || section.lastNanos > slowest.lastNanos)) {
+                slowest = section;
+            }
+        }
+
+        DataLogManager.log("Loop overrun: " + loopSection.lastNanos / 1E6 + " ms, slowest was " +
+                (slowest == null ? "nothing we timed" : slowest.name + " at " + slowest.lastNanos / 1E6 + " ms"));
+    }
+
+    /**
+     * One timed part of the robot loop
+     */
+    public final class Section {
+        private final String name;
+
+        private final long[] samples = new long[LOOP_PROFILER_WINDOW];
+        private final long[] sortedSamples = new long[LOOP_PROFILER_WINDOW];
+        private int nextSample = 0;
+        private int sampleCount = 0;
+
+        private long startNanos;
+        private long lastNanos;
+        private long lastLoop = -1;
+
+        private final DoublePublisher p50Publisher;
+        private final DoublePublisher p99Publisher;
+        private final DoublePublisher maxPublisher;
+        // Only made the first time the section is published, so getting a section doesn't start the DataLog before robotInit does
+        private DoubleLogEntry p50Log;
+        private DoubleLogEntry p99Log;
+        private DoubleLogEntry maxLog;
+
+        private Section(String name) {
+            this.name = name;
+
+            NetworkTable sectionTable = table.getSubTable(name);
+            p50Publisher = sectionTable.getDoubleTopic("p50 ms").publish();
+            p99Publisher = sectionTable.getDoubleTopic("p99 ms").publish();
+            maxPublisher = sectionTable.getDoubleTopic("max ms").publish();
+
+            sections.add(this);
+        }
+
+        /**
+         * Starts timing this section
+         */
+        public void start() {
+            if (!LOOP_PROFILER_ENABLED) return;
+
+            startNanos = System.nanoTime();
+        }
+
+        /**
+         * Stops timing this section, and records how long it took
+         */
+        public void stop() {
+            if (!LOOP_PROFILER_ENABLED) return;
+
+            record(System.nanoTime() - startNanos);
+        }
+
+        private void record(long nanos) {
+            // A section can run more than once a loop, so add up everything it took this loop
+            lastNanos = lastLoop == loopCount ? lastNanos + nanos : nanos;
+            lastLoop = loopCount;
+
+            samples[nextSample] = nanos;
+            nextSample = (nextSample + 1) % samples.length;
+            if (sampleCount < samples.length) sampleCount++;
+        }
+
+        private void publish() {
+            if (sampleCount == 0) return;
+
+            System.arraycopy(samples, 0, sortedSamples, 0, sampleCount);
+            Arrays.sort(sortedSamples, 0, sampleCount);
+
+            double p50 = sortedSamples[(sampleCount - 1) / 2] / 1E6;
+            double p99 = sortedSamples[(sampleCount - 1) * 99 / 100] / 1E6;
+            double max = sortedSamples[sampleCount - 1] / 1E6;
+
+            if (p50Log == null) {
+                DataLog log = DataLogManager.getLog();
+                p50Log = new DoubleLogEntry(log, "LoopProfiler/" + name + "/p50 ms");
+                p99Log = new DoubleLogEntry(log, "LoopProfiler/" + name + "/p99 ms");
+                maxLog = new DoubleLogEntry(log, "LoopProfiler/" + name + "/max ms");
+            }
+
+            p50Publisher.set(p50);
+            p99Publisher.set(p99);
+            maxPublisher.set(max);
+            p50Log.append(p50);
+            p99Log.append(p99);
+            maxLog.append(max);
+        }
+    }
+}
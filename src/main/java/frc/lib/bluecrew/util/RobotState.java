@@ -17,6 +17,7 @@ public final class RobotState implements Constants.GameStateConstants {
 
     private ShooterMode shooterMode;
     private ShooterStatus shooterStatus;
+    private double secondsUntilShooterReady;
 
     private boolean noteIsAvailable;
 
@@ -68,6 +69,20 @@ public final class RobotState implements Constants.GameStateConstants {
         return shooterStatus;
     }
 
+    /**
+     * @param secondsUntilShooterReady How long until the shooter wheels and the arm are ready, in seconds
+     */
+    public void setSecondsUntilShooterReady(double secondsUntilShooterReady) {
+        this.secondsUntilShooterReady = secondsUntilShooterReady;
+    }
+
+    /**
+     * @return How long until the shooter wheels and the arm are ready, in seconds, as predicted by the note player
+     */
+    public double getSecondsUntilShooterReady() {
+        return secondsUntilShooterReady;
+    }
+
     public void setNoteIsAvailable(boolean noteIsAvailable) {
         this.noteIsAvailable = noteIsAvailable;
     }
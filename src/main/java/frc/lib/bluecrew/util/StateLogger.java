@@ -0,0 +1,297 @@
+package frc.lib.bluecrew.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.robot.Constants;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is singleton, and records robot state to the DataLog as binary entries, using WPILib struct
+ * serialization for geometry. Records are packed into preallocated slots of a ring buffer on the main thread,
+ * and a background thread appends them to the log, so recording every loop doesn't allocate or wait on the log.
+ * <p>
+ * Records should only be made from the main robot thread.
+ */
+public final class StateLogger implements Constants.StateLogging, Constants.GameStateConstants {
+
+    private static StateLogger instance;
+
+    private final DataLog log = DataLogManager.getLog();
+
+    private final Slot[] slots = new Slot[STATE_LOGGER_BUFFER_SIZE];
+    // Only the main thread writes writeIndex, and only the logger thread writes readIndex
+    private volatile long writeIndex = 0;
+    private volatile long readIndex = 0;
+    private volatile long droppedRecords = 0;
+
+    /* Game state entries, only recorded when they change */
+    private final int shooterModeEntry;
+    private final int shooterStatusEntry;
+    private final int robotCycleStatusEntry;
+    private final int noteIsAvailableEntry;
+    private final int onRedAllianceEntry;
+    private final int centerNotesGoneEntry;
+    private final int[] centerNoteExistsEntries;
+    private final int droppedRecordsEntry;
+
+    private final byte[][] shooterModeNames = enumNames(ShooterMode.values());
+    private final byte[][] shooterStatusNames = enumNames(ShooterStatus.values());
+    private final byte[][] robotCycleStatusNames = enumNames(RobotCycleStatus.values());
+
+    private ShooterMode lastShooterMode;
+    private ShooterStatus lastShooterStatus;
+    private RobotCycleStatus lastRobotCycleStatus;
+    private boolean lastNoteIsAvailable;
+    private boolean lastOnRedAlliance;
+    private boolean lastCenterNotesGone;
+    private final boolean[] lastCenterNotesExist;
+    private boolean gameStateLogged = false;
+
+    private StateLogger() {
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = new Slot();
+        }
+
+        shooterModeEntry = startEntry("RobotState/ShooterMode", "string");
+        shooterStatusEntry = startEntry("RobotState/ShooterStatus", "string");
+        robotCycleStatusEntry = startEntry("RobotState/RobotCycleStatus", "string");
+        noteIsAvailableEntry = startEntry("RobotState/NoteIsAvailable", "boolean");
+        onRedAllianceEntry = startEntry("FieldState/OnRedAlliance", "boolean");
+        centerNotesGoneEntry = startEntry("FieldState/CenterNotesGone", "boolean");
+        int numOfCenterNotes = FieldState.getInstance().getCenterNotesExist().length;
+        centerNoteExistsEntries = new int[numOfCenterNotes];
+        lastCenterNotesExist = new boolean[numOfCenterNotes];
+        for (int i = 0; i < numOfCenterNotes; i++) {
+            centerNoteExistsEntries[i] = startEntry("FieldState/CenterNote" + (i + 1) + "Exists", "boolean");
+        }
+        droppedRecordsEntry = startEntry("StateLogger/DroppedRecords", "int64");
+
+        Thread loggerThread = new Thread(this::writeRecords, "stateLoggerThread");
+        loggerThread.setDaemon(true);
+        loggerThread.start();
+    }
+
+    public static synchronized StateLogger getInstance() {
+        if (instance == null) {
+            instance = new StateLogger();
+        }
+        return instance;
+    }
+
+    /**
+     * Starts a DataLog entry. This should be called once, and the entry kept
+     *
+     * @param name The name of the entry in the log
+     * @param type The DataLog type string, such as "double" or "boolean"
+     * @return The entry
+     */
+    public int startEntry(String name, String type) {
+        return log.start(name, type);
+    }
+
+    /**
+     * Starts a struct DataLog entry, adding its schema to the log. This should be called once, and the entry kept
+     *
+     * @param name The name of the entry in the log
+     * @param struct The {@link Struct} of the type being logged, such as Pose2d.struct
+     * @param isArray Whether the entry is an array of structs
+     * @return The entry
+     */
+    public int startStructEntry(String name, Struct<?> struct, boolean isArray) {
+        log.addSchema(struct);
+        return log.start(name, struct.getTypeString() + (isArray ? "[]" : ""));
+    }
+
+    public void recordPose2d(int entry, Pose2d pose) {
+        recordPose2d(entry, pose, WPIUtilJNI.now());
+    }
+
+    /**
+     * @param entry The entry, from {@link #startStructEntry}
+     * @param pose The {@link Pose2d} to record
+     * @param timestampMicros When the pose was measured, in microseconds on the FPGA clock
+     */
+    public void recordPose2d(int entry, Pose2d pose, long timestampMicros) {
+        Slot slot = claimSlot();
+        if (slot == null) return;
+
+        Pose2d.struct.pack(slot.buffer, pose);
+        commitSlot(slot, entry, timestampMicros);
+    }
+
+    public void recordModuleStates(int entry, SwerveModuleState[] states) {
+        Slot slot = claimSlot();
+        if (slot == null) return;
+
+        for (SwerveModuleState state : states) {
+            SwerveModuleState.struct.pack(slot.buffer, state);
+        }
+        commitSlot(slot, entry, WPIUtilJNI.now());
+    }
+
+    public void recordDouble(int entry, double value) {
+        Slot slot = claimSlot();
+        if (slot == null) return;
+
+        slot.buffer.putDouble(value);
+        commitSlot(slot, entry, WPIUtilJNI.now());
+    }
+
+    public void recordBoolean(int entry, boolean value) {
+        Slot slot = claimSlot();
+        if (slot == null) return;
+
+        slot.buffer.put((byte) (value ? 1 : 0));
+        commitSlot(slot, entry, WPIUtilJNI.now());
+    }
+
+    public void recordInteger(int entry, long value) {
+        Slot slot = claimSlot();
+        if (slot == null) return;
+
+        slot.buffer.putLong(value);
+        commitSlot(slot, entry, WPIUtilJNI.now());
+    }
+
+    /**
+     * @param entry The entry, from {@link #startEntry} with the type "double[]"
+     * @param values The values to record, which must fit in {@value STATE_LOGGER_MAX_RECORD_BYTES} bytes
+     */
+    public void recordDoubleArray(int entry, double[] values) {
+        Slot slot = claimSlot();
+        if (slot == null) return;
+
+        for (double value : values) {
+            slot.buffer.putDouble(value);
+        }
+        commitSlot(slot, entry, WPIUtilJNI.now());
+    }
+
+    private void recordString(int entry, byte[] utf8) {
+        Slot slot = claimSlot();
+        if (slot == null) return;
+
+        slot.buffer.put(utf8);
+        commitSlot(slot, entry, WPIUtilJNI.now());
+    }
+
+    /**
+     * Records anything in {@link RobotState} and {@link FieldState} that changed since the last call.
+     * This should be called once per loop
+     */
+    public void recordGameState() {
+        RobotState robotState = RobotState.getInstance();
+        FieldState fieldState = FieldState.getInstance();
+
+        if (!gameStateLogged || robotState.getShooterMode() != lastShooterMode) {
+            lastShooterMode = robotState.getShooterMode();
+            recordString(shooterModeEntry, shooterModeNames[lastShooterMode.ordinal()]);
+        }
+        if (!gameStateLogged || robotState.getShooterStatus() != lastShooterStatus) {
+            lastShooterStatus = robotState.getShooterStatus();
+            recordString(shooterStatusEntry, shooterStatusNames[lastShooterStatus.ordinal()]);
+        }
+        if (!gameStateLogged || robotState.getRobotCycleStatus() != lastRobotCycleStatus) {
+            lastRobotCycleStatus = robotState.getRobotCycleStatus();
+            recordString(robotCycleStatusEntry, robotCycleStatusNames[lastRobotCycleStatus.ordinal()]);
+        }
+        if (!gameStateLogged || robotState.isNoteIsAvailable() != lastNoteIsAvailable) {
+            lastNoteIsAvailable = robotState.isNoteIsAvailable();
+            recordBoolean(noteIsAvailableEntry, lastNoteIsAvailable);
+        }
+        if (!gameStateLogged || fieldState.onRedAlliance() != lastOnRedAlliance) {
+            lastOnRedAlliance = fieldState.onRedAlliance();
+            recordBoolean(onRedAllianceEntry, lastOnRedAlliance);
+        }
+        if (!gameStateLogged || fieldState.isCenterNotesGone() != lastCenterNotesGone) {
+            lastCenterNotesGone = fieldState.isCenterNotesGone();
+            recordBoolean(centerNotesGoneEntry, lastCenterNotesGone);
+        }
+        boolean[] centerNotesExist = fieldState.getCenterNotesExist();
+        for (int i = 0; i < lastCenterNotesExist.length; i++) {
+            if (!gameStateLogged || centerNotesExist[i] != lastCenterNotesExist[i]) {
+                lastCenterNotesExist[i] = centerNotesExist[i];
+                recordBoolean(centerNoteExistsEntries[i], lastCenterNotesExist[i]);
+            }
+        }
+
+        gameStateLogged = true;
+    }
+
+    /**
+     * Waits for the logger thread to write every waiting record, then flushes the log to disk
+     */
+    public void flush() {
+        while (readIndex < writeIndex) {
+            LockSupport.parkNanos(STATE_LOGGER_PERIOD_NANOS);
+        }
+        log.flush();
+    }
+
+    private Slot claimSlot() {
+        if (writeIndex - readIndex >= slots.length) {
+            // The logger thread has fallen behind, drop this record rather than wait for it
+            droppedRecords++;
+            return null;
+        }
+        Slot slot = slots[(int) (writeIndex % slots.length)];
+        slot.buffer.clear();
+        return slot;
+    }
+
+    private void commitSlot(Slot slot, int entry, long timestampMicros) {
+        slot.entry = entry;
+        slot.length = slot.buffer.position();
+        slot.timestampMicros = timestampMicros;
+        // Publishing the new write index hands the slot to the logger thread
+        writeIndex = writeIndex + 1;
+    }
+
+    private void writeRecords() {
+        long lastDroppedRecords = 0;
+
+        while (true) {
+            long available = writeIndex;
+            while (readIndex < available) {
+                Slot slot = slots[(int) (readIndex % slots.length)];
+                log.appendRaw(slot.entry, slot.data, 0, slot.length, slot.timestampMicros);
+                readIndex = readIndex + 1;
+            }
+
+            long dropped = droppedRecords;
+            if (dropped != lastDroppedRecords) {
+                lastDroppedRecords = dropped;
+                log.appendInteger(droppedRecordsEntry, dropped, 0);
+            }
+
+            LockSupport.parkNanos(STATE_LOGGER_PERIOD_NANOS);
+        }
+    }
+
+    private static byte[][] enumNames(Enum<?>[] values) {
+        byte[][] names = new byte[values.length][];
+        for (Enum<?> value : values) {
+            names[value.ordinal()] = value.name().getBytes(StandardCharsets.UTF_8);
+        }
+        return names;
+    }
+
+    /**
+     * One preallocated record in the ring buffer
+     */
+    private static final class Slot {
+        private final byte[] data = new byte[STATE_LOGGER_MAX_RECORD_BYTES];
+        private final ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        private int entry;
+        private int length;
+        private long timestampMicros;
+    }
+}
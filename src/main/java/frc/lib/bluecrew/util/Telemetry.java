@@ -0,0 +1,148 @@
+package frc.lib.bluecrew.util;
+
+import edu.wpi.first.networktables.BooleanEntry;
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.Constants;
+
+/**
+ * This class is singleton, and hands out telemetry signals that publish to the SmartDashboard table.
+ * Unlike SmartDashboard.putX, each signal looks up its topic once, only publishes every few loops,
+ * and only publishes when its value actually changes. Debug signals are only published while
+ * the "Debug Telemetry" toggle is on, so at competition we only send what the drivers need.
+ */
+public final class Telemetry implements Constants.TelemetryConstants {
+
+    /**
+     * Whether a signal is needed at competition, or only while debugging
+     */
+    public enum Verbosity {
+        COMPETITION,
+        DEBUG
+    }
+
+    private static Telemetry instance;
+
+    private final NetworkTable table = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    private final BooleanEntry debugModeEntry;
+
+    private boolean debugMode;
+
+    private Telemetry() {
+        debugModeEntry = table.getBooleanTopic("Debug Telemetry").getEntry(DEBUG_TELEMETRY_DEFAULT);
+        debugModeEntry.set(DEBUG_TELEMETRY_DEFAULT);
+        debugMode = DEBUG_TELEMETRY_DEFAULT;
+    }
+
+    public static synchronized Telemetry getInstance() {
+        if (instance == null) {
+            instance = new Telemetry();
+        }
+        return instance;
+    }
+
+    /**
+     * Reads the debug toggle. This should be called once per loop, before the subsystems run
+     */
+    public void periodic() {
+        debugMode = debugModeEntry.get();
+    }
+
+    /**
+     * @return Whether debug signals are being published
+     */
+    public boolean isDebugMode() {
+        return debugMode;
+    }
+
+    /**
+     * @param name The SmartDashboard key to publish to
+     * @param verbosity Whether this is needed at competition, or only while debugging
+     * @param deadband How much the value has to change by before it gets published again
+     * @param publishPeriodLoops The most often this can be published, in loops
+     * @return The {@link DoubleSignal}, which should be kept and reused
+     */
+    public DoubleSignal getDoubleSignal(String name, Verbosity verbosity, double deadband, int publishPeriodLoops) {
+        return new DoubleSignal(table.getDoubleTopic(name).publish(), verbosity, deadband, publishPeriodLoops);
+    }
+
+    /**
+     * @param name The SmartDashboard key to publish to
+     * @param verbosity Whether this is needed at competition, or only while debugging
+     * @return The {@link DoubleSignal}, which should be kept and reused
+     */
+    public DoubleSignal getDoubleSignal(String name, Verbosity verbosity) {
+        return getDoubleSignal(name, verbosity, DEFAULT_DEADBAND, DEFAULT_PUBLISH_PERIOD_LOOPS);
+    }
+
+    /**
+     * @param name The SmartDashboard key to publish to
+     * @param verbosity Whether this is needed at competition, or only while debugging
+     * @return The {@link BooleanSignal}, which should be kept and reused
+     */
+    public BooleanSignal getBooleanSignal(String name, Verbosity verbosity) {
+        return new BooleanSignal(table.getBooleanTopic(name).publish(), verbosity);
+    }
+
+    private boolean shouldSkip(Verbosity verbosity) {
+        return verbosity == Verbosity.DEBUG && !debugMode;
+    }
+
+    /**
+     * A number published to the dashboard. {@link #set(double)} should be called once per loop
+     */
+    public final class DoubleSignal {
+        private final DoublePublisher publisher;
+        private final Verbosity verbosity;
+        private final double deadband;
+        private final int publishPeriodLoops;
+
+        private double lastPublished = Double.NaN;
+        private int loopsSincePublished;
+
+        private DoubleSignal(DoublePublisher publisher, Verbosity verbosity, double deadband, int publishPeriodLoops) {
+            this.publisher = publisher;
+            this.verbosity = verbosity;
+            this.deadband = deadband;
+            this.publishPeriodLoops = publishPeriodLoops;
+            loopsSincePublished = publishPeriodLoops;
+        }
+
+        public void set(double value) {
+            if (shouldSkip(verbosity)) return;
+            if (++loopsSincePublished < publishPeriodLoops) return;
+            if (Math.abs(value - lastPublished) <= deadband) return;
+
+            publisher.set(value);
+            lastPublished = value;
+            loopsSincePublished = 0;
+        }
+    }
+
+    /**
+     * A boolean published to the dashboard, only when it changes
+     */
+    public final class BooleanSignal {
+        private final BooleanPublisher publisher;
+        private final Verbosity verbosity;
+
+        private boolean published = false;
+        private boolean lastPublished;
+
+        private BooleanSignal(BooleanPublisher publisher, Verbosity verbosity) {
+            this.publisher = publisher;
+            this.verbosity = verbosity;
+        }
+
+        public void set(boolean value) {
+            if (shouldSkip(verbosity)) return;
+            if (published && value == lastPublished) return;
+
+            publisher.set(value);
+            lastPublished = value;
+            published = true;
+        }
+    }
+}
@@ -111,6 +111,25 @@ public interface Constants {
          */
         double maxAngularVelocity = 12.1725; //TODO: This is theoretical!
 
+        /**
+         * How often the odometry thread updates the pose estimator, in Hz
+         */
+        double odometryFrequency = 250;
+
+        /**
+         * How many odometry samples can be waiting for the main loop to log them
+         */
+        int ODOMETRY_SAMPLE_BUFFER_SIZE = 32;
+
+        /**
+         * How many steps per rotation the module angles are rounded to for odometry, the CANcoder's resolution
+         */
+        int ODOMETRY_ANGLE_STEPS = 4096;
+
+        /* Simulation moment of inertia for each module, in kg m^2 at the wheel and at the module's rotation */
+        double SIM_DRIVE_MOMENT_OF_INERTIA = 0.025;
+        double SIM_ANGLE_MOMENT_OF_INERTIA = 0.004;
+
         /* Neutral Modes */
         NeutralModeValue angleNeutralMode = NeutralModeValue.Brake;
         NeutralModeValue driveNeutralMode = NeutralModeValue.Brake;
@@ -166,6 +185,58 @@ public interface Constants {
         }
     }
 
+    /**
+     * How often (in Hz) we need each kind of CAN status signal. Anything not registered
+     * with the CANSignalManager gets turned off
+     */
+    interface CANSignalFrequencies {
+        double CONTROL_SIGNAL_FREQUENCY = 50; // Signals we use for control every loop
+        double FOLLOWER_SIGNAL_FREQUENCY = 100; // Signals a follower motor needs from its leader
+        double DIAGNOSTIC_SIGNAL_FREQUENCY = 10; // Signals that are only read occasionally
+
+        int BUS_UTILIZATION_PUBLISH_LOOPS = 50; // Publish the CAN bus utilization once a second
+    }
+
+    /**
+     * Settings for the Telemetry signals published to the dashboard
+     */
+    interface TelemetryConstants {
+        boolean DEBUG_TELEMETRY_DEFAULT = false; // Only competition signals are published unless the toggle is turned on
+        int DEFAULT_PUBLISH_PERIOD_LOOPS = 5; // Publish numbers at most 10 times a second
+        double DEFAULT_DEADBAND = 0.001;
+    }
+
+    /**
+     * Settings for the StateLogger, which records robot state to the DataLog
+     */
+    interface StateLogging {
+        int STATE_LOGGER_BUFFER_SIZE = 1024; // How many records can be waiting to be written
+        int STATE_LOGGER_MAX_RECORD_BYTES = 128; // Big enough for 4 SwerveModuleStates
+        long STATE_LOGGER_PERIOD_NANOS = 5_000_000; // How often the logger thread writes waiting records
+    }
+
+    /**
+     * Settings for the InputLogger, which records hardware inputs so a match can be replayed from its log
+     */
+    interface ReplayConstants {
+        String REPLAY_LOG_ENVIRONMENT_VARIABLE = "REPLAY_LOG"; // Set to the path of a .wpilog to replay it instead of running
+        String INPUTS_LOG_PREFIX = "Inputs/";
+        String LOOP_START_LOG_ENTRY = "Replay/LoopStart"; // Marks the start of each robot loop, so inputs can be grouped by loop
+        String REPLAYED_NETWORK_TABLES_PREFIX = "NT:/Shuffleboard/Autonomous/"; // Dashboard inputs that change what the robot does
+        // Only these entries are read out of the log when replaying
+        String[] REPLAYED_LOG_PREFIXES = {INPUTS_LOG_PREFIX, LOOP_START_LOG_ENTRY, "DS:", "FieldState/OnRedAlliance", REPLAYED_NETWORK_TABLES_PREFIX};
+    }
+
+    /**
+     * Settings for the LoopProfiler, which times each part of the robot loop
+     */
+    interface LoopProfiling {
+        boolean LOOP_PROFILER_ENABLED = true;
+        int LOOP_PROFILER_WINDOW = 256; // How many of the most recent times to take percentiles over
+        int LOOP_PROFILER_PUBLISH_LOOPS = 50; // Publish the timings once a second
+        long LOOP_OVERRUN_THRESHOLD_NANOS = 20_000_000; // A loop longer than this is an overrun
+    }
+
     interface PhotonVision {
 
         String NOTES_INDEXER_CAMERA_NAME = "Indexer_Floor_View";
@@ -191,6 +262,37 @@ public interface Constants {
         // TODO (Fake values. Experiment and determine estimation noise on an actual robot.)
         Matrix<N3, N1> singleTagStdDevs = VecBuilder.fill(4d, 4d, 8d);
         Matrix<N3, N1> multiTagStdDevs = VecBuilder.fill(0.5d, 0.5d, 1d);
+
+        // How often the vision thread checks the cameras for new frames, in milliseconds.
+        // Should be faster than the camera frame rate so we don't miss frames
+        long VISION_THREAD_PERIOD_MS = 5;
+
+        // When true, every camera's estimate gets added to the pose estimator, instead of just the best one each loop
+        boolean FUSE_ALL_CAMERAS = true;
+        // The most vision measurements we will add to the pose estimator in one loop (the newest ones are kept)
+        int MAX_VISION_MEASUREMENTS_PER_LOOP = 4;
+
+        // The most note targets we keep from the indexer camera each loop (PhotonVision sorts the biggest first)
+        int MAX_NOTE_TARGETS = 4;
+
+        // Roughly where the indexer camera is, picked to match the note pitches noted in FindAndGotoNote.
+        // Used to simulate the camera, and to work out where on the field the notes it sees are
+        Transform3d ROBOT_TO_NOTE_CAM_POS =
+                new Transform3d(new Translation3d(Units.inchesToMeters(8d), 0d, Units.inchesToMeters(24d)), new Rotation3d(0d, Math.toRadians(40d), 0d));
+
+        /* Simulated cameras. Raise the frame rates to load test the vision pipeline */
+        double SIM_TAG_CAMERA_FPS = 30;
+        double SIM_NOTE_CAMERA_FPS = 30;
+        double SIM_CAMERA_AVG_LATENCY_MS = 35;
+        double SIM_CAMERA_LATENCY_STD_DEV_MS = 5;
+        // How far off the detected corners are, in pixels
+        double SIM_CAMERA_AVG_ERROR_PX = 0.35;
+        double SIM_CAMERA_ERROR_STD_DEV_PX = 0.10;
+        int SIM_CAMERA_WIDTH_PX = 960;
+        int SIM_CAMERA_HEIGHT_PX = 720;
+        double SIM_CAMERA_DIAGONAL_FOV_DEGREES = 90;
+        // Drawing the camera streams is slow, so they're off unless we want to look at them
+        boolean SIM_CAMERA_STREAMS_ENABLED = false;
     }
 
     /**
@@ -210,12 +312,45 @@ public interface Constants {
                         Swerve.wheelBase * Swerve.wheelBase) / 2, // Drive base radius in meters. Distance from robot center to furthest module.
                 new ReplanningConfig()
         );
+
+        // The travel times between the autonomous waypoints, in the deploy directory. Made at build time by TravelTimeMatrixGenerator
+        String TRAVEL_TIMES_FILE = "travel_times.bin";
     }
 
     interface AutoConstants {
         String ampLane = "AmpLn";
         String stageLane = "StLn";
         String sourceLane = "SrcLn";
+
+        // The search direction that grabs notes in the fastest order, see NoteOrderPlanner
+        String FASTEST_SEARCH_DIRECTION = "Fastest";
+
+        // How many prebuilt autonomous routines to keep around
+        int AUTO_CACHE_SIZE = 8;
+
+        /* Autonomous what-if simulator, see AutoWhatIfSimulator. Set the environment variable to run it instead of the robot */
+        String AUTO_WHAT_IF_ENVIRONMENT_VARIABLE = "AUTO_WHAT_IF";
+        double AUTO_PERIOD_SECONDS = 15;
+        // How long each action takes on top of driving. These are estimates, tune them against match logs
+        double AUTO_SIM_SHOT_SECONDS = 0.5;
+        double AUTO_SIM_INTAKE_SECONDS = 0.4;
+        // How long we spend looking for a center note before we decide it's gone
+        double AUTO_SIM_MISSING_NOTE_SECONDS = 0.1;
+        // The chance the other alliance has already taken any one center note by the time we get there
+        double AUTO_SIM_CENTER_NOTE_TAKEN_PROBABILITY = 0.2;
+        int NUM_OF_START_NOTES = 3;
+        int NUM_OF_CENTER_NOTES = 5;
+
+        /* Watching for missing center notes with the note camera, see CenterNoteTracker */
+        // How close and how far from the note camera we trust it to see a note, in meters
+        double NOTE_TRACKING_MIN_DISTANCE = 0.4;
+        double NOTE_TRACKING_MAX_DISTANCE = 2.5;
+        // Notes more than this far to the side of the note camera might be out of frame
+        double NOTE_TRACKING_HALF_FOV_DEGREES = 30;
+        // How close a target has to land to where a note should be to count as that note, in meters
+        double NOTE_TRACKING_MATCH_TOLERANCE = 0.6;
+        // How long a note has to be out of sight while it should be in view before we decide it's gone
+        double NOTE_TRACKING_MISSING_SECONDS = 0.15;
     }
 
     interface GameStateConstants {
@@ -284,41 +419,72 @@ public interface Constants {
         double SHOOTER_TRAJECTORY_ANGLE_MULTIPLIER = 1;
         double TRAJECTORY_DEFAULT_INITIAL_ANGLE = 21.7;
 
-        interface ArmUpwardsHighGravityPID {
-            double p = 0.36;
-            double i = 0.000035;
-            double d = 0.05;
-            double iZ = 3.0;
-
-            double maxOutput = 0.48;
-            double minOutput = -0.48;
-        }
-        interface ArmUpwardsLowGravityPID {
-            double p = 0.1;
+        /* The shot table, measured distances to the speaker in meters and the shooter speed (m/s) and angle (degrees) that score from there */
+        double[] SHOT_TABLE_DISTANCES = {1.4, 2, 2.5, 3};
+        double[] SHOT_TABLE_SPEEDS = {14.5, 16, 18, 20};
+        double[] SHOT_TABLE_ANGLES = {47, 34, 28.5, 25};
+
+        /* Shooting while driving. These are estimates, tune them against match logs */
+        double SHOT_LATENCY_SECONDS = 0.1; // From deciding to shoot until the note leaves, not counting the arm moving
+        int SHOT_SOLVER_MAX_ITERATIONS = 8;
+        double SHOT_SOLVER_TOLERANCE_METERS = 0.005;
+        double SHOT_ACCELERATION_FILTER_SECONDS = 0.06;
+
+        /* Feeding the note early, so it gets to the shooter wheels as they get up to speed. These are estimates, tune them against match logs */
+        double INDEXER_FEED_SECONDS = 0.08; // From starting the indexer until the note touches the shooter wheels
+        double SHOT_READY_ACCELERATION_FILTER_SECONDS = 0.04;
+
+        /* The note trajectory model. These are estimates, the launch angle is fit to the shot table at boot */
+        double SHOOTER_EXIT_VELOCITY_RATIO = 0.6; // How fast the note leaves compared to the shooter wheels' surface speed
+        double NOTE_MASS_KG = 0.235;
+        double NOTE_FRONTAL_AREA = GAME_PIECE_NOTE_DIAMETER * Units.inchesToMeters(2); // It flies flat, so this is its diameter times its thickness
+        double NOTE_DRAG_COEFFICIENT = 0.5;
+        double NOTE_LIFT_COEFFICIENT = 0.1; // From the backspin the shooter puts on it
+        double AIR_DENSITY = 1.2; // kg/m^3
+        double TRAJECTORY_FIT_MIN_ANGLE_OFFSET = -10;
+        double TRAJECTORY_FIT_MAX_ANGLE_OFFSET = 40;
+        double TRAJECTORY_MAX_ANGLE_CORRECTION = 15; // How far the shot table can pull the model's arm angles, in degrees
+
+        /* The range of shots we can take */
+        double SHOT_MIN_ARM_DEGREES = 10;
+        double SHOT_MAX_ARM_DEGREES = ARM_PICKUP_ANGLE;
+        double SHOT_MAX_WHEEL_SPEED = 30; // m/s, a bit under the shooter's free speed
+
+        /* The shot lookup grid, from the distance to the speaker (m) */
+        double SHOT_GRID_MIN_DISTANCE = 1;
+        double SHOT_GRID_MAX_DISTANCE = 6;
+        double SHOT_GRID_DISTANCE_STEP = 0.1;
+
+        /* Learning the shot table from marked shots */
+        boolean SHOT_LEARNING_ENABLED = true;
+        String SHOT_LEARNING_FILE = "shots.bin"; // In the robot's home directory, so deploying doesn't wipe it
+        double SHOT_LEARNING_MARK_WINDOW_SECONDS = 5; // How long after a shot the operator has to mark it
+        double SHOT_LEARNING_PRIOR_WEIGHT = 3; // How many shots the hand-tuned table counts as at each knot
+        double SHOT_LEARNING_KERNEL_METERS = 0.3; // How far from a knot a shot still pulls it
+        double SHOT_LEARNING_MISS_STEP_DEGREES = 1.5; // How far a miss says the angle should have gone the other way
+        double SHOT_LEARNING_MISS_WEIGHT = 0.5;
+
+        /* The arm's motion profile and feed forward, in motor rotations. These are estimates, tune them with SysId */
+        double ARM_MAX_VELOCITY = 150 * Math.abs(ARM_MOTOR_ROTATIONS_PER_SHOOTER_DEGREE); // 150 shooter degrees per second
+        double ARM_MAX_ACCELERATION = 600 * Math.abs(ARM_MOTOR_ROTATIONS_PER_SHOOTER_DEGREE); // 600 shooter degrees per second squared
+        double ARM_KS = 0.1; // Volts
+        double ARM_KG = 0.84; // Volts, the 0.07 percent output gravity feed forward we used to use
+        double ARM_KV = 0.127; // Volts per motor rotation per second, from a NEO's free speed
+        double ARM_KA = 0.005; // Volts per motor rotation per second squared
+        double ARM_NOMINAL_VOLTAGE = 12; // The arm motors are voltage compensated to this
+        double ARM_SETTLE_SECONDS = 0.1; // How long the arm takes to get into its set position window after its profile ends
+
+        int ARM_PID_SLOT = 0;
+
+        /** The PID that keeps the arm on its motion profile, the feed forward does most of the work */
+        interface ArmPID {
+            double p = 0.2;
             double i = 0.0;
-            double d = 0.0;
-            double iZ = 0.0;
-
-            double maxOutput = 0.2;
-            double minOutput = -0.2;
-        }
-        interface ArmDownwardsHighGravityPID {
-            double p = 0.12;
-            double i = 0.0001;
             double d = 0.02;
-            double iZ = 1.5;
-
-            double maxOutput = 0.1;
-            double minOutput = -0.15;
-        }
-        interface ArmDownwardsLowGravityPID {
-            double p = 0.04;
-            double i = 0.0;
-            double d = 0.0;
             double iZ = 0.0;
 
-            double maxOutput = 0.1;
-            double minOutput = -0.135;
+            double maxOutput = 0.48;
+            double minOutput = -0.48;
         }
     }
 
@@ -340,6 +506,7 @@ public interface Constants {
     interface Misc {
         // blinkin runs on pwm, not CAN
         int BLINKIN_PORT = 9;
+        double SHOOTER_READY_SOON_SECONDS = 0.5; // How soon the shooter has to be ready to show it on the LEDs
     }
 
     interface FieldCoordinates {
@@ -373,6 +540,21 @@ public interface Constants {
                 Units.inchesToMeters(218.42),
                 Units.inchesToMeters(80)
         );
+
+        // Where the notes start on the field: the blue wing notes, the center line notes, then the red wing notes
+        Translation2d[] FIELD_NOTE_POSITIONS = {
+                new Translation2d(Units.inchesToMeters(114), Units.inchesToMeters(161.64)),
+                new Translation2d(Units.inchesToMeters(114), Units.inchesToMeters(218.64)),
+                new Translation2d(Units.inchesToMeters(114), Units.inchesToMeters(275.64)),
+                new Translation2d(Units.inchesToMeters(325.61), Units.inchesToMeters(29.64)),
+                new Translation2d(Units.inchesToMeters(325.61), Units.inchesToMeters(95.64)),
+                new Translation2d(Units.inchesToMeters(325.61), Units.inchesToMeters(161.64)),
+                new Translation2d(Units.inchesToMeters(325.61), Units.inchesToMeters(227.64)),
+                new Translation2d(Units.inchesToMeters(325.61), Units.inchesToMeters(293.64)),
+                new Translation2d(Units.inchesToMeters(537.22), Units.inchesToMeters(161.64)),
+                new Translation2d(Units.inchesToMeters(537.22), Units.inchesToMeters(218.64)),
+                new Translation2d(Units.inchesToMeters(537.22), Units.inchesToMeters(275.64))
+        };
     }
 
     double FIELD_AMP_OPENING_WIDTH = 0.6096;
@@ -5,22 +5,47 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.RobotBase;
+import frc.lib.bluecrew.replay.InputLogger;
+import frc.robot.autos.AutoWhatIfSimulator;
 
 /**
- * Do NOT add any static variables to this class, or any initialization at all. Unless you know what
- * you are doing, do not modify this file except to change the parameter class to the startRobot
- * call.
+ * Do NOT add any static variables to this class, or any initialization at all. The only thing this
+ * class does is pick how the robot code runs, in {@link #launch()}. Unless you know what you are
+ * doing, do not modify this file except to change the robot class it starts.
  */
 public final class Main {
     private Main() {
     }
 
     /**
-     * Main initialization function. Do not perform any initialization here.
-     *
-     * <p>If you change your main robot class, change the parameter type.
+     * Main initialization function. Do not perform any initialization here, see {@link #launch()}.
      */
     public static void main(String... args) {
+        launch();
+    }
+
+    /**
+     * Starts the robot code in one of three ways:
+     * <ul>
+     *     <li>Replay, if {@link InputLogger#isReplay()}: runs the robot code against a log from a match,
+     *     see {@link ReplayRunner}. Returns once the whole log has been played.</li>
+     *     <li>What-if, if {@link AutoWhatIfSimulator#isRequested()}: plays out every autonomous routine
+     *     without running the robot code, logs the results, then exits.</li>
+     *     <li>Normal, otherwise: starts the robot as usual. This doesn't return.</li>
+     * </ul>
+     * Replay is checked first, so a replay is never mistaken for a what-if run.
+     *
+     * <p>If you change your main robot class, change the parameter type of the startRobot call.
+     */
+    private static void launch() {
+        if (InputLogger.isReplay()) {
+            ReplayRunner.run();
+            return;
+        }
+        if (AutoWhatIfSimulator.isRequested()) {
+            AutoWhatIfSimulator.run();
+            System.exit(0);
+        }
         RobotBase.startRobot(Robot::new);
     }
 }
@@ -0,0 +1,59 @@
+package frc.robot;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.hal.HALUtil;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.lib.bluecrew.replay.DriverStationReplay;
+import frc.lib.bluecrew.replay.InputLogger;
+import frc.lib.bluecrew.replay.ReplayLog;
+import frc.lib.bluecrew.util.StateLogger;
+
+/**
+ * Runs the robot code against a log from a match instead of hardware, as fast as it can.
+ * The simulated clock is stepped to when each logged loop started, the driver station is set to how it was,
+ * and the inputs are read back out of the log (see {@link InputLogger}). Everything the robot code records
+ * goes to a new log, which can be compared against the original.
+ */
+final class ReplayRunner {
+
+    private ReplayRunner() {
+    }
+
+    static void run() {
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        // We move the clock ourselves, so the loops line up with the log
+        SimHooks.pauseTiming();
+
+        ReplayLog replayLog = InputLogger.getInstance().getReplayLog();
+        DriverStationReplay driverStationReplay = new DriverStationReplay(replayLog);
+
+        Robot robot = new Robot();
+        robot.robotInit();
+
+        long wallStart = System.nanoTime();
+        for (int loop = 0; loop < replayLog.getLoopCount(); loop++) {
+            long timeToStep = replayLog.getLoopTimestampMicros(loop) - HALUtil.getFPGATime();
+            if (timeToStep > 0) {
+                SimHooks.stepTiming(timeToStep);
+            }
+
+            driverStationReplay.apply(loop);
+            robot.loopFunc();
+        }
+        double wallSeconds = (System.nanoTime() - wallStart) / 1e9;
+
+        if (replayLog.getLoopCount() > 0) {
+            double matchSeconds = (replayLog.getLoopTimestampMicros(replayLog.getLoopCount() - 1)
+                    - replayLog.getLoopTimestampMicros(0)) / 1e6;
+            DataLogManager.log(String.format("Replayed %d loops (%.1f s) in %.1f s, %.1fx real time",
+                    replayLog.getLoopCount(), matchSeconds, wallSeconds, matchSeconds / wallSeconds));
+        }
+
+        // Make sure everything the replay recorded makes it to the file before we exit
+        StateLogger.getInstance().flush();
+        System.exit(0);
+    }
+}
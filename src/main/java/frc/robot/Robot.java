@@ -5,11 +5,14 @@
 package frc.robot;
 
 import com.ctre.phoenix6.SignalLogger;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardComponent;
@@ -17,8 +20,17 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.RunCommand;
+import frc.lib.bluecrew.pathplanner.PathRepository;
+import frc.lib.bluecrew.pathplanner.TravelTimeMatrix;
+import frc.lib.bluecrew.replay.InputLogger;
+import frc.lib.bluecrew.util.CANSignalManager;
 import frc.lib.bluecrew.util.FieldState;
+import frc.lib.bluecrew.util.LoopProfiler;
 import frc.lib.bluecrew.util.RobotState;
+import frc.lib.bluecrew.util.StateLogger;
+import frc.lib.bluecrew.util.Telemetry;
+import frc.lib.bluecrew.util.Telemetry.Verbosity;
+import frc.robot.autos.CenterNoteTracker;
 import frc.robot.subsystems.VisionModule;
 
 import static frc.robot.Constants.FieldCoordinates.BLUE_SPEAKER;
@@ -41,7 +53,13 @@ public class Robot extends TimedRobot {
 
     private boolean shouldUpdateAutoCommand = false;
 
-    private long startTime;
+    private double startTime;
+
+    // Where the simulated robot really is, to compare against the fused pose. Only started in simulation, and not in a replay
+    private int simTruePoseLogEntry;
+
+    private final Telemetry.BooleanSignal onRedAllianceTelemetry =
+            Telemetry.getInstance().getBooleanSignal("On Red Alliance", Verbosity.COMPETITION);
 
     private final GenericEntry cameraToggle = Shuffleboard.getTab("Autonomous")
             .add("Camera Toggle", false)
@@ -54,19 +72,47 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotInit() {
+        // Start the log first, everything after this can record to it
+        DataLogManager.start();
+        // Record the robot mode and the joysticks, so a match can be replayed from the log
+        DriverStation.startDataLog(DataLogManager.getLog());
+
+        // Load every path up front, so building and running autos never has to read path files
+        PathRepository.getInstance().loadAll();
+        TravelTimeMatrix.getInstance().load();
+
+        if (RobotBase.isSimulation() && !InputLogger.isReplay()) {
+            simTruePoseLogEntry = StateLogger.getInstance().startStructEntry("Sim/TruePose", Pose2d.struct, false);
+        }
+
         // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
         // autonomous chooser on the dashboard.
         m_robotContainer = new RobotContainer();
 
-        startTime = System.nanoTime();
+        // Now that every device has been created, only send the CAN signals we actually use
+        CANSignalManager.getInstance().applyAll();
 
-        DataLogManager.start();
+        // Time every command's execute, now that all the button bindings are made
+        LoopProfiler.getInstance().bindToScheduler();
+
+        startTime = Timer.getFPGATimestamp();
 
         shouldUpdateAutoCommand = false;
         //URCL.start();
         //SignalLogger.start();
     }
 
+    /**
+     * Runs one robot loop, timing how long the whole thing takes
+     */
+    @Override
+    protected void loopFunc() {
+        LoopProfiler.getInstance().startLoop();
+        InputLogger.getInstance().startLoop();
+        super.loopFunc();
+        LoopProfiler.getInstance().endLoop();
+    }
+
     /**
      * This function is called every robot packet, no matter the mode. Use this for items like
      * diagnostics that you want ran during disabled, autonomous, teleoperated and test.
@@ -76,13 +122,27 @@ public class Robot extends TimedRobot {
      */
     @Override
     public void robotPeriodic() {
+        // Read the debug telemetry toggle before anything publishes this loop
+        Telemetry.getInstance().periodic();
+
+        // Read the note camera before any commands look at it
+        VisionModule.getInstance().periodic();
+        // Then check which center notes it can see, so autonomous can change course if one is gone
+        if (DriverStation.isAutonomousEnabled()) {
+            CenterNoteTracker.getInstance().periodic();
+        }
+
         // Runs the Scheduler.  This is responsible for polling buttons, adding newly-scheduled
         // commands, running already-scheduled commands, removing finished or interrupted commands,
         // and running subsystem periodic() methods.  This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
         CommandScheduler.getInstance().run();
 
-        SmartDashboard.putBoolean("On Red Alliance", FieldState.getInstance().onRedAlliance());
+        CANSignalManager.getInstance().publishBusUtilization();
+
+        onRedAllianceTelemetry.set(FieldState.getInstance().onRedAlliance());
+
+        StateLogger.getInstance().recordGameState();
     }
 
     /**
@@ -114,12 +174,12 @@ public class Robot extends TimedRobot {
             FieldState.getInstance().setActualSpeakerCoords(BLUE_SPEAKER);
         }
 
-        if (!shouldUpdateAutoCommand && System.nanoTime() > (startTime + 2E9)) {
+        if (!shouldUpdateAutoCommand && Timer.getFPGATimestamp() > (startTime + 2)) {
             shouldUpdateAutoCommand = true;
         }
 
-        if (shouldUpdateAutoCommand && m_robotContainer.autoOptionsHaveChanged()) {
-            m_robotContainer.regenerateAutoCommand();
+        if (shouldUpdateAutoCommand) {
+            m_robotContainer.refreshAutoCache();
         }
     }
 
@@ -129,6 +189,7 @@ public class Robot extends TimedRobot {
     @Override
     public void autonomousInit() {
         RobotState.getInstance().setIsAutonomous(true);
+        CenterNoteTracker.getInstance().reset();
         m_autonomousCommand = m_robotContainer.getAutonomousCommand();
         keepShooterRunning = new RunCommand(() -> m_robotContainer.getNotePlayerSubsystem().spinUpShooterForSpeaker())
                 .finallyDo(() -> m_robotContainer.getNotePlayerSubsystem().getShooter().stop())
@@ -182,4 +243,15 @@ public class Robot extends TimedRobot {
     @Override
     public void testPeriodic() {
     }
+
+    @Override
+    public void simulationPeriodic() {
+        // The subsystems have already stepped their physics, so the cameras see where the robot is now
+        Pose2d simulatedPose = m_robotContainer.getSwerveDrive().getSimulatedPose();
+        VisionModule.getInstance().simulationPeriodic(simulatedPose);
+        // Logged next to Vision/FusedPose, so the estimate's error can be seen
+        if (simTruePoseLogEntry != 0) {
+            StateLogger.getInstance().recordPose2d(simTruePoseLogEntry, simulatedPose);
+        }
+    }
 }
@@ -2,7 +2,6 @@ package frc.robot;
 
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
-import com.pathplanner.lib.path.PathPlannerPath;
 import edu.wpi.first.networktables.GenericEntry;
 import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.Joystick;
@@ -17,10 +16,14 @@ import edu.wpi.first.wpilibj2.command.*;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import edu.wpi.first.wpilibj2.command.button.JoystickButton;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.lib.bluecrew.pathplanner.PathRepository;
+import frc.lib.bluecrew.replay.InputLogger;
+import frc.lib.bluecrew.util.FieldState;
 import frc.lib.bluecrew.util.RobotState;
-import frc.robot.autos.AutonomousCommandsBuilder;
+import frc.robot.autos.AutonomousCommandCache;
 import frc.robot.subsystems.*;
 import frc.robot.subsystems.noteplayer.NotePlayerSubsystem;
+import frc.robot.subsystems.noteplayer.ShotLearner;
 import frc.robot.subsystems.swervedrive.SwerveDrive;
 
 import java.util.Objects;
@@ -48,7 +51,7 @@ public class RobotContainer implements Constants.AutoConstants {
 
     /* Subsystems */
     private final SwerveDrive swerveDrive = new SwerveDrive();
-    private final NotePlayerSubsystem notePlayerSubsystem = new NotePlayerSubsystem();
+    private final NotePlayerSubsystem notePlayerSubsystem = new NotePlayerSubsystem(swerveDrive::getFieldRelativeSpeeds);
     private final BlinkinSubsystem blinkin = BlinkinSubsystem.getInstance();
 
     private final ClimberSubsystem climberSubsystem = ClimberSubsystem.getInstance();
@@ -71,8 +74,10 @@ public class RobotContainer implements Constants.AutoConstants {
     private String autoLastAutoLane;
     private String autoLastSearchDirection;
     private boolean autoLastGrabFromCenterFirst;
+    private double autoLastDelay;
+    private boolean autoLastOnRedAlliance;
 
-    private Command autoCommand;
+    private final AutonomousCommandCache autoCommandCache = new AutonomousCommandCache(notePlayerSubsystem, swerveDrive);
 
     private ShuffleboardTab autonomousTab = Shuffleboard.getTab("Autonomous");
 
@@ -106,11 +111,13 @@ public class RobotContainer implements Constants.AutoConstants {
 
         NamedCommands.registerCommand("RaiseArm", notePlayerSubsystem.rotateArmToDegrees(44));
 
-/*
-        Thread visionThread = new Thread(new VisionPipelineRunnable(VisionModule.getInstance()), "visionThread");
-        visionThread.setDaemon(true);
-        visionThread.start();
-*/
+        // When replaying, the vision measurements come from the log instead
+        if (!InputLogger.isReplay()) {
+            Thread visionThread = new Thread(new VisionPipelineRunnable(VisionModule.getInstance()), "visionThread");
+            visionThread.setDaemon(true);
+            visionThread.start();
+        }
+
         setupAutoChoosers();
 
         autoLastNumOfNotes = numOfNotesToScoreChooser.getSelected();
@@ -118,10 +125,10 @@ public class RobotContainer implements Constants.AutoConstants {
         autoLastAutoLane = autoLaneChooser.getSelected();
         autoLastSearchDirection = directionToSearchInChooser.getSelected();
         autoLastGrabFromCenterFirst = grabFromCenterFirstChooser.getSelected();
+        autoLastDelay = autoMoveDelay.getDouble(8);
+        autoLastOnRedAlliance = FieldState.getInstance().onRedAlliance();
 
-        autoCommand = new AutonomousCommandsBuilder(autoLastNumOfNotes,
-                autoLastAutoLane, autoLastNumOfStartNotes, autoLastSearchDirection,
-                autoLastGrabFromCenterFirst, notePlayerSubsystem, swerveDrive, autoMoveDelay.getDouble(8));
+        regenerateAutoCommand();
     }
 
     /**
@@ -190,6 +197,11 @@ public class RobotContainer implements Constants.AutoConstants {
 
         auxDriver.rightStick().onTrue(notePlayerSubsystem.rotateArmToDegrees(50));
 
+        // Mark how the last speaker shot went, so the shot table can learn from it
+        auxDriver.x().onTrue(notePlayerSubsystem.markLastShot(ShotLearner.ShotOutcome.MADE));
+        auxDriver.leftTrigger().onTrue(notePlayerSubsystem.markLastShot(ShotLearner.ShotOutcome.MISSED_HIGH));
+        auxDriver.povLeft().onTrue(notePlayerSubsystem.markLastShot(ShotLearner.ShotOutcome.MISSED_LOW));
+
         auxDriver.leftStick().whileTrue(new RunCommand(() -> notePlayerSubsystem.getIndexer().spin(0.5))
                 .finallyDo(() -> notePlayerSubsystem.getIndexer().stop()));
 
@@ -222,13 +234,13 @@ public class RobotContainer implements Constants.AutoConstants {
      * @return the command to run in autonomous
      */
     public Command getAutonomousCommand() {
-        return debugPathMode.getBoolean(false) ? AutoBuilder.followPath(PathPlannerPath.fromPathFile(pathToDebug.getString("Sp-StLn-SN2"))) :
-                autoOptionsHaveChanged() ? new AutonomousCommandsBuilder(numOfNotesToScoreChooser.getSelected(),
-                autoLaneChooser.getSelected(), numOfNotesFromStartChooser.getSelected(),
-                directionToSearchInChooser.getSelected(), grabFromCenterFirstChooser.getSelected(),
-                notePlayerSubsystem, swerveDrive, autoMoveDelay.getDouble(8))/*.alongWith((Commands.waitSeconds(0.25).andThen(Commands.print("PERIODIC 1/4 SECOND TIME STAMP: " + System.nanoTime()/1E9))))*/
+        if (debugPathMode.getBoolean(false)) {
+            return AutoBuilder.followPath(PathRepository.getInstance().getPath(pathToDebug.getString("Sp-StLn-SN2")));
+        }
 
-                : autoCommand;
+        // Normally the routine was already built while disabled, so this is just a lookup
+        refreshAutoCache();
+        return autoCommandCache.get(getLastAutoOptions());
 
 //        return new RunCommand(() -> notePlayerSubsystem.getIntake().spin(0.4)).withTimeout(4);
     }
@@ -260,7 +272,8 @@ public class RobotContainer implements Constants.AutoConstants {
 
         // Choose Which direction the robot will search for notes in
         directionToSearchInChooser = new SendableChooser<>();
-        directionToSearchInChooser.setDefaultOption("FromAmp", "FromAmp");
+        directionToSearchInChooser.setDefaultOption("Fastest", FASTEST_SEARCH_DIRECTION);
+        directionToSearchInChooser.addOption("FromAmp", "FromAmp");
         directionToSearchInChooser.addOption("FromSource", "FromSrc");
         directionToSearchInChooser.addOption("MiddleOut", "MidOut");
 
@@ -282,15 +295,20 @@ public class RobotContainer implements Constants.AutoConstants {
         String currentAutoLane = autoLaneChooser.getSelected();
         String currentSearchDirection = directionToSearchInChooser.getSelected();
         boolean currentGrabFromStartFirst = grabFromCenterFirstChooser.getSelected();
+        double currentDelay = autoMoveDelay.getDouble(8);
+        boolean currentOnRedAlliance = FieldState.getInstance().onRedAlliance();
         if ((currentNumOfNotesToScore != autoLastNumOfNotes) ||
                 (currentNumOfNotesFromStart != autoLastNumOfStartNotes) || (!Objects.equals(currentAutoLane, autoLastAutoLane)) ||
-                (!Objects.equals(currentSearchDirection, autoLastSearchDirection)) || (currentGrabFromStartFirst != autoLastGrabFromCenterFirst)) {
+                (!Objects.equals(currentSearchDirection, autoLastSearchDirection)) || (currentGrabFromStartFirst != autoLastGrabFromCenterFirst) ||
+                (currentDelay != autoLastDelay) || (currentOnRedAlliance != autoLastOnRedAlliance)) {
 
             autoLastNumOfNotes = currentNumOfNotesToScore;
             autoLastNumOfStartNotes = currentNumOfNotesFromStart;
             autoLastAutoLane = currentAutoLane;
             autoLastSearchDirection = currentSearchDirection;
             autoLastGrabFromCenterFirst = currentGrabFromStartFirst;
+            autoLastDelay = currentDelay;
+            autoLastOnRedAlliance = currentOnRedAlliance;
 
             return true;
         } else {
@@ -298,10 +316,27 @@ public class RobotContainer implements Constants.AutoConstants {
         }
     }
 
+    /**
+     * Reads the auto choosers, and starts planning the selected routine in the background if they changed. Then makes
+     * the commands for a routine that has finished planning, if there is one. This should be called from the main thread
+     */
+    public void refreshAutoCache() {
+        if (autoOptionsHaveChanged()) {
+            regenerateAutoCommand();
+        }
+        autoCommandCache.composePlanned();
+    }
+
+    /**
+     * Starts planning the routine for the last selected auto options in the background, if it isn't cached already
+     */
     public void regenerateAutoCommand() {
-        autoCommand = new AutonomousCommandsBuilder(autoLastNumOfNotes,
-                autoLastAutoLane, autoLastNumOfStartNotes, autoLastSearchDirection,
-                autoLastGrabFromCenterFirst, notePlayerSubsystem, swerveDrive, autoMoveDelay.getDouble(8));
+        autoCommandCache.prebuild(getLastAutoOptions());
+    }
+
+    private AutonomousCommandCache.AutoOptions getLastAutoOptions() {
+        return new AutonomousCommandCache.AutoOptions(autoLastNumOfNotes, autoLastAutoLane, autoLastNumOfStartNotes,
+                autoLastSearchDirection, autoLastGrabFromCenterFirst, autoLastDelay, autoLastOnRedAlliance);
     }
 
     public NotePlayerSubsystem getNotePlayerSubsystem() {
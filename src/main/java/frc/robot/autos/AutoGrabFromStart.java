@@ -1,10 +1,10 @@
 package frc.robot.autos;
 
 import com.pathplanner.lib.auto.AutoBuilder;
-import com.pathplanner.lib.path.PathPlannerPath;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import frc.lib.bluecrew.pathplanner.PathRepository;
 import frc.lib.bluecrew.util.RobotState;
 import frc.robot.Constants;
 import frc.robot.commands.FindAndGotoNote;
@@ -13,12 +13,16 @@ import frc.robot.subsystems.swervedrive.SwerveDrive;
 
 public class AutoGrabFromStart extends SequentialCommandGroup {
 
-    public AutoGrabFromStart(int noteToGet, String lastScoredIn, String autoLane, NotePlayerSubsystem notePlayerSubsystem, SwerveDrive swerveDrive) {
+    /**
+     * @param onRedAlliance Whether the routine this is part of was planned for the red alliance, so the path is followed flipped
+     */
+    public AutoGrabFromStart(int noteToGet, String lastScoredIn, String autoLane, boolean onRedAlliance,
+                             NotePlayerSubsystem notePlayerSubsystem, SwerveDrive swerveDrive) {
         // Follow the path from where we last scored to the starting note we want to get
         // until we get to the end of the path, or we pick up a note
         addCommands(
 //                new AutoLog("Starting Path To Note!"),
-                AutoBuilder.followPath(PathPlannerPath.fromPathFile(lastScoredIn + "-" + autoLane + "-SN" + noteToGet)),
+                AutoBuilder.followPath(PathRepository.getInstance().getPath(lastScoredIn + "-" + autoLane + "-SN" + noteToGet, onRedAlliance)),
 //                new AutoLog("Done Following Path To Note, Starting Intake!"),
                 Commands.waitUntil(() -> RobotState.getInstance().getShooterStatus() == Constants.GameStateConstants.ShooterStatus.READY),
                 new FindAndGotoNote(swerveDrive).alongWith(Commands.waitUntil(RobotState.getInstance()::isNoteIsAvailable)
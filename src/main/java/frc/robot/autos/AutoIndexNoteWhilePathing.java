@@ -1,9 +1,10 @@
 package frc.robot.autos;
 
-import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.path.PathConstraints;
 import com.pathplanner.lib.path.PathPlannerPath;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
+import frc.lib.bluecrew.pathplanner.PathRepository;
+import frc.lib.bluecrew.util.FieldState;
 import frc.robot.subsystems.noteplayer.NotePlayerSubsystem;
 
 public class AutoIndexNoteWhilePathing extends ParallelCommandGroup {
@@ -11,7 +12,7 @@ public class AutoIndexNoteWhilePathing extends ParallelCommandGroup {
     public AutoIndexNoteWhilePathing(NotePlayerSubsystem notePlayerSubsystem, String pathName, PathConstraints constraints) {
         addCommands(
 //                new AutoLog("Starting Indexing while driving!"),
-                AutoBuilder.buildAuto(pathName),
+                PathRepository.getInstance().buildAuto(pathName, FieldState.getInstance().onRedAlliance()),
                 notePlayerSubsystem.intakeNote()
         );
     }
@@ -17,8 +17,8 @@ public class AutoScoreInSpeaker extends SequentialCommandGroup {
 //                new AutoLog("Starting Scoring!"),
                 Commands.run(() -> {
                     double distanceToSpeaker = PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d());
-                    notePlayerSubsystem.getShooter().spinMetersPerSecond(notePlayerSubsystem.getSpeedInterpolator().get(distanceToSpeaker));
-                    notePlayerSubsystem.getArm().rotateToDegrees(notePlayerSubsystem.getAngleInterpolator().get(distanceToSpeaker));
+                    notePlayerSubsystem.getShooter().spinMetersPerSecond(notePlayerSubsystem.getShotGrid().getWheelSpeed(distanceToSpeaker));
+                    notePlayerSubsystem.getArm().rotateToDegrees(notePlayerSubsystem.getShotGrid().getArmDegrees(distanceToSpeaker));
 //                    notePlayerSubsystem.shootFromSubwoofer();
                         })
                         .alongWith((Commands.waitSeconds(0.06)
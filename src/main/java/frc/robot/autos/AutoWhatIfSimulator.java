@@ -0,0 +1,275 @@
+package frc.robot.autos;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import frc.lib.bluecrew.pathplanner.PathRepository;
+import frc.lib.bluecrew.pathplanner.TravelTimeMatrix;
+import frc.robot.Constants;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plays out every routine {@link AutonomousCommandsBuilder} can make, without a robot, so we can pick the fastest one
+ * for each lane. Each routine makes the same choices the builder does, with the time for each path taken from the
+ * trajectory Path Planner generates for it, and the shooting and intaking times from {@link Constants.AutoConstants}.
+ * Each routine is played out against every combination of center notes the other alliance could have taken, weighted by
+ * how likely that is, so the results are what we'd expect on average.
+ * <p>
+ * The routines are independent, so they're played out in parallel across every core.
+ * Run it with the {@value AUTO_WHAT_IF_ENVIRONMENT_VARIABLE} environment variable set, e.g. {@code AUTO_WHAT_IF=1 ./gradlew simulateJava -Pheadless}
+ */
+public final class AutoWhatIfSimulator implements Constants.AutoConstants {
+
+    private static final String[] LANES = {ampLane, stageLane, sourceLane};
+    private static final String[] SEARCH_DIRECTIONS = {FASTEST_SEARCH_DIRECTION, "FromAmp", "FromSrc", "MidOut"};
+
+    /**
+     * What we expect to happen when running one routine
+     *
+     * @param options The chooser options for the routine
+     * @param expectedNotesScored How many notes we expect to score before auto ends
+     * @param expectedLastScoreSeconds When we expect to score the last note
+     * @param expectedCycleSeconds How long we expect each cycle after the preload to take
+     */
+    public record Result(AutonomousCommandCache.AutoOptions options, double expectedNotesScored,
+                         double expectedLastScoreSeconds, double expectedCycleSeconds) {}
+
+    private AutoWhatIfSimulator() {
+    }
+
+    /**
+     * @return Whether we were started to run the simulator instead of the robot
+     */
+    public static boolean isRequested() {
+        return System.getenv(AUTO_WHAT_IF_ENVIRONMENT_VARIABLE) != null;
+    }
+
+    /**
+     * Plays out every routine, then logs a table of the results and the best routine for each lane
+     */
+    public static void run() {
+        if (!HAL.initialize(500, 0)) {
+            throw new IllegalStateException("Failed to initialize the HAL");
+        }
+        PathRepository.getInstance().loadAll();
+        TravelTimeMatrix.getInstance().load();
+
+        long startTime = System.nanoTime();
+        List<Result> results = simulateAll();
+        DataLogManager.log("Simulated " + results.size() + " autonomous routines in " + (System.nanoTime() - startTime) / 1E6 + " ms");
+
+        results.sort(Comparator.comparing((Result result) -> result.options().autoLane())
+                .thenComparing(Comparator.comparingDouble(Result::expectedNotesScored).reversed())
+                .thenComparingDouble(Result::expectedLastScoreSeconds));
+
+        StringBuilder table = new StringBuilder(String.format("%-6s %5s %5s %-8s %-11s %7s %9s %8s%n",
+                "Lane", "Notes", "Start", "Search", "CenterFirst", "Scored", "LastShot", "Cycle"));
+        Map<String, Result> bestPerLane = new LinkedHashMap<>();
+        for (Result result : results) {
+            AutonomousCommandCache.AutoOptions options = result.options();
+            table.append(String.format("%-6s %5d %5d %-8s %-11b %7.2f %8.2fs %7.2fs%n",
+                    options.autoLane(), options.numOfNotesToScore(), options.numOfNotesFromStart(), options.searchDirection(),
+                    options.grabFromCenterFirst(), result.expectedNotesScored(), result.expectedLastScoreSeconds(),
+                    result.expectedCycleSeconds()));
+            // The results are sorted best first within each lane
+            bestPerLane.putIfAbsent(options.autoLane(), result);
+        }
+        DataLogManager.log(table.toString());
+
+        for (Result best : bestPerLane.values()) {
+            DataLogManager.log("Best in " + best.options().autoLane() + ": " + best);
+        }
+    }
+
+    /**
+     * @return The {@link Result} for every combination of chooser options that makes a routine
+     */
+    public static List<Result> simulateAll() {
+        List<AutonomousCommandCache.AutoOptions> allOptions = new ArrayList<>();
+        for (String lane : LANES) {
+            for (int notesToScore = 1; notesToScore <= NUM_OF_START_NOTES + NUM_OF_CENTER_NOTES + 1; notesToScore++) {
+                for (int notesFromStart = 0; notesFromStart <= NUM_OF_START_NOTES; notesFromStart++) {
+                    for (String searchDirection : SEARCH_DIRECTIONS) {
+                        allOptions.add(new AutonomousCommandCache.AutoOptions(notesToScore, lane, notesFromStart,
+                                searchDirection, true, 0, false));
+                        allOptions.add(new AutonomousCommandCache.AutoOptions(notesToScore, lane, notesFromStart,
+                                searchDirection, false, 0, false));
+                    }
+                }
+            }
+        }
+
+        return new ArrayList<>(allOptions.parallelStream().map(AutoWhatIfSimulator::simulate).toList());
+    }
+
+    /**
+     * Plays out one routine against every set of center notes that could be missing, and weights the outcomes by how likely they are
+     *
+     * @param options The chooser options for the routine
+     * @return The expected {@link Result}
+     */
+    public static Result simulate(AutonomousCommandCache.AutoOptions options) {
+        double expectedNotes = 0;
+        double expectedLastScore = 0;
+        double expectedCycle = 0;
+
+        for (int takenNotes = 0; takenNotes < 1 << NUM_OF_CENTER_NOTES; takenNotes++) {
+            int numTaken = Integer.bitCount(takenNotes);
+            double probability = Math.pow(AUTO_SIM_CENTER_NOTE_TAKEN_PROBABILITY, numTaken)
+                    * Math.pow(1 - AUTO_SIM_CENTER_NOTE_TAKEN_PROBABILITY, NUM_OF_CENTER_NOTES - numTaken);
+            if (probability == 0) continue;
+
+            Timeline timeline = new Timeline(takenNotes);
+            timeline.playOut(options);
+
+            expectedNotes += probability * timeline.notesScored;
+            expectedLastScore += probability * timeline.lastScoreTime;
+            if (timeline.notesScored > 1) {
+                expectedCycle += probability * (timeline.lastScoreTime - timeline.firstScoreTime) / (timeline.notesScored - 1);
+            }
+        }
+
+        return new Result(options, expectedNotes, expectedLastScore, expectedCycle);
+    }
+
+    /**
+     * One play through of a routine, with a known set of center notes missing
+     */
+    private static final class Timeline {
+        private final boolean[] centerNotePresent = new boolean[NUM_OF_CENTER_NOTES];
+        // What the routine thinks is there, every note it goes to is gone after
+        private final boolean[] centerNoteKnownToExist = new boolean[NUM_OF_CENTER_NOTES];
+        private boolean centerNotesGone = false;
+
+        private double time = 0;
+        private int notesScored = 0;
+        private double firstScoreTime = 0;
+        private double lastScoreTime = 0;
+
+        private Timeline(int takenCenterNotes) {
+            for (int i = 0; i < NUM_OF_CENTER_NOTES; i++) {
+                centerNotePresent[i] = (takenCenterNotes & (1 << i)) == 0;
+                centerNoteKnownToExist[i] = true;
+            }
+        }
+
+        /**
+         * Makes the same choices {@link AutonomousCommandsBuilder} does for these options
+         */
+        private void playOut(AutonomousCommandCache.AutoOptions options) {
+            String lane = options.autoLane();
+            int numOfNotesToScore = options.numOfNotesToScore();
+            int numOfNotesFromStart = Math.min(options.numOfNotesFromStart(), numOfNotesToScore - 1);
+            int numOfNotesFromCenter = numOfNotesToScore - (numOfNotesFromStart + 1);
+
+            int[] orderOfStartNotes = AutonomousCommandsBuilder.orderOfStartNotes(numOfNotesFromStart, lane, options.searchDirection());
+            int[] orderOfCenterNotes = AutonomousCommandsBuilder.orderOfCenterNotes(numOfNotesFromCenter, lane, options.searchDirection());
+
+            // Shoot the preload
+            time += options.delay();
+            score(true);
+
+            if (numOfNotesToScore == 1) {
+                drive("Sp-" + lane + "-SL");
+                return;
+            }
+
+            int grabsFromStartAttempted = 0;
+            for (int i = 0; i < numOfNotesToScore - 1 && time < AUTO_PERIOD_SECONDS; i++) {
+                boolean grabFromCenter = (options.grabFromCenterFirst() && i < numOfNotesFromCenter)
+                        || (!options.grabFromCenterFirst() && i >= numOfNotesFromStart);
+                if (grabFromCenter) {
+                    boolean gotNote = !centerNotesGone && grabFromCenter(orderOfCenterNotes, lane);
+                    drive("CL-" + lane + "-Sp");
+                    score(gotNote);
+                } else {
+                    int note = orderOfStartNotes[grabsFromStartAttempted++];
+                    drive("Sp-" + lane + "-SN" + note);
+                    time += AUTO_SIM_INTAKE_SECONDS;
+                    drive("SN" + note + "-" + lane + "-Sp");
+                    score(true);
+                }
+            }
+        }
+
+        /**
+         * Follows what {@link DriveToCenterNotes} does. A missing note is still driven all the way to, so this is a bit
+         * slower than the robot, which turns away as soon as the {@link CenterNoteTracker} sees the note is gone
+         *
+         * @return Whether we picked up a note
+         */
+        private boolean grabFromCenter(int[] orderOfCenterNotes, String lane) {
+            int note = getFirstCenterNote(orderOfCenterNotes, lane);
+            if (note < 0) {
+                centerNotesGone = true;
+                return false;
+            }
+
+            drive("Sp-" + lane + "-CL");
+            drive("CL-" + lane + "-CN" + note);
+            while (true) {
+                centerNoteKnownToExist[note - 1] = false;
+                if (centerNotePresent[note - 1]) {
+                    centerNotePresent[note - 1] = false;
+                    time += AUTO_SIM_INTAKE_SECONDS;
+                    return true;
+                }
+                time += AUTO_SIM_MISSING_NOTE_SECONDS;
+
+                int nextNote = -1;
+                double bestSeconds = Double.POSITIVE_INFINITY;
+                for (int candidate = 1; candidate <= NUM_OF_CENTER_NOTES; candidate++) {
+                    if (!centerNoteKnownToExist[candidate - 1]) continue;
+                    double seconds = NoteOrderPlanner.getInstance().getCenterNoteHopSeconds(note, candidate);
+                    if (seconds < bestSeconds) {
+                        bestSeconds = seconds;
+                        nextNote = candidate;
+                    }
+                }
+                if (nextNote < 0) {
+                    centerNotesGone = true;
+                    return false;
+                }
+                time += bestSeconds;
+                note = nextNote;
+            }
+        }
+
+        private int getFirstCenterNote(int[] orderOfCenterNotes, String lane) {
+            for (int note : orderOfCenterNotes) {
+                if (centerNoteKnownToExist[note - 1]) return note;
+            }
+
+            int bestNote = -1;
+            double bestSeconds = Double.POSITIVE_INFINITY;
+            for (int note = 1; note <= NUM_OF_CENTER_NOTES; note++) {
+                if (!centerNoteKnownToExist[note - 1]) continue;
+                double seconds = PathRepository.getInstance().getDurationSeconds("CL-" + lane + "-CN" + note);
+                if (seconds < bestSeconds) {
+                    bestSeconds = seconds;
+                    bestNote = note;
+                }
+            }
+            return bestNote;
+        }
+
+        private void drive(String pathName) {
+            time += PathRepository.getInstance().getDurationSeconds(pathName);
+        }
+
+        private void score(boolean hasNote) {
+            if (!hasNote) return;
+
+            time += AUTO_SIM_SHOT_SECONDS;
+            if (time > AUTO_PERIOD_SECONDS) return;
+
+            if (notesScored == 0) firstScoreTime = time;
+            lastScoreTime = time;
+            notesScored++;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package frc.robot.autos;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.Constants;
+import frc.robot.subsystems.noteplayer.NotePlayerSubsystem;
+import frc.robot.subsystems.swervedrive.SwerveDrive;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Plans {@link AutonomousCommandsBuilder} routines on a background thread, and keeps the most recently used ones,
+ * so picking the autonomous command in autonomousInit is just a lookup.
+ * <p>
+ * Only the planning happens in the background: working out the note order, loading and flipping the paths, and
+ * generating their trajectories. The scheduler and Path Planner's commands aren't thread safe, so the commands are
+ * made from a finished plan on the main thread, by {@link #composePlanned()} or {@link #get}.
+ * <p>
+ * Routines are only planned one at a time, on a single background thread. Everything else should only be called from
+ * the main robot thread.
+ */
+public class AutonomousCommandCache implements Constants.AutoConstants {
+
+    /**
+     * Every option that changes the routine {@link AutonomousCommandsBuilder} generates
+     */
+    public record AutoOptions(int numOfNotesToScore, String autoLane, int numOfNotesFromStart,
+                              String searchDirection, boolean grabFromCenterFirst, double delay,
+                              boolean onRedAlliance) {}
+
+    /**
+     * A routine being planned in the background, and its commands once they've been made from the plan
+     */
+    private static final class CachedRoutine {
+        private final CompletableFuture<AutonomousCommandsBuilder.Plan> plan;
+        private Command command;
+
+        private CachedRoutine(CompletableFuture<AutonomousCommandsBuilder.Plan> plan) {
+            this.plan = plan;
+        }
+
+        private boolean isPlanned() {
+            return plan.isDone() && !plan.isCompletedExceptionally();
+        }
+    }
+
+    private final NotePlayerSubsystem notePlayerSubsystem;
+    private final SwerveDrive swerveDrive;
+
+    private final ExecutorService autoPlannerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "autoPlannerThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Access ordered, so the least recently used routine gets dropped once the cache is full
+    private final Map<AutoOptions, CachedRoutine> cache =
+            new LinkedHashMap<>(AUTO_CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<AutoOptions, CachedRoutine> eldest) {
+                    return size() > AUTO_CACHE_SIZE;
+                }
+            };
+
+    public AutonomousCommandCache(NotePlayerSubsystem notePlayerSubsystem, SwerveDrive swerveDrive) {
+        this.notePlayerSubsystem = notePlayerSubsystem;
+        this.swerveDrive = swerveDrive;
+    }
+
+    /**
+     * Starts planning the routine for these options in the background, unless it's already planned or being planned
+     *
+     * @param options The {@link AutoOptions} to plan the routine for
+     */
+    public void prebuild(AutoOptions options) {
+        getOrSubmit(options);
+    }
+
+    /**
+     * Makes the commands for one routine that has finished planning, if there are any. Only one is made per call,
+     * so calling this every loop while disabled spreads the work out
+     */
+    public void composePlanned() {
+        for (CachedRoutine routine : cache.values()) {
+            if (routine.command == null && routine.isPlanned()) {
+                routine.command = compose(routine.plan.join());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the routine for these options. If it was prebuilt this returns right away, otherwise it waits for the
+     * background thread to finish planning it, and then makes its commands.
+     *
+     * @param options The {@link AutoOptions} to get the routine for
+     * @return The autonomous {@link Command}
+     */
+    public Command get(AutoOptions options) {
+        CachedRoutine routine = getOrSubmit(options);
+        if (routine.command == null) {
+            if (!routine.plan.isDone()) {
+                DataLogManager.log("Autonomous routine was not prebuilt, waiting for it: " + options);
+            }
+            routine.command = compose(routine.plan.join());
+        }
+        return routine.command;
+    }
+
+    /**
+     * @param options The {@link AutoOptions} to check
+     * @return Whether the routine for these options is built and ready to run
+     */
+    public boolean isReady(AutoOptions options) {
+        CachedRoutine routine = cache.get(options);
+        return routine != null && routine.command != null;
+    }
+
+    private CachedRoutine getOrSubmit(AutoOptions options) {
+        CachedRoutine routine = cache.get(options);
+        // Don't keep a failed plan around, try again
+        if (routine == null || routine.plan.isCompletedExceptionally()) {
+            routine = new CachedRoutine(CompletableFuture.supplyAsync(() -> AutonomousCommandsBuilder.plan(options), autoPlannerExecutor));
+            cache.put(options, routine);
+        }
+        return routine;
+    }
+
+    private Command compose(AutonomousCommandsBuilder.Plan plan) {
+        return new AutonomousCommandsBuilder(plan, notePlayerSubsystem, swerveDrive);
+    }
+}
@@ -1,13 +1,13 @@
 package frc.robot.autos;
 
 import com.pathplanner.lib.auto.AutoBuilder;
-import com.pathplanner.lib.path.PathPlannerPath;
 import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.MotorSafety;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.RunCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
+import frc.lib.bluecrew.pathplanner.PathRepository;
 import frc.lib.bluecrew.util.FieldState;
 import frc.lib.bluecrew.util.RobotState;
 import frc.robot.Constants;
@@ -24,32 +24,68 @@ import static frc.robot.Constants.GameStateConstants.ShooterStatus.READY;
 public class AutonomousCommandsBuilder extends SequentialCommandGroup implements Constants.AutoConstants, Constants.PathPlannerConstants {
 
     /**
-     * This class automatically generates the autonomous routine based on six inputs
-     * @param numOfNotesToScore {@link Integer} The total number of notes to score
-     * @param autoLane {@link String} The general area of the field the robot should drive in. MUST BE DEFINED IN CONSTANTS (see {@link frc.robot.Constants.AutoConstants}
-     * @param numOfNotesFromStart {@link Integer} The number of notes to pickup from the starting area
-     * @param searchDirection {@link Integer} Which direction the robot should search in (currently 1 (toward source) or -1 (towards amp), may change)
-     * @param grabFromCenterFirst {@link Boolean} Whether to grab
+     * Everything about a routine that can be worked out without making any commands: how many notes to get from where,
+     * and in which order. Making a plan also loads every path the routine could follow, flipped for the alliance it was
+     * planned for, and generates their trajectories. Unlike the commands, this is safe to make off the main thread.
      */
-    public AutonomousCommandsBuilder(int numOfNotesToScore, String autoLane,
-                                     int numOfNotesFromStart, String searchDirection, boolean grabFromCenterFirst,
-                                     NotePlayerSubsystem notePlayerSubsystem, SwerveDrive swerveDrive, double delay) {
+    public record Plan(AutonomousCommandCache.AutoOptions options, int numOfNotesFromStart, int numOfNotesFromCenter,
+                       int[] orderOfStartNotes, int[] orderOfCenterNotes) {}
+
+    /**
+     * Plans the routine for these options. This doesn't make any commands, so it can be run on a background thread
+     *
+     * @param options The {@link AutonomousCommandCache.AutoOptions} to plan for
+     * @return The {@link Plan}
+     */
+    public static Plan plan(AutonomousCommandCache.AutoOptions options) {
+        int numOfNotesToScore = options.numOfNotesToScore();
+        String autoLane = options.autoLane();
+        if (autoLane == null) return new Plan(options, 0, 0, new int[0], new int[0]);
+
+        // Make sure we don't try to take more notes from the start than we want to score
+        int numOfNotesFromStart = Math.min(options.numOfNotesFromStart(), numOfNotesToScore - 1);
+        // Calculate the number of notes the robot should get from the center
+        int numOfNotesFromCenter = numOfNotesToScore - (numOfNotesFromStart + 1);
+
+        // Load every path this lane could use, and the hops between center notes, so making the commands doesn't have to
+        PathRepository pathRepository = PathRepository.getInstance();
+        for (String pathName : pathRepository.getPathNames()) {
+            if (pathName.contains("-" + autoLane + "-") || pathName.startsWith("CN")) {
+                pathRepository.getPath(pathName, options.onRedAlliance());
+                pathRepository.getDurationSeconds(pathName);
+            }
+        }
+
+        return new Plan(options, numOfNotesFromStart, numOfNotesFromCenter,
+                // The order we should grab the start notes in
+                orderOfStartNotes(numOfNotesFromStart, autoLane, options.searchDirection()),
+                // The order we should grab the center notes in
+                orderOfCenterNotes(numOfNotesFromCenter, autoLane, options.searchDirection()));
+    }
+
+    /**
+     * This class automatically generates the autonomous routine from a {@link Plan}.
+     * This makes commands, so it must be run on the main robot thread. Every path and auto comes from the
+     * {@link PathRepository}, already flipped for the alliance it was planned for, so no files are read
+     * @param plan {@link Plan} The planned routine, from {@link #plan}
+     */
+    public AutonomousCommandsBuilder(Plan plan, NotePlayerSubsystem notePlayerSubsystem, SwerveDrive swerveDrive) {
 
 //        DataLogManager.log("*********************************************************************** Starting Building Auto! ***************************************************************************************");
 //        long startTime = System.nanoTime();
 
-        if (autoLane != null) {
+        int numOfNotesToScore = plan.options().numOfNotesToScore();
+        String autoLane = plan.options().autoLane();
+        boolean grabFromCenterFirst = plan.options().grabFromCenterFirst();
+        double delay = plan.options().delay();
+        boolean onRedAlliance = plan.options().onRedAlliance();
 
-            // Make sure we don't try to take more notes from the start than we want to score
-            if (numOfNotesFromStart >= numOfNotesToScore) numOfNotesFromStart = numOfNotesToScore - 1;
-
-            // Calculate the number of notes the robot should get from the center
-            int numOfNotesFromCenter = numOfNotesToScore - (numOfNotesFromStart + 1);
+        if (autoLane != null) {
 
-            // The order we should grab the start notes in
-            int[] orderOfStartNotes = orderOfNotes(numOfNotesFromStart, autoLane, searchDirection, 3);
-            // The order we should grab the center notes in
-            int[] orderOfCenterNotes = orderOfNotes(numOfNotesFromCenter, autoLane, searchDirection, 5);
+            int numOfNotesFromStart = plan.numOfNotesFromStart();
+            int numOfNotesFromCenter = plan.numOfNotesFromCenter();
+            int[] orderOfStartNotes = plan.orderOfStartNotes();
+            int[] orderOfCenterNotes = plan.orderOfCenterNotes();
 
             // Keep track of the number of grabs from the start we have attempted
             int grabsFromStartAttempted = 0;
@@ -84,7 +120,7 @@ public class AutonomousCommandsBuilder extends SequentialCommandGroup implements
                     addCommands(
                             // If we've selected to only score one note, just drive out of the starting zone
 //                        new InstantCommand(() -> DataLogManager.log("Only 1 Action Chosen! Leaving Starting Zone!")),
-                            AutoBuilder.followPath(PathPlannerPath.fromPathFile(lastScoredIn + "-" + autoLane + "-SL"))
+                            AutoBuilder.followPath(PathRepository.getInstance().getPath(lastScoredIn + "-" + autoLane + "-SL", onRedAlliance))
                             //new InstantCommand(() -> DataLogManager.log("Following: " + lastScoredIn + "-" + autoLane + "-SL")
                     );
                 } else {
@@ -106,13 +142,11 @@ public class AutonomousCommandsBuilder extends SequentialCommandGroup implements
                             );
                              // Score in the Speaker
                             lastScoredIn = "Sp";
-                            PathPlannerPath pathToSpeaker = PathPlannerPath.fromPathFile("CL-" + autoLane + "-Sp");
-                            double distanceToSpeakerAtEndOfPath = pathToSpeaker.getAllPathPoints().get(pathToSpeaker.getAllPathPoints().size() - 1).position.getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d());
 //                            addCommands(new InstantCommand(() -> DataLogManager.log("Path Find To and Following: CL-" + autoLane + "-Sp")));
                             if (!Objects.equals(autoLane, stageLane)) {
                                 addCommands(
 //                                        new InstantCommand(() -> swerveDrive.setFaceSpeaker(true)),
-                                        AutoBuilder.buildAuto("CL-" + autoLane + "-Sp"),
+                                        PathRepository.getInstance().buildAuto("CL-" + autoLane + "-Sp", onRedAlliance),
                                         new AutoScoreInSpeaker(notePlayerSubsystem).finallyDo(() -> {
                                             notePlayerSubsystem.getIndexer().stop();
 //                                                notePlayerSubsystem.getShooter().stop();
@@ -121,7 +155,7 @@ public class AutonomousCommandsBuilder extends SequentialCommandGroup implements
                             } else {
                                 addCommands(
                                         new InstantCommand(() -> notePlayerSubsystem.setMoveArmInAuto(true)),
-                                        AutoBuilder.buildAuto("CL-" + autoLane + "-Sp")
+                                        PathRepository.getInstance().buildAuto("CL-" + autoLane + "-Sp", onRedAlliance)
                                 );
                             }
 
@@ -141,23 +175,20 @@ public class AutonomousCommandsBuilder extends SequentialCommandGroup implements
                             addCommands(
 //                                new InstantCommand(() -> DataLogManager.log("Grabbing from start!")),
                                     notePlayerSubsystem.prepForPickup(),
-                                    new AutoGrabFromStart(orderOfStartNotes[grabsFromStartAttempted], lastScoredIn, autoLane, notePlayerSubsystem, swerveDrive).until(notePlayerSubsystem.getIntake()::noteInIntake)
+                                    new AutoGrabFromStart(orderOfStartNotes[grabsFromStartAttempted], lastScoredIn, autoLane, onRedAlliance, notePlayerSubsystem, swerveDrive).until(notePlayerSubsystem.getIntake()::noteInIntake)
                             );
                             // Score in the Speaker
                             lastScoredIn = "Sp";
 //                            DataLogManager.log("Shoot Speaker");
                             String pathName = "SN" + orderOfStartNotes[grabsFromStartAttempted] + "-" + autoLane + "-Sp";
-                            PathPlannerPath pathToSpeaker = PathPlannerPath.fromPathFile(pathName);
-                            double distanceToSpeakerAtEndOfPath = pathToSpeaker.getAllPathPoints().get(pathToSpeaker.getAllPathPoints().size() - 1)
-                                    .position.getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d());
                             addCommands(
                                     new InstantCommand(() -> notePlayerSubsystem.setMoveArmInAuto(true)),
-                                    AutoBuilder.buildAuto(pathName),
+                                    PathRepository.getInstance().buildAuto(pathName, onRedAlliance),
                                     //                                            new AutoLog("Finished intaking and following path"),
                                     new RunCommand(() -> notePlayerSubsystem.getIndexer().spin(0.65))
                                             .until(notePlayerSubsystem.getIndexer()::noteInIndexer)
                                             .unless(notePlayerSubsystem.getIndexer()::noteInIndexer)
-                                            .andThen(notePlayerSubsystem.rotateArmToDegrees(notePlayerSubsystem.getAngleInterpolator().get(1.4d))),
+                                            .andThen(notePlayerSubsystem.rotateArmToDegrees(notePlayerSubsystem.getShotGrid().getArmDegrees(1.4d))),
                                     new AutoScoreInSpeaker(notePlayerSubsystem).finallyDo(() -> {
 //                                            notePlayerSubsystem.getShooter().stop();
                                         notePlayerSubsystem.getIndexer().stop();
@@ -185,7 +216,7 @@ public class AutonomousCommandsBuilder extends SequentialCommandGroup implements
                     }
                     addCommands(
 //                        new InstantCommand(() -> DataLogManager.log("Done Scoring! Driving to Center Line!")),
-                            AutoBuilder.pathfindThenFollowPath(PathPlannerPath.fromPathFile(lastScoredIn + "-" + autoLane + "-CL"), pathConstraints)
+                            AutoBuilder.pathfindThenFollowPath(PathRepository.getInstance().getPath(lastScoredIn + "-" + autoLane + "-CL", onRedAlliance), pathConstraints)
 //                        new InstantCommand(() -> DataLogManager.log("Autonomous Routine is Complete!"))
                     );
                 }
@@ -199,6 +230,28 @@ public class AutonomousCommandsBuilder extends SequentialCommandGroup implements
 //        DataLogManager.log("****************************************************************************************************************************************************************************************************************************************************************************************\n   Finished Building Auto, Time Taken: " + timeTaken + " Seconds \n*******************************************************************************************************************************");
     }
 
+    /**
+     * Get an array containing the number of each starting note, in the order we want to get them.
+     * If the search direction is {@value FASTEST_SEARCH_DIRECTION}, this is the fastest order from the {@link NoteOrderPlanner}
+     */
+    static int[] orderOfStartNotes(int numOfNotesToGet, String autoLane, String searchDirection) {
+        if (Objects.equals(searchDirection, FASTEST_SEARCH_DIRECTION)) {
+            return NoteOrderPlanner.getInstance().planStartNotes(numOfNotesToGet, autoLane);
+        }
+        return orderOfNotes(numOfNotesToGet, autoLane, searchDirection, NUM_OF_START_NOTES);
+    }
+
+    /**
+     * Get an array containing the number of each center note, in the order we want to get them.
+     * If the search direction is {@value FASTEST_SEARCH_DIRECTION}, this is the fastest order from the {@link NoteOrderPlanner}
+     */
+    static int[] orderOfCenterNotes(int numOfNotesToGet, String autoLane, String searchDirection) {
+        if (Objects.equals(searchDirection, FASTEST_SEARCH_DIRECTION)) {
+            return NoteOrderPlanner.getInstance().planCenterNotes(numOfNotesToGet, autoLane);
+        }
+        return orderOfNotes(numOfNotesToGet, autoLane, searchDirection, NUM_OF_CENTER_NOTES);
+    }
+
     /**
      * Get an array containing the number of each note, in the order we want to get them
      * @param numOfNotesToGet The number of notes to get (the length of the array)
@@ -207,7 +260,7 @@ public class AutonomousCommandsBuilder extends SequentialCommandGroup implements
      * @param totalNumOfNotes Then total number of notes available (3 for starting notes, 5 for center line notes)
      * @return An array containing hte number of each note to get, in the order to get them ([0] contains the number of the first note to get)
      */
-    private int[] orderOfNotes(int numOfNotesToGet, String autoLane, String searchDirection, int totalNumOfNotes) {
+    private static int[] orderOfNotes(int numOfNotesToGet, String autoLane, String searchDirection, int totalNumOfNotes) {
 
 //        // Don't do anything if the number of notes to get is out of bounds
         if(numOfNotesToGet < 1) return  new int[0];
@@ -0,0 +1,132 @@
+package frc.robot.autos;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.bluecrew.util.FieldState;
+import frc.robot.Constants;
+import frc.robot.subsystems.NoteCameraIO;
+import frc.robot.subsystems.PoseEstimator;
+import frc.robot.subsystems.VisionModule;
+
+/**
+ * This class is singleton, and watches the center notes with the note camera during autonomous. When a center note
+ * should be in view but the camera hasn't seen it for {@value NOTE_TRACKING_MISSING_SECONDS} seconds, it's marked
+ * gone in the {@link FieldState}, so {@link DriveToCenterNotes} can go somewhere else without driving all the way to it.
+ * <p>
+ * This only uses the logged note camera inputs and the pose estimate, so it does the same thing when replaying.
+ */
+public final class CenterNoteTracker implements Constants.AutoConstants, Constants.PhotonVision, Constants.FieldCoordinates {
+
+    // The center notes come after the blue wing notes in FIELD_NOTE_POSITIONS, from the source side to the amp side
+    private static final int FIRST_CENTER_NOTE_POSITION = NUM_OF_START_NOTES;
+
+    private static CenterNoteTracker instance;
+
+    private final Translation2d robotToCamera = ROBOT_TO_NOTE_CAM_POS.getTranslation().toTranslation2d();
+    private final double cameraHeight = ROBOT_TO_NOTE_CAM_POS.getZ();
+    private final double cameraPitch = ROBOT_TO_NOTE_CAM_POS.getRotation().getY();
+    private final Rotation2d cameraYaw = new Rotation2d(ROBOT_TO_NOTE_CAM_POS.getRotation().getZ());
+    private final double halfFovRadians = Math.toRadians(NOTE_TRACKING_HALF_FOV_DEGREES);
+
+    // Where on the field each of this loop's note targets is
+    private final double[] targetXs = new double[MAX_NOTE_TARGETS];
+    private final double[] targetYs = new double[MAX_NOTE_TARGETS];
+    private int targetCount = 0;
+
+    // The last time each center note was either seen, or out of view
+    private final double[] lastAccountedForTime = new double[NUM_OF_CENTER_NOTES];
+
+    private CenterNoteTracker() {}
+
+    public static synchronized CenterNoteTracker getInstance() {
+        if (instance == null) {
+            instance = new CenterNoteTracker();
+        }
+        return instance;
+    }
+
+    /**
+     * Checks the note camera for the center notes we still think exist. This should be called once per loop during
+     * autonomous, after the note camera is read
+     */
+    public void periodic() {
+        double now = Timer.getFPGATimestamp();
+        Pose2d robotPose = PoseEstimator.getInstance().getPose();
+        Translation2d cameraPosition = robotPose.getTranslation().plus(robotToCamera.rotateBy(robotPose.getRotation()));
+        Rotation2d cameraHeading = robotPose.getRotation().plus(cameraYaw);
+
+        projectTargets(VisionModule.getInstance().getNoteTargets(), cameraPosition, cameraHeading);
+
+        boolean[] centerNotesExist = FieldState.getInstance().getCenterNotesExist();
+        for (int i = 0; i < NUM_OF_CENTER_NOTES; i++) {
+            if (!centerNotesExist[i]) continue;
+
+            Translation2d notePosition = getCenterNotePosition(i + 1);
+            if (!shouldBeInView(notePosition, cameraPosition, cameraHeading) || isSeen(notePosition)) {
+                lastAccountedForTime[i] = now;
+            } else if (now - lastAccountedForTime[i] > NOTE_TRACKING_MISSING_SECONDS) {
+                FieldState.getInstance().setCenterNoteExists(i, false);
+                DataLogManager.log("Center note " + (i + 1) + " is gone");
+            }
+        }
+    }
+
+    /**
+     * Resets the timers, so notes that were out of view before now don't count as missing. Call this when autonomous starts
+     */
+    public void reset() {
+        double now = Timer.getFPGATimestamp();
+        for (int i = 0; i < NUM_OF_CENTER_NOTES; i++) {
+            lastAccountedForTime[i] = now;
+        }
+    }
+
+    /**
+     * @param note The number of the center note, 1 is closest to the amp
+     * @return Where the note starts on the field. The center line is the same for both alliances
+     */
+    public static Translation2d getCenterNotePosition(int note) {
+        return FIELD_NOTE_POSITIONS[FIRST_CENTER_NOTE_POSITION + NUM_OF_CENTER_NOTES - note];
+    }
+
+    /**
+     * Works out where on the floor each target is, from how far below the horizon and how far to the side the camera sees it
+     */
+    private void projectTargets(NoteCameraIO.NoteCameraIOInputs noteTargets, Translation2d cameraPosition, Rotation2d cameraHeading) {
+        targetCount = 0;
+        for (int t = 0; t < noteTargets.targetCount; t++) {
+            // PhotonVision pitch is up from the crosshair, and the camera is pitched down
+            double angleBelowHorizon = cameraPitch - Math.toRadians(noteTargets.pitches[t]);
+            if (angleBelowHorizon <= 0) continue;
+
+            double distance = cameraHeight / Math.tan(angleBelowHorizon);
+            // PhotonVision yaw is positive to the right, field angles are positive to the left
+            double bearing = cameraHeading.getRadians() - Math.toRadians(noteTargets.yaws[t]);
+            targetXs[targetCount] = cameraPosition.getX() + distance * Math.cos(bearing);
+            targetYs[targetCount] = cameraPosition.getY() + distance * Math.sin(bearing);
+            targetCount++;
+        }
+    }
+
+    private boolean shouldBeInView(Translation2d notePosition, Translation2d cameraPosition, Rotation2d cameraHeading) {
+        double dx = notePosition.getX() - cameraPosition.getX();
+        double dy = notePosition.getY() - cameraPosition.getY();
+        double distance = Math.hypot(dx, dy);
+        if (distance < NOTE_TRACKING_MIN_DISTANCE || distance > NOTE_TRACKING_MAX_DISTANCE) return false;
+
+        double bearing = Math.atan2(dy, dx) - cameraHeading.getRadians();
+        return Math.abs(Math.atan2(Math.sin(bearing), Math.cos(bearing))) < halfFovRadians;
+    }
+
+    private boolean isSeen(Translation2d notePosition) {
+        for (int t = 0; t < targetCount; t++) {
+            if (Math.hypot(targetXs[t] - notePosition.getX(), targetYs[t] - notePosition.getY()) < NOTE_TRACKING_MATCH_TOLERANCE) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,205 @@
+package frc.robot.autos;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.path.PathPoint;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import frc.lib.bluecrew.pathplanner.PathRepository;
+import frc.lib.bluecrew.util.FieldState;
+import frc.lib.bluecrew.util.RobotState;
+import frc.robot.Constants;
+import frc.robot.commands.FindAndGotoNote;
+import frc.robot.subsystems.noteplayer.NotePlayerSubsystem;
+import frc.robot.subsystems.swervedrive.SwerveDrive;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives from the center line to the center notes until we pick one up. The first note is the first one in the
+ * planned order that we still think exists. After that, and whenever the {@link CenterNoteTracker} sees that the note
+ * we're driving to is gone, we go to whichever note left is the quickest to get to from there, using the
+ * {@link NoteOrderPlanner} center note hop times.
+ * <p>
+ * This runs the path and pickup commands itself, so it can drop a path part way through and start a new one.
+ */
+public class DriveToCenterNotes extends Command implements Constants.AutoConstants, Constants.PathPlannerConstants {
+
+    private final int[] orderOfCenterNotes;
+    private final String autoLane;
+    private final NotePlayerSubsystem notePlayerSubsystem;
+    private final SwerveDrive swerveDrive;
+
+    private Command currentCommand;
+    private int targetNote;
+    private boolean drivingToNote;
+
+    public DriveToCenterNotes(int[] orderOfCenterNotes, String autoLane, NotePlayerSubsystem notePlayerSubsystem, SwerveDrive swerveDrive) {
+        this.orderOfCenterNotes = orderOfCenterNotes;
+        this.autoLane = autoLane;
+        this.notePlayerSubsystem = notePlayerSubsystem;
+        this.swerveDrive = swerveDrive;
+
+        addRequirements(swerveDrive, notePlayerSubsystem);
+    }
+
+    /**
+     * @return Whether any center note we could go to still exists
+     */
+    public static boolean anyCenterNotesLeft() {
+        for (boolean exists : FieldState.getInstance().getCenterNotesExist()) {
+            if (exists) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void initialize() {
+        targetNote = getFirstNote();
+        if (targetNote < 0) {
+            currentCommand = null;
+            return;
+        }
+
+        DataLogManager.log("Following: CL-" + autoLane + "-CN" + targetNote);
+        startDriving(AutoBuilder.followPath(PathRepository.getInstance().getPath("CL-" + autoLane + "-CN" + targetNote, FieldState.getInstance().onRedAlliance())));
+    }
+
+    @Override
+    public void execute() {
+        if (currentCommand == null) return;
+
+        // Don't finish a path to a note we know is gone, go straight to the next one instead
+        if (drivingToNote && !noteExists(targetNote)) {
+            currentCommand.end(true);
+            replanFrom(targetNote, true);
+            if (currentCommand == null) return;
+        }
+
+        currentCommand.execute();
+        if (!currentCommand.isFinished()) return;
+        currentCommand.end(false);
+
+        if (drivingToNote) {
+            // Either we're about to get it, or it isn't there, so save that it's gone.
+            // That way the next grab doesn't come back here
+            FieldState.getInstance().setCenterNoteExists(targetNote - 1, false);
+            drivingToNote = false;
+            currentCommand = new FindAndGotoNote(swerveDrive).until(notePlayerSubsystem.getIntake()::noteInIntake)
+                    .alongWith(Commands.waitUntil(RobotState.getInstance()::isNoteIsAvailable).withTimeout(0.06)
+                            .andThen(notePlayerSubsystem.intakeNote().onlyIf(RobotState.getInstance()::isNoteIsAvailable)));
+            currentCommand.initialize();
+        } else {
+            // We didn't get it, so try the next one
+            replanFrom(targetNote, false);
+        }
+    }
+
+    @Override
+    public boolean isFinished() {
+        return currentCommand == null;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        if (currentCommand != null) {
+            currentCommand.end(true);
+            currentCommand = null;
+        }
+    }
+
+    /**
+     * @return The first note in the planned order that still exists, or if they're all gone the quickest one to get to
+     * from the center line, or -1 if there are no center notes left
+     */
+    private int getFirstNote() {
+        for (int note : orderOfCenterNotes) {
+            if (noteExists(note)) return note;
+        }
+
+        int bestNote = -1;
+        double bestSeconds = Double.POSITIVE_INFINITY;
+        for (int note = 1; note <= NUM_OF_CENTER_NOTES; note++) {
+            if (!noteExists(note)) continue;
+            double seconds = PathRepository.getInstance().getDurationSeconds("CL-" + autoLane + "-CN" + note);
+            if (seconds < bestSeconds) {
+                bestSeconds = seconds;
+                bestNote = note;
+            }
+        }
+        return bestNote;
+    }
+
+    /**
+     * Starts driving to the note left that's the quickest to get to from this one, or stops if there aren't any
+     *
+     * @param fromNote The note we were going to, or just tried to get
+     * @param partWayThere Whether we stopped part way to the note, instead of getting to it
+     */
+    private void replanFrom(int fromNote, boolean partWayThere) {
+        int nextNote = -1;
+        double bestSeconds = Double.POSITIVE_INFINITY;
+        for (int note = 1; note <= NUM_OF_CENTER_NOTES; note++) {
+            if (note == fromNote || !noteExists(note)) continue;
+            double seconds = NoteOrderPlanner.getInstance().getCenterNoteHopSeconds(fromNote, note);
+            if (seconds < bestSeconds) {
+                bestSeconds = seconds;
+                nextNote = note;
+            }
+        }
+
+        targetNote = nextNote;
+        if (nextNote < 0) {
+            currentCommand = null;
+            return;
+        }
+
+        if (partWayThere) {
+            // We aren't at the start of any path, so find our own way there
+            DataLogManager.log("Center note " + fromNote + " is gone, pathfinding to CN" + nextNote);
+            startDriving(AutoBuilder.pathfindToPose(getPickupPose(nextNote), pathConstraints));
+        } else {
+            DataLogManager.log("Following: CN" + fromNote + "-CN" + nextNote);
+            startDriving(followHop(fromNote, nextNote));
+        }
+    }
+
+    private void startDriving(Command driveCommand) {
+        drivingToNote = true;
+        currentCommand = driveCommand;
+        currentCommand.initialize();
+    }
+
+    /**
+     * There are only paths between neighboring center notes, so longer hops follow the paths through the notes in between
+     */
+    private Command followHop(int fromNote, int toNote) {
+        String directPath = "CN" + fromNote + "-CN" + toNote;
+        if (PathRepository.getInstance().hasPath(directPath)) {
+            return AutoBuilder.followPath(PathRepository.getInstance().getPath(directPath, FieldState.getInstance().onRedAlliance()));
+        }
+
+        int step = toNote > fromNote ? 1 : -1;
+        List<Command> hops = new ArrayList<>();
+        for (int note = fromNote; note != toNote; note += step) {
+            hops.add(AutoBuilder.followPath(PathRepository.getInstance().getPath("CN" + note + "-CN" + (note + step), FieldState.getInstance().onRedAlliance())));
+        }
+        return Commands.sequence(hops.toArray(Command[]::new));
+    }
+
+    /**
+     * @return Where the path from the center line to this note ends, on our side of the field
+     */
+    private Pose2d getPickupPose(int note) {
+        PathPlannerPath path = PathRepository.getInstance().getPath("CL-" + autoLane + "-CN" + note, FieldState.getInstance().onRedAlliance());
+        List<PathPoint> points = path.getAllPathPoints();
+        return new Pose2d(points.get(points.size() - 1).position, path.getGoalEndState().getRotation());
+    }
+
+    private static boolean noteExists(int note) {
+        return FieldState.getInstance().getCenterNotesExist()[note - 1];
+    }
+}
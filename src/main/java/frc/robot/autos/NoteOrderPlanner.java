@@ -0,0 +1,204 @@
+package frc.robot.autos;
+
+import frc.lib.bluecrew.pathplanner.PathRepository;
+import frc.lib.bluecrew.pathplanner.TravelTimeMatrix;
+import frc.robot.Constants;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class is singleton, and works out the fastest order to grab notes in, using how long the Path Planner paths
+ * between them take to follow (see {@link PathRepository#getDurationSeconds}).
+ * <p>
+ * An order is scored by the sum of the times each note gets scored, counted from the start of the grabs, so the
+ * quickest notes are scored first and are the most likely to make it before autonomous ends. For center notes, each
+ * note is also a fallback if the note before it is gone, so the time to hop from each note to the next is added,
+ * weighted by the chance that the note was already taken.
+ * <p>
+ * Every order is searched depth first. A branch is dropped as soon as it can't beat the best order found so far, or
+ * when it reaches the same set of notes ending at the same note as an earlier branch, but slower. Plans are kept, so
+ * each one is only searched once.
+ */
+public final class NoteOrderPlanner implements Constants.AutoConstants {
+
+    private static NoteOrderPlanner instance;
+
+    private final Map<String, int[]> plans = new ConcurrentHashMap<>();
+
+    // How long it takes to drive between each pair of center notes, only made once the paths and travel times are loaded
+    private volatile double[][] centerNoteHopTable;
+
+    private NoteOrderPlanner() {}
+
+    public static synchronized NoteOrderPlanner getInstance() {
+        if (instance == null) {
+            instance = new NoteOrderPlanner();
+        }
+        return instance;
+    }
+
+    /**
+     * @param numOfNotesToGet How many starting notes to get
+     * @param autoLane The autonomous lane
+     * @return The number of each starting note to get, in the order to get them
+     */
+    public int[] planStartNotes(int numOfNotesToGet, String autoLane) {
+        if (numOfNotesToGet < 1 || numOfNotesToGet > NUM_OF_START_NOTES) return new int[0];
+
+        return plans.computeIfAbsent("Start-" + autoLane + "-" + numOfNotesToGet, key -> {
+            double[] tripSeconds = new double[NUM_OF_START_NOTES];
+            for (int i = 0; i < NUM_OF_START_NOTES; i++) {
+                int note = i + 1;
+                tripSeconds[i] = pathSeconds("Sp-" + autoLane + "-SN" + note) + AUTO_SIM_INTAKE_SECONDS
+                        + pathSeconds("SN" + note + "-" + autoLane + "-Sp") + AUTO_SIM_SHOT_SECONDS;
+            }
+            // We go back to the speaker after every starting note, so there's nothing to hop between
+            return new Search(tripSeconds, new double[NUM_OF_START_NOTES][NUM_OF_START_NOTES], 0, numOfNotesToGet).run();
+        }).clone();
+    }
+
+    /**
+     * @param numOfNotesToGet How many center notes to get
+     * @param autoLane The autonomous lane
+     * @return The number of each center note to get, in the order to get them
+     */
+    public int[] planCenterNotes(int numOfNotesToGet, String autoLane) {
+        if (numOfNotesToGet < 1 || numOfNotesToGet > NUM_OF_CENTER_NOTES) return new int[0];
+
+        return plans.computeIfAbsent("Center-" + autoLane + "-" + numOfNotesToGet, key -> {
+            double[] tripSeconds = new double[NUM_OF_CENTER_NOTES];
+            double[][] hopSeconds = new double[NUM_OF_CENTER_NOTES][NUM_OF_CENTER_NOTES];
+            for (int i = 0; i < NUM_OF_CENTER_NOTES; i++) {
+                int note = i + 1;
+                // There's no path from each note back to the center line, so use the path out to it
+                double toNote = pathSeconds("CL-" + autoLane + "-CN" + note);
+                tripSeconds[i] = pathSeconds("Sp-" + autoLane + "-CL") + toNote + AUTO_SIM_INTAKE_SECONDS
+                        + toNote + pathSeconds("CL-" + autoLane + "-Sp") + AUTO_SIM_SHOT_SECONDS;
+                for (int j = 0; j < NUM_OF_CENTER_NOTES; j++) {
+                    if (i != j) hopSeconds[i][j] = AUTO_SIM_MISSING_NOTE_SECONDS + getCenterNoteHopSeconds(note, j + 1);
+                }
+            }
+            return new Search(tripSeconds, hopSeconds, AUTO_SIM_CENTER_NOTE_TAKEN_PROBABILITY, numOfNotesToGet).run();
+        }).clone();
+    }
+
+    /**
+     * Looks up how long it takes to drive between two center notes. The table is made the first time this is called,
+     * from the {@link TravelTimeMatrix} if it was loaded, otherwise from the hop paths
+     *
+     * @param from The number of the center note we're at
+     * @param to The number of the center note to go to
+     * @return How long it takes to drive from one center note to the other
+     */
+    public double getCenterNoteHopSeconds(int from, int to) {
+        double[][] hopTable = centerNoteHopTable;
+        if (hopTable == null) {
+            hopTable = new double[NUM_OF_CENTER_NOTES][NUM_OF_CENTER_NOTES];
+            for (int i = 0; i < NUM_OF_CENTER_NOTES; i++) {
+                for (int j = 0; j < NUM_OF_CENTER_NOTES; j++) {
+                    if (i == j) continue;
+                    double seconds = TravelTimeMatrix.getInstance().getSeconds("CN" + (i + 1), "CN" + (j + 1));
+                    hopTable[i][j] = Double.isNaN(seconds) ? centerNoteHopPathSeconds(i + 1, j + 1) : seconds;
+                }
+            }
+            centerNoteHopTable = hopTable;
+        }
+        return hopTable[from - 1][to - 1];
+    }
+
+    /**
+     * There are only paths between neighboring center notes, so longer hops go through the notes in between
+     */
+    private static double centerNoteHopPathSeconds(int from, int to) {
+        String direct = "CN" + from + "-CN" + to;
+        if (PathRepository.getInstance().hasPath(direct)) return pathSeconds(direct);
+
+        double seconds = 0;
+        int step = to > from ? 1 : -1;
+        for (int note = from; note != to; note += step) {
+            seconds += pathSeconds("CN" + note + "-CN" + (note + step));
+        }
+        return seconds;
+    }
+
+    private static double pathSeconds(String pathName) {
+        return PathRepository.getInstance().getDurationSeconds(pathName);
+    }
+
+    /**
+     * One depth first search for the best order of a set of notes
+     */
+    private static final class Search {
+        private final double[] tripSeconds;
+        private final double[][] hopSeconds;
+        private final double missingProbability;
+        private final int numOfNotesToGet;
+        private final double fastestTripSeconds;
+
+        // The cheapest way found so far to get each set of notes (as a bitmask), ending at each note
+        private final double[][] bestCostToState;
+
+        private final int[] order;
+        private int[] bestOrder;
+        private double bestCost = Double.POSITIVE_INFINITY;
+
+        private Search(double[] tripSeconds, double[][] hopSeconds, double missingProbability, int numOfNotesToGet) {
+            this.tripSeconds = tripSeconds;
+            this.hopSeconds = hopSeconds;
+            this.missingProbability = missingProbability;
+            this.numOfNotesToGet = numOfNotesToGet;
+            fastestTripSeconds = Arrays.stream(tripSeconds).min().orElse(0);
+
+            bestCostToState = new double[1 << tripSeconds.length][tripSeconds.length];
+            for (double[] costs : bestCostToState) {
+                Arrays.fill(costs, Double.POSITIVE_INFINITY);
+            }
+            order = new int[numOfNotesToGet];
+        }
+
+        private int[] run() {
+            search(0, 0, -1, 0, 0);
+            return bestOrder;
+        }
+
+        /**
+         * @param depth How many notes are in the order so far
+         * @param visited The notes in the order so far, as a bitmask
+         * @param last The index of the last note in the order, or -1 if there isn't one
+         * @param elapsed How long it takes to get every note in the order so far
+         * @param cost The sum of the times each note in the order so far is scored, plus the expected hop times
+         */
+        private void search(int depth, int visited, int last, double elapsed, double cost) {
+            if (depth == numOfNotesToGet) {
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestOrder = order.clone();
+                }
+                return;
+            }
+
+            // Even if every note left took the fastest trip, they'd each be scored at least this late
+            double lowerBound = cost;
+            for (int i = 1; i <= numOfNotesToGet - depth; i++) {
+                lowerBound += elapsed + i * fastestTripSeconds;
+            }
+            if (lowerBound >= bestCost) return;
+
+            for (int next = 0; next < tripSeconds.length; next++) {
+                if ((visited & (1 << next)) != 0) continue;
+
+                double nextElapsed = elapsed + tripSeconds[next];
+                double nextCost = cost + nextElapsed + (last < 0 ? 0 : missingProbability * hopSeconds[last][next]);
+
+                int nextVisited = visited | (1 << next);
+                if (nextCost >= bestCostToState[nextVisited][next]) continue;
+                bestCostToState[nextVisited][next] = nextCost;
+
+                order[depth] = next + 1;
+                search(depth + 1, nextVisited, next, nextElapsed, nextCost);
+            }
+        }
+    }
+}
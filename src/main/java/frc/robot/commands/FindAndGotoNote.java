@@ -9,20 +9,16 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import frc.lib.bluecrew.util.FieldState;
 import frc.lib.bluecrew.util.RobotState;
+import frc.robot.subsystems.NoteCameraIO;
 import frc.robot.subsystems.PoseEstimator;
 import frc.robot.subsystems.VisionModule;
 import frc.robot.subsystems.swervedrive.SwerveDrive;
-import org.photonvision.PhotonCamera;
-import org.photonvision.targeting.PhotonPipelineResult;
-import org.photonvision.targeting.PhotonTrackedTarget;
-
-import java.util.List;
 
 
 public class FindAndGotoNote extends Command {
     private final SwerveDrive swerveDrive;
 
-    private PhotonCamera notesCamera;
+    private final NoteCameraIO.NoteCameraIOInputs noteTargets;
 
     private boolean finished = false;
 
@@ -33,7 +29,7 @@ public class FindAndGotoNote extends Command {
         // addRequirements() method (which takes a vararg of Subsystem)
         addRequirements(this.swerveDrive);
 
-        notesCamera = VisionModule.getInstance().getNotesIndexerCamera();
+        noteTargets = VisionModule.getInstance().getNoteTargets();
 
         finished = false;
     }
@@ -56,21 +52,17 @@ public class FindAndGotoNote extends Command {
 
 //        System.out.println("... Looking for a note.");
 
-        PhotonPipelineResult pipelineResult = notesCamera.getLatestResult();
-
         // Check if limelight has found a target
-        if (pipelineResult.hasTargets()) {
+        if (noteTargets.hasTargets()) {
 
 //            System.out.println("Note found!  ---------------");
-            PhotonTrackedTarget target = getBestTarget(pipelineResult);
+            int target = getBestTarget(noteTargets);
+            double targetPitch = noteTargets.pitches[target];
+            double targetYaw = noteTargets.yaws[target];
 //            DataLogManager.log("Note Found! -------");
 
-            if (target == null) {
-//                DataLogManager.log("Note Not Actually found");
-            }
-
-//            DataLogManager.log("Pitch: " + target.getPitch());
-//            DataLogManager.log("Yaw: " + target.getYaw());
+//            DataLogManager.log("Pitch: " + targetPitch);
+//            DataLogManager.log("Yaw: " + targetYaw);
 //            DataLogManager.log("Heading: " + heading);
 
             /*
@@ -96,7 +88,7 @@ public class FindAndGotoNote extends Command {
 
             // Don't go for the note if we're in autonomous, we're getting a center note,
             // and the pitch to the target is greater than we expect
-            if (!(RobotState.getInstance().isAutonomous() && target.getPitch() > 17 &&
+            if (!(RobotState.getInstance().isAutonomous() && targetPitch > 17 &&
                     ((PoseEstimator.getInstance().getPose().getX() > 6 && !FieldState.getInstance().onRedAlliance()) ||
                             (PoseEstimator.getInstance().getPose().getX() < 10 && FieldState.getInstance().onRedAlliance()))) || DriverStation.isTeleop()) {
 
@@ -105,22 +97,22 @@ public class FindAndGotoNote extends Command {
                 RobotState.getInstance().setNoteIsAvailable(true);
 
                 // TODO: Remove 3 degree offset once note is being centered / shooter is centered
-                neededRotation = target.getYaw()+3;
+                neededRotation = targetYaw+3;
                 double angleOffset = Math.abs(neededRotation);
 
-                if (target.getPitch() < -20 && angleOffset > 10) {
+                if (targetPitch < -20 && angleOffset > 10) {
                     // back up if note is well off center and we are close to it
                     neededSpeed = -0.15;
 //                    DataLogManager.log("back up if note is well off center and we are close to it");
-                } else if (target.getPitch() < -15 && angleOffset > 10) {
+                } else if (targetPitch < -15 && angleOffset > 10) {
                     // slow down forward movement if note is well off center and we are close to it
                     neededSpeed = 0.05;
 //                    DataLogManager.log("slow down forward movement if note is well off center and we are close to it");
-                } else if (target.getPitch() < -27) {
+                } else if (targetPitch < -27) {
 //                System.out.println("Note is at intake.");
                     neededSpeed = 0.02;
 //                    DataLogManager.log("Note Is at Intake");
-                } else if (target.getPitch() < 0) {
+                } else if (targetPitch < 0) {
 //                System.out.println("Note is within a foot");
 //                    DataLogManager.log("Note Is Within A foot");
                     neededSpeed = 0.24;
@@ -128,7 +120,7 @@ public class FindAndGotoNote extends Command {
 //                        DataLogManager.log("Note Is Close To Center");
                         neededSpeed += 0.1;
                     }
-                } else if (target.getPitch() < 15) {
+                } else if (targetPitch < 15) {
 //                System.out.println("Note is within 3 feet");
 //                    DataLogManager.log("Note Is Within 3 feet");
                     neededSpeed = 0.35;
@@ -136,7 +128,7 @@ public class FindAndGotoNote extends Command {
                         neededSpeed += 0.1;
 //                        DataLogManager.log("Note Is Close To Center");
                     }
-                } else if (target.getPitch() > 15) {
+                } else if (targetPitch > 15) {
 //                System.out.println("Note is beyond 3 feet");
 //                    DataLogManager.log("Note Is Beyond 3 Feet");
                     neededSpeed = 0.49;
@@ -164,7 +156,7 @@ public class FindAndGotoNote extends Command {
 
         }
         else {
-//            DataLogManager.log("No Note in view. Time Stamp: " + pipelineResult.getTimestampSeconds());
+//            DataLogManager.log("No Note in view.");
             neededSpeed = 0.0;
             neededRotation = 0.0;
             // blink the blinkin
@@ -221,31 +213,27 @@ public class FindAndGotoNote extends Command {
         swerveDrive.setHoldHeading(swerveDrive.getHeading());
     }
 
-    private PhotonTrackedTarget getBestTarget(PhotonPipelineResult pipelineResult) {
+    /**
+     * @return The index of the note to go for in the note camera inputs, or -1 if there aren't any
+     */
+    private int getBestTarget(NoteCameraIO.NoteCameraIOInputs noteTargets) {
 
-        if(!pipelineResult.hasTargets())
-            return null;
+        if(!noteTargets.hasTargets())
+            return -1;
 
-        PhotonTrackedTarget bestPitch = null;
-        PhotonTrackedTarget bestYaw = null;
-        List<PhotonTrackedTarget> targets = pipelineResult.getTargets();
-        for(PhotonTrackedTarget t: targets) {
-            if(bestPitch == null) {
+        int bestPitch = 0;
+        int bestYaw = 0;
+        for(int t = 1; t < noteTargets.targetCount; t++) {
+            if (noteTargets.pitches[t] < noteTargets.pitches[bestPitch]) {
                 bestPitch = t;
-                bestYaw = t;
             }
-            else {
-                if (t.getPitch() < bestPitch.getPitch()) {
-                    bestPitch = t;
-                }
-                if(Math.abs(t.getYaw()) < Math.abs(bestYaw.getYaw())) {
-                    bestYaw = t;
-                }
+            if(Math.abs(noteTargets.yaws[t]) < Math.abs(noteTargets.yaws[bestYaw])) {
+                bestYaw = t;
             }
         }
 
         // identify and return the note that has the least yaw, unless another one is considerably closer
-        if(Math.abs(bestPitch.getPitch() - bestYaw.getPitch()) > 12)
+        if(Math.abs(noteTargets.pitches[bestPitch] - noteTargets.pitches[bestYaw]) > 12)
             return  bestPitch;
 
         return bestYaw;
@@ -1,63 +1,79 @@
 package frc.robot.commands;
 
+import edu.wpi.first.math.filter.LinearFilter;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Translation3d;
-import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.lib.bluecrew.util.FieldState;
+import frc.robot.Constants;
 import frc.robot.subsystems.PoseEstimator;
 import frc.robot.subsystems.noteplayer.NotePlayerSubsystem;
+import frc.robot.subsystems.noteplayer.ShotSolver;
 import frc.robot.subsystems.swervedrive.SwerveDrive;
 
-public class PrepForShooting extends Command {
+public class PrepForShooting extends Command implements Constants.NotePlayerConstants {
 
     private final SwerveDrive swerveDrive;
     private final NotePlayerSubsystem notePlayerSubsystem;
-    private Translation3d adjustedSpeakerCoords;
+    private final ShotSolver shotSolver;
 
-    private final InterpolatingDoubleTreeMap shooterAngleInterpolator;
-    private final InterpolatingDoubleTreeMap shooterSpeedInterpolator;
+    // The acceleration is the change in velocity between loops, which is noisy, so it's smoothed
+    private final LinearFilter accelerationXFilter = LinearFilter.singlePoleIIR(SHOT_ACCELERATION_FILTER_SECONDS, TimedRobot.kDefaultPeriod);
+    private final LinearFilter accelerationYFilter = LinearFilter.singlePoleIIR(SHOT_ACCELERATION_FILTER_SECONDS, TimedRobot.kDefaultPeriod);
+    private double lastVelocityX;
+    private double lastVelocityY;
+    private double lastTimestamp;
 
     public PrepForShooting(SwerveDrive swerveDrive, NotePlayerSubsystem notePlayerSubsystem) {
         this.swerveDrive = swerveDrive;
         this.notePlayerSubsystem = notePlayerSubsystem;
 
-        adjustedSpeakerCoords = FieldState.getInstance().getActualSpeakerCoords();
-
-        shooterSpeedInterpolator = notePlayerSubsystem.getSpeedInterpolator();
-        shooterAngleInterpolator = notePlayerSubsystem.getAngleInterpolator();
+        shotSolver = new ShotSolver(notePlayerSubsystem::getShotGrid);
     }
 
     @Override
     public void initialize() {
         swerveDrive.setFaceSpeaker(true);
+
+        ChassisSpeeds fieldRelativeSpeeds = swerveDrive.getFieldRelativeSpeeds();
+        lastVelocityX = fieldRelativeSpeeds.vxMetersPerSecond;
+        lastVelocityY = fieldRelativeSpeeds.vyMetersPerSecond;
+        lastTimestamp = Timer.getFPGATimestamp();
+        accelerationXFilter.reset();
+        accelerationYFilter.reset();
     }
 
     @Override
     public void execute() {
-        ChassisSpeeds swerveSpeeds = swerveDrive.getFieldRelativeSpeeds();
-        double distanceToTarget = PoseEstimator.getInstance().getPose().getTranslation().getDistance(adjustedSpeakerCoords.toTranslation2d());
-
-        for (int i = 0; i < 10; i++) {
-            distanceToTarget = PoseEstimator.getInstance().getPose().getTranslation().getDistance(adjustedSpeakerCoords.toTranslation2d());
-
-            double time = distanceToTarget / shooterSpeedInterpolator.get(distanceToTarget);
-
-            Translation2d positionChange =
-                    new Translation2d(swerveSpeeds.vxMetersPerSecond * time,
-                            swerveSpeeds.vyMetersPerSecond * time);
-
-            adjustedSpeakerCoords =
-                    FieldState.getInstance().getSpeakerCoords().minus(
-                            new Translation3d(positionChange.getX(), positionChange.getY(), 0)
-                    );
+        Translation2d robotPosition = PoseEstimator.getInstance().getPose().getTranslation();
+        ChassisSpeeds fieldRelativeSpeeds = swerveDrive.getFieldRelativeSpeeds();
+
+        double timestamp = Timer.getFPGATimestamp();
+        double dt = timestamp - lastTimestamp;
+        double accelerationX = 0;
+        double accelerationY = 0;
+        if (dt > 1E-3) {
+            accelerationX = accelerationXFilter.calculate((fieldRelativeSpeeds.vxMetersPerSecond - lastVelocityX) / dt);
+            accelerationY = accelerationYFilter.calculate((fieldRelativeSpeeds.vyMetersPerSecond - lastVelocityY) / dt);
         }
+        lastVelocityX = fieldRelativeSpeeds.vxMetersPerSecond;
+        lastVelocityY = fieldRelativeSpeeds.vyMetersPerSecond;
+        lastTimestamp = timestamp;
+
+        Translation3d speakerCoords = FieldState.getInstance().getActualSpeakerCoords();
+        shotSolver.solve(robotPosition.getX(), robotPosition.getY(),
+                fieldRelativeSpeeds.vxMetersPerSecond, fieldRelativeSpeeds.vyMetersPerSecond,
+                accelerationX, accelerationY, notePlayerSubsystem.getArm().getShooterDegrees(),
+                speakerCoords.getX(), speakerCoords.getY());
 
-        notePlayerSubsystem.getArm().rotateToDegrees(shooterAngleInterpolator.get(distanceToTarget));
-        notePlayerSubsystem.getShooter().spinMetersPerSecond(shooterSpeedInterpolator.get(distanceToTarget));
+        notePlayerSubsystem.getArm().rotateToDegrees(shotSolver.getArmAngleDegrees());
+        notePlayerSubsystem.getShooter().spinMetersPerSecond(shotSolver.getShooterSpeed());
 
-        FieldState.getInstance().setSpeakerCoords(adjustedSpeakerCoords);
+        // The drive faces whatever the speaker coords are, so point it at the solved aim point
+        FieldState.getInstance().setSpeakerCoords(new Translation3d(shotSolver.getAimX(), shotSolver.getAimY(), speakerCoords.getZ()));
     }
 
     @Override
@@ -3,15 +3,15 @@ package frc.robot.commands;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.subsystems.NoteCameraIO;
 import frc.robot.subsystems.VisionModule;
 import frc.robot.subsystems.swervedrive.SwerveDrive;
-import org.photonvision.PhotonCamera;
 
 
 public class demoturn extends Command {
 
     private SwerveDrive swerveDrive;
-    private PhotonCamera noteCamera = VisionModule.getInstance().getNotesIndexerCamera();
+    private NoteCameraIO.NoteCameraIOInputs noteTargets = VisionModule.getInstance().getNoteTargets();
 
     public demoturn(SwerveDrive swerveDrive) {
         // each subsystem used by the command must be passed into the
@@ -33,7 +33,7 @@ public class demoturn extends Command {
     @Override
     public boolean isFinished() {
         // TODO: Make this return true when this Command no longer needs to run execute()
-        return noteCamera.getLatestResult().hasTargets();
+        return noteTargets.hasTargets();
     }
 
     @Override
@@ -69,7 +69,7 @@ public class BlinkinSubsystem extends SubsystemBase  implements Constants.Misc,
                                 case READY ->
                                         blinkinOutput.set(DARK_GREEN);
                                 case UNREADY ->
-                                        blinkinOutput.set(BLUE_GREEN);
+                                        blinkinOutput.set(rs.getSecondsUntilShooterReady() < SHOOTER_READY_SOON_SECONDS ? LIME : BLUE_GREEN);
                             }
                         }
                     }
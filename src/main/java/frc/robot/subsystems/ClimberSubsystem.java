@@ -1,5 +1,7 @@
 package frc.robot.subsystems;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.controls.Follower;
@@ -14,21 +16,31 @@ import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.wpilibj.I2C;
 import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.Servo;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.bluecrew.util.CANSignalManager;
+import frc.lib.bluecrew.util.LoopProfiler;
+import frc.lib.bluecrew.util.Telemetry;
+import frc.lib.bluecrew.util.Telemetry.Verbosity;
 import frc.robot.Constants;
 
 /**
  *
  */
-public class ClimberSubsystem extends SubsystemBase implements Constants.ElevatorConstants {
+public class ClimberSubsystem extends SubsystemBase implements Constants.ElevatorConstants, Constants.CANSignalFrequencies {
 
     private final TalonFX motor1 = new TalonFX(ELEVATOR_MOTOR_1_ID);
     private final TalonFX motor2 = new TalonFX(ELEVATOR_MOTOR_2_ID);
 
+    /* Status signals, refreshed together once per loop */
+    private final StatusSignal<Double> positionSignal = motor1.getPosition();
+    private final StatusSignal<Double> velocitySignal = motor1.getVelocity();
+    private final StatusSignal<Double> supplyCurrentSignal = motor1.getSupplyCurrent();
+    private final StatusSignal<Double> closedLoopErrorSignal = motor1.getClosedLoopError();
+    private final StatusSignal<Double> closedLoopOutputSignal = motor1.getClosedLoopOutput();
+
     private VelocityVoltage climberVelocity = new VelocityVoltage(0);
 
     private SimpleMotorFeedforward climberFeedForward = new SimpleMotorFeedforward(elevatorKS, elevatorKV, elevatorKA);
@@ -47,6 +59,23 @@ public class ClimberSubsystem extends SubsystemBase implements Constants.Elevato
 
     private final AHRS navX;
 
+    private final LoopProfiler.Section periodicSection = LoopProfiler.getInstance().getSection("ClimberSubsystem.periodic");
+
+    /* Telemetry */
+    private final Telemetry.BooleanSignal onChainTelemetry = Telemetry.getInstance().getBooleanSignal("Climber On Chain", Verbosity.COMPETITION);
+    private final Telemetry.DoubleSignal feedforwardTelemetry = Telemetry.getInstance().getDoubleSignal("Climber Feedforward", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal currentTelemetry = Telemetry.getInstance().getDoubleSignal("Climber Current", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal setPositionTelemetry = Telemetry.getInstance().getDoubleSignal("Climber Set Position", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal positionTelemetry = Telemetry.getInstance().getDoubleSignal("Climber Position", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal outputTelemetry = Telemetry.getInstance().getDoubleSignal("Climber Output", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal speedTelemetry = Telemetry.getInstance().getDoubleSignal("Climber Speed", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal closedLoopErrorTelemetry = Telemetry.getInstance().getDoubleSignal("Climber Closed Loop Error", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal servoAngleTelemetry = Telemetry.getInstance().getDoubleSignal("Servo angle", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal altitudeTelemetry = Telemetry.getInstance().getDoubleSignal("Altitude", Verbosity.DEBUG);
+    private final Telemetry.BooleanSignal altitudeValidTelemetry = Telemetry.getInstance().getBooleanSignal("Altitude Valid", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal zAccelTelemetry = Telemetry.getInstance().getDoubleSignal("Z accel", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal zDisplacementTelemetry = Telemetry.getInstance().getDoubleSignal("Z displacement", Verbosity.DEBUG);
+
     private ClimberSubsystem() {
         motor1.clearStickyFaults();
         motor2.clearStickyFaults();
@@ -78,6 +107,14 @@ public class ClimberSubsystem extends SubsystemBase implements Constants.Elevato
         motor2.getConfigurator().apply(climberConfig);
         motor2.setControl(new Follower(ELEVATOR_MOTOR_1_ID, false));
 
+        CANSignalManager.getInstance().register(motor1, CONTROL_SIGNAL_FREQUENCY,
+                positionSignal, velocitySignal, supplyCurrentSignal,
+                closedLoopErrorSignal, closedLoopOutputSignal);
+        // The follower needs these from the leader to keep following it
+        CANSignalManager.getInstance().register(motor1, FOLLOWER_SIGNAL_FREQUENCY,
+                motor1.getDutyCycle(), motor1.getMotorVoltage(), motor1.getTorqueCurrent());
+        CANSignalManager.getInstance().register(motor2, DIAGNOSTIC_SIGNAL_FREQUENCY);
+
         navX = NavX.getNavX();
 
         elevatorStopper = new Servo(8);
@@ -90,11 +127,11 @@ public class ClimberSubsystem extends SubsystemBase implements Constants.Elevato
     }
 
     public double getClimberVelocity() {
-        return motor1.getVelocity().getValue().doubleValue();
+        return velocitySignal.getValueAsDouble();
     }
 
     public double getClimberPos() {
-        return motor1.getPosition().getValue();
+        return positionSignal.getValueAsDouble();
     }
 
     public double getSetPos() {
@@ -184,23 +221,28 @@ public class ClimberSubsystem extends SubsystemBase implements Constants.Elevato
 
     @Override
     public void periodic() {
+        periodicSection.start();
+
+        BaseStatusSignal.refreshAll(positionSignal, velocitySignal, supplyCurrentSignal, closedLoopErrorSignal, closedLoopOutputSignal);
+        double position = positionSignal.getValueAsDouble();
+
         // Update the set position while disabled
         if (RobotState.isDisabled()) {
-            climberPositionVoltage.Position = motor1.getPosition().getValue();
+            climberPositionVoltage.Position = position;
         }
 
         // Decide if we are climbing on the chain
         if (!climbingChain && climberPositionVoltage.Position == ELEVATOR_MOTOR_LOWER_LIMIT_POS &&
-                motor1.getSupplyCurrent().getValue() > 1.7 && motor1.getPosition().getValue() < 4 && motor1.getPosition().getValue() > 2 && motor1.getVelocity().getValue() < 0.1) {
+                supplyCurrentSignal.getValueAsDouble() > 1.7 && position < 4 && position > 2 && velocitySignal.getValueAsDouble() < 0.1) {
             climbingChain = true;
         }
-        else if (climberPositionVoltage.Position != ELEVATOR_MOTOR_LOWER_LIMIT_POS && motor1.getPosition().getValue() > 12) {
+        else if (climberPositionVoltage.Position != ELEVATOR_MOTOR_LOWER_LIMIT_POS && position > 12) {
             climbingChain = false;
         }
 
         if (climbingChain) {
             if (climberPositionVoltage.Position == ELEVATOR_MOTOR_LOWER_LIMIT_POS) {
-                climberPositionVoltage.FeedForward = -1.5 * MathUtil.clamp((Math.abs(motor1.getClosedLoopError().getValue())) * 100, 0, 10) / 10; //TODO: Tune this feedforward value (in volts)
+                climberPositionVoltage.FeedForward = -1.5 * MathUtil.clamp((Math.abs(closedLoopErrorSignal.getValueAsDouble())) * 100, 0, 10) / 10; //TODO: Tune this feedforward value (in volts)
             } else {
                 climberPositionVoltage.FeedForward = 0;//-12 * motor1.getClosedLoopError().getValue()/29;
             }
@@ -208,23 +250,23 @@ public class ClimberSubsystem extends SubsystemBase implements Constants.Elevato
             climberPositionVoltage.FeedForward = 0;
         }
 
-        SmartDashboard.putBoolean("Climber On Chain", climbingChain);
-        SmartDashboard.putNumber("Climber Feedforward", climberPositionVoltage.FeedForward);
-        SmartDashboard.putNumber("Climber Current", motor1.getSupplyCurrent().getValue());
-        SmartDashboard.putNumber("Climber Set Position", climberPositionVoltage.Position);
-        SmartDashboard.putNumber("Climber Position", motor1.getPosition().getValue());
-        SmartDashboard.putNumber("Climber Output", motor1.getClosedLoopOutput().getValue());
-        SmartDashboard.putNumber("Climber Speed", motor1.getVelocity().getValue());
-        SmartDashboard.putNumber("Climber Closed Loop Error", motor1.getClosedLoopError().getValue());
+        onChainTelemetry.set(climbingChain);
+        feedforwardTelemetry.set(climberPositionVoltage.FeedForward);
+        currentTelemetry.set(supplyCurrentSignal.getValueAsDouble());
+        setPositionTelemetry.set(climberPositionVoltage.Position);
+        positionTelemetry.set(position);
+        outputTelemetry.set(closedLoopOutputSignal.getValueAsDouble());
+        speedTelemetry.set(velocitySignal.getValueAsDouble());
+        closedLoopErrorTelemetry.set(closedLoopErrorSignal.getValueAsDouble());
 
-        SmartDashboard.putNumber("Servo angle", elevatorStopper.get());
+        servoAngleTelemetry.set(elevatorStopper.get());
 
-        SmartDashboard.putNumber("Altitude", navX.getAltitude());
-        SmartDashboard.putBoolean("Altitude Valid", navX.isAltitudeValid());
-        SmartDashboard.putNumber("Z accel", navX.getWorldLinearAccelZ());
-        SmartDashboard.putNumber("Z displacement", navX.getDisplacementZ());
+        altitudeTelemetry.set(navX.getAltitude());
+        altitudeValidTelemetry.set(navX.isAltitudeValid());
+        zAccelTelemetry.set(navX.getWorldLinearAccelZ());
+        zDisplacementTelemetry.set(navX.getDisplacementZ());
 
-        if (climbingChain && climberPositionVoltage.Position == ELEVATOR_MOTOR_UPPER_LIMIT_POS && motor1.getPosition().getValue() < 12) {
+        if (climbingChain && climberPositionVoltage.Position == ELEVATOR_MOTOR_UPPER_LIMIT_POS && position < 12) {
             climberVelocity.Velocity = 22;
             climberVelocity.FeedForward = -0.25;//climberFeedForward.calculate(climberVelocity.Velocity);
             motor1.setControl(climberVelocity);
@@ -232,5 +274,7 @@ public class ClimberSubsystem extends SubsystemBase implements Constants.Elevato
         } else {
             motor1.setControl(climberPositionVoltage);
         }
+
+        periodicSection.stop();
     }
 }
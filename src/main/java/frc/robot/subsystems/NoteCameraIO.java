@@ -0,0 +1,43 @@
+package frc.robot.subsystems;
+
+import frc.lib.bluecrew.replay.LoggableInputs;
+import frc.robot.Constants;
+
+/**
+ * The camera that looks for notes on the floor. The default methods do nothing, which is what replay uses,
+ * since the inputs come from the log instead
+ */
+public interface NoteCameraIO {
+
+    class NoteCameraIOInputs implements LoggableInputs, Constants.PhotonVision {
+        // Only the first targetCount pitches and yaws are valid
+        public int targetCount;
+        public final double[] pitches = new double[MAX_NOTE_TARGETS];
+        public final double[] yaws = new double[MAX_NOTE_TARGETS];
+
+        @Override
+        public int size() {
+            return 1 + 2 * MAX_NOTE_TARGETS;
+        }
+
+        @Override
+        public void toLog(double[] values) {
+            values[0] = targetCount;
+            System.arraycopy(pitches, 0, values, 1, MAX_NOTE_TARGETS);
+            System.arraycopy(yaws, 0, values, 1 + MAX_NOTE_TARGETS, MAX_NOTE_TARGETS);
+        }
+
+        @Override
+        public void fromLog(double[] values) {
+            targetCount = (int) values[0];
+            System.arraycopy(values, 1, pitches, 0, MAX_NOTE_TARGETS);
+            System.arraycopy(values, 1 + MAX_NOTE_TARGETS, yaws, 0, MAX_NOTE_TARGETS);
+        }
+
+        public boolean hasTargets() {
+            return targetCount > 0;
+        }
+    }
+
+    default void updateInputs(NoteCameraIOInputs inputs) {}
+}
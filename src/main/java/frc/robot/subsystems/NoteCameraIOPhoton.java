@@ -0,0 +1,37 @@
+package frc.robot.subsystems;
+
+import frc.robot.Constants;
+import org.photonvision.PhotonCamera;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.photonvision.targeting.PhotonTrackedTarget;
+
+import java.util.List;
+
+/**
+ * The {@link NoteCameraIO} for a PhotonVision camera running the note pipeline
+ */
+public class NoteCameraIOPhoton implements NoteCameraIO, Constants.PhotonVision {
+
+    private final PhotonCamera camera;
+
+    public NoteCameraIOPhoton(String cameraName) {
+        camera = new PhotonCamera(cameraName);
+    }
+
+    public PhotonCamera getCamera() {
+        return camera;
+    }
+
+    @Override
+    public void updateInputs(NoteCameraIOInputs inputs) {
+        PhotonPipelineResult result = camera.getLatestResult();
+        List<PhotonTrackedTarget> targets = result.getTargets();
+
+        // PhotonVision sorts the targets, so if there are too many we keep the best ones
+        inputs.targetCount = Math.min(targets.size(), MAX_NOTE_TARGETS);
+        for (int i = 0; i < inputs.targetCount; i++) {
+            inputs.pitches[i] = targets.get(i).getPitch();
+            inputs.yaws[i] = targets.get(i).getYaw();
+        }
+    }
+}
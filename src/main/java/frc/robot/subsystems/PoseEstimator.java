@@ -29,45 +29,38 @@ import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
-
-import java.util.Optional;
-
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.bluecrew.util.LoopProfiler;
+import frc.lib.bluecrew.util.StateLogger;
 import frc.robot.Constants;
-import org.photonvision.EstimatedRobotPose;
-import org.photonvision.PhotonCamera;
-import org.photonvision.PhotonPoseEstimator;
-import org.photonvision.PhotonPoseEstimator.PoseStrategy;
-import org.photonvision.targeting.PhotonPipelineResult;
 
 public final class PoseEstimator implements Constants.PhotonVision, Constants.Swerve {
 
-    private final PhotonCamera camera1;
-    private final PhotonCamera camera2;
-    private PhotonCamera currentCamera;
-    private PhotonPoseEstimator photonEstimator1;
-    private PhotonPoseEstimator photonEstimator2;
-    private PhotonPoseEstimator currentPhotonEstimator;
-
-    private double lastEstTimestamp = 0;
+    private final VisionModule visionModule;
 
     private final SwerveDrivePoseEstimator swervePoseEstimator;
 
+    // The latest estimated pose, so it can be read without waiting on the odometry thread
+    private volatile Pose2d latestPose = new Pose2d();
+
+    // Holds the newest measurements drained each loop when fusing all cameras
+    private final VisionMeasurement[] fusedMeasurements = new VisionMeasurement[MAX_VISION_MEASUREMENTS_PER_LOOP];
+
+    private final LoopProfiler.Section updateWithVisionSection = LoopProfiler.getInstance().getSection("PoseEstimator.updateWithVision");
+
+    private final int visionPoseLogEntry = StateLogger.getInstance().startStructEntry("Vision/FusedPose", Pose2d.struct, false);
+    // From the camera taking the frame to its pose being fused, in milliseconds
+    private final int visionLatencyLogEntry = StateLogger.getInstance().startEntry("Vision/FusedLatencyMs", "double");
+
     private static PoseEstimator instance;
 
     private PoseEstimator() {
-        camera1 = VisionModule.getInstance().getAprilTagsFrontRightCamera();
-        camera2 = VisionModule.getInstance().getAprilTagsRearLeftCamera();
-        currentCamera = camera1;
-
-        photonEstimator1 = VisionModule.getInstance().getPhotonEstimatorFrontRight();
-        photonEstimator2 = VisionModule.getInstance().getPhotonEstimatorRearLeft();
-        currentPhotonEstimator = photonEstimator1;
+        visionModule = VisionModule.getInstance();
 
         var stateStdDevs = VecBuilder.fill(0.1, 0.1, 0.1); // TODO: Tune the standard deviations
         var visionStdDevs = VecBuilder.fill(1, 1, 1);
@@ -94,101 +87,32 @@ public final class PoseEstimator implements Constants.PhotonVision, Constants.Sw
         return instance;
     }
 
-    /*
-    private void setCamera(PhotonCamera camera) {
-        currentCamera = camera;
-    }
-    
-    private void setPhotonEstimator(Transform3d robotToCamera) {
-        photonEstimator = new PhotonPoseEstimator(
-                tagLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, currentCamera, robotToCamera
-        );
-    }
-    */
-
-    private void useBestCamera() {
-        var cam1Targets = camera1.getLatestResult().getTargets();
-        var cam2Targets = camera2.getLatestResult().getTargets();
-        int cam1numTags = 0;
-        int cam2numTags = 0;
-        double cam1AvgDist = 0;
-        double cam2AvgDist = 0;
-
-        Transform3d robotToCamera;
-
-        for (var tgt : cam1Targets) {
-            var tagPose = currentPhotonEstimator.getFieldTags().getTagPose(tgt.getFiducialId());
-            if (tagPose.isEmpty()) continue;
-            cam1numTags++;
-            cam1AvgDist +=
-                    tagPose.get().toPose2d().getTranslation().getDistance(swervePoseEstimator.getEstimatedPosition().getTranslation());
-        }
-        cam1AvgDist /= cam1numTags;
-        for (var tgt : cam2Targets) {
-            var tagPose = currentPhotonEstimator.getFieldTags().getTagPose(tgt.getFiducialId());
-            if (tagPose.isEmpty()) continue;
-            cam2numTags++;
-            cam2AvgDist +=
-                    tagPose.get().toPose2d().getTranslation().getDistance(swervePoseEstimator.getEstimatedPosition().getTranslation());
-        }
-        cam2AvgDist /= cam2numTags;
-
-        if (cam2numTags > cam1numTags) {
-            currentCamera = camera2;
-            currentPhotonEstimator = photonEstimator2;
-        } else if (cam2AvgDist < cam1AvgDist && cam2numTags == cam1numTags) {
-            currentCamera = camera2;
-            currentPhotonEstimator = photonEstimator2;
-        } else  {
-            currentCamera = camera1;
-            currentPhotonEstimator = photonEstimator1;
-        }
-    }
-
-    public PhotonPipelineResult getLatestResult() {
-        return currentCamera.getLatestResult();
-    }
-
     /**
-     * The latest estimated robot pose on the field from vision data. This may be empty. This should
-     * only be called once per loop.
+     * The standard deviations of a vision estimated pose, for use with
+     * {@link edu.wpi.first.math.estimator.SwerveDrivePoseEstimator SwerveDrivePoseEstimator}.
+     * This is called from the vision thread, so it must not touch the estimator.
      *
-     * @return An {@link EstimatedRobotPose} with an estimated pose, estimate timestamp, and targets
-     *     used for estimation.
+     * @param numTags The number of known AprilTags used for the estimate
+     * @param avgDist The average distance from the estimated pose to those tags, in meters
      */
-    public Optional<EstimatedRobotPose> getEstimatedVisionGlobalPose() {
-        useBestCamera();
-        var visionEst = currentPhotonEstimator.update();
-        double latestTimestamp = currentCamera.getLatestResult().getTimestampSeconds();
-        boolean newResult = Math.abs(latestTimestamp - lastEstTimestamp) > 1e-5;
-        if (newResult) lastEstTimestamp = latestTimestamp;
-        return visionEst;
+    public static Matrix<N3, N1> getVisionEstimationStdDevs(int numTags, double avgDist) {
+        return getVisionEstimationStdDevs(numTags, avgDist, DriverStation.isDisabled());
     }
 
     /**
-     * The standard deviations of the estimated pose from {@link #getEstimatedVisionGlobalPose()}, for use
-     * with {@link edu.wpi.first.math.estimator.SwerveDrivePoseEstimator SwerveDrivePoseEstimator}.
-     * This should only be used when there are targets visible.
+     * Same as {@link #getVisionEstimationStdDevs(int, double)}, but with the robot's enabled state passed in,
+     * so it doesn't need the HAL
      *
-     * @param estimatedPose The estimated pose to guess standard deviations for.
+     * @param numTags The number of known AprilTags used for the estimate
+     * @param avgDist The average distance from the estimated pose to those tags, in meters
+     * @param disabled Whether the robot is disabled, vision is trusted completely while disabled
      */
-    public Matrix<N3, N1> getVisionEstimationStdDevs(Pose2d estimatedPose) {
-        if (DriverStation.isDisabled()) {
+    public static Matrix<N3, N1> getVisionEstimationStdDevs(int numTags, double avgDist, boolean disabled) {
+        if (disabled) {
             return VecBuilder.fill(0.001d, 0.001d, 0.001d);
         }
         var estStdDevs = singleTagStdDevs;
-        var targets = getLatestResult().getTargets();
-        int numTags = 0;
-        double avgDist = 0;
-        for (var tgt : targets) {
-            var tagPose = currentPhotonEstimator.getFieldTags().getTagPose(tgt.getFiducialId());
-            if (tagPose.isEmpty()) continue;
-            numTags++;
-            avgDist +=
-                    tagPose.get().toPose2d().getTranslation().getDistance(estimatedPose.getTranslation());
-        }
         if (numTags == 0) return estStdDevs;
-        avgDist /= numTags;
         // Decrease std devs if multiple targets are visible
         if (numTags > 1) estStdDevs = multiTagStdDevs;
         // Increase std devs based on (average) distance
@@ -202,8 +126,8 @@ public final class PoseEstimator implements Constants.PhotonVision, Constants.Sw
     /**
      * @return The {@link Pose2d} of the robot according to the {@link SwerveDrivePoseEstimator}
      */
-    public synchronized Pose2d getPose() {
-        return swervePoseEstimator.getEstimatedPosition();
+    public Pose2d getPose() {
+        return latestPose;
     }
 
     /**
@@ -211,6 +135,7 @@ public final class PoseEstimator implements Constants.PhotonVision, Constants.Sw
      */
     public synchronized void setPose(Rotation2d gyroYaw, SwerveModulePosition[] modulePositions, Pose2d pose) {
         swervePoseEstimator.resetPosition(gyroYaw, modulePositions, pose);
+        latestPose = swervePoseEstimator.getEstimatedPosition();
     }
 
     /**
@@ -220,19 +145,92 @@ public final class PoseEstimator implements Constants.PhotonVision, Constants.Sw
      * @param modulePositions The {@link SwerveModulePosition} of each swerve module in an array
      */
     public synchronized void updateSwerveEstimator(Rotation2d gyroYaw, SwerveModulePosition[] modulePositions) {
-        swervePoseEstimator.update(gyroYaw, modulePositions);
+        latestPose = swervePoseEstimator.update(gyroYaw, modulePositions);
     }
 
+    /**
+     * Update the {@link SwerveDrivePoseEstimator} with the yaw and module positions, measured at the given time
+     *
+     * @param timestampSeconds The time the positions were measured at, in seconds
+     * @param gyroYaw The yaw of the gyro as a {@link Rotation2d}
+     * @param modulePositions The {@link SwerveModulePosition} of each swerve module in an array
+     */
+    public synchronized void updateSwerveEstimator(double timestampSeconds, Rotation2d gyroYaw, SwerveModulePosition[] modulePositions) {
+        latestPose = swervePoseEstimator.updateWithTime(timestampSeconds, gyroYaw, modulePositions);
+    }
+
+    /**
+     * Adds the vision measurements the vision thread has queued up since the last loop.
+     * The PnP solving all happens on the vision thread, so this only drains the queue.
+     */
     public synchronized void updateWithVision() {
-        var visionEst = getEstimatedVisionGlobalPose();
-        visionEst.ifPresent(
-                est -> {
-                    var estPose = est.estimatedPose.toPose2d();
-                    // Change our trust in the measurement based on the tags we can see
-                    var estStdDevs = getVisionEstimationStdDevs(estPose);
-
-                    swervePoseEstimator.addVisionMeasurement(
-                            est.estimatedPose.toPose2d(), est.timestampSeconds, estStdDevs);
-                });
+        updateWithVisionSection.start();
+
+        if (FUSE_ALL_CAMERAS) {
+            fuseAllVisionMeasurements();
+        } else {
+            useBestVisionMeasurement();
+        }
+
+        updateWithVisionSection.stop();
+    }
+
+    /**
+     * Adds every queued measurement from every camera, each weighted by its own standard deviations,
+     * up to {@value MAX_VISION_MEASUREMENTS_PER_LOOP} of the newest ones per loop
+     */
+    private void fuseAllVisionMeasurements() {
+        int count = 0;
+        VisionMeasurement measurement;
+        while ((measurement = visionModule.pollVisionMeasurement()) != null) {
+            fusedMeasurements[count % MAX_VISION_MEASUREMENTS_PER_LOOP] = measurement;
+            count++;
+        }
+
+        // Add them oldest first, so the estimator replays its history in order
+        for (int i = Math.max(0, count - MAX_VISION_MEASUREMENTS_PER_LOOP); i < count; i++) {
+            int index = i % MAX_VISION_MEASUREMENTS_PER_LOOP;
+            measurement = fusedMeasurements[index];
+            swervePoseEstimator.addVisionMeasurement(measurement.getPose(), measurement.getTimestampSeconds(), measurement.getStdDevs());
+            logVisionMeasurement(measurement);
+            fusedMeasurements[index] = null;
+        }
+        latestPose = swervePoseEstimator.getEstimatedPosition();
+    }
+
+    /**
+     * Adds only the measurement with the most tags (or the closest tags, if they saw the same number)
+     */
+    private void useBestVisionMeasurement() {
+        VisionMeasurement best = null;
+        VisionMeasurement measurement;
+        while ((measurement = visionModule.pollVisionMeasurement()) != null) {
+            if (best == null || measurement.isBetterThan(best)) {
+                best = measurement;
+            }
+        }
+
+        if (best != null) {
+            swervePoseEstimator.addVisionMeasurement(best.getPose(), best.getTimestampSeconds(), best.getStdDevs());
+            logVisionMeasurement(best);
+            latestPose = swervePoseEstimator.getEstimatedPosition();
+        }
+    }
+
+    /**
+     * Records a fused vision measurement, at the time its camera frame was taken
+     */
+    private void logVisionMeasurement(VisionMeasurement measurement) {
+        StateLogger.getInstance().recordPose2d(visionPoseLogEntry, measurement.getPose(),
+                (long) (measurement.getTimestampSeconds() * 1E6));
+        StateLogger.getInstance().recordDouble(visionLatencyLogEntry,
+                (Timer.getFPGATimestamp() - measurement.getTimestampSeconds()) * 1E3);
+    }
+
+    /**
+     * Throws away any queued vision measurements, for when we aren't using vision
+     */
+    public void discardVisionMeasurements() {
+        visionModule.clearVisionMeasurements();
     }
 }
\ No newline at end of file
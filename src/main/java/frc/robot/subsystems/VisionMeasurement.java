@@ -0,0 +1,64 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+
+/**
+ * A single vision pose measurement, produced by the vision thread and consumed by the {@link PoseEstimator}
+ */
+public final class VisionMeasurement {
+
+    private final Pose2d pose;
+    private final double timestampSeconds;
+    private final Matrix<N3, N1> stdDevs;
+    private final int numTags;
+    private final double avgTagDistance;
+
+    /**
+     * @param pose The robot {@link Pose2d} estimated from the camera frame
+     * @param timestampSeconds The timestamp of the camera frame, in seconds
+     * @param stdDevs The standard deviations to trust this measurement with
+     * @param numTags The number of known AprilTags used for the estimate
+     * @param avgTagDistance The average distance from the estimated pose to the tags used, in meters
+     */
+    public VisionMeasurement(Pose2d pose, double timestampSeconds, Matrix<N3, N1> stdDevs, int numTags, double avgTagDistance) {
+        this.pose = pose;
+        this.timestampSeconds = timestampSeconds;
+        this.stdDevs = stdDevs;
+        this.numTags = numTags;
+        this.avgTagDistance = avgTagDistance;
+    }
+
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    public double getTimestampSeconds() {
+        return timestampSeconds;
+    }
+
+    public Matrix<N3, N1> getStdDevs() {
+        return stdDevs;
+    }
+
+    public int getNumTags() {
+        return numTags;
+    }
+
+    public double getAvgTagDistance() {
+        return avgTagDistance;
+    }
+
+    /**
+     * @param other The measurement to compare against
+     * @return True if this measurement saw more tags, or the same number of tags from closer
+     */
+    public boolean isBetterThan(VisionMeasurement other) {
+        if (numTags != other.numTags) {
+            return numTags > other.numTags;
+        }
+        return avgTagDistance < other.avgTagDistance;
+    }
+}
@@ -37,7 +37,10 @@ import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.util.datalog.DataLog;
 import edu.wpi.first.util.datalog.DataLogEntry;
 import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
 import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotBase;
+import frc.lib.bluecrew.replay.InputLogger;
 import frc.robot.Constants;
 import org.photonvision.EstimatedRobotPose;
 import org.photonvision.PhotonCamera;
@@ -46,19 +49,38 @@ import org.photonvision.PhotonPoseEstimator.PoseStrategy;
 import org.photonvision.targeting.PhotonPipelineResult;
 
 import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public final class VisionModule implements Constants.PhotonVision, Constants.Swerve {
 
     private final PhotonCamera aprilTagsFrontRight;
     private final PhotonCamera aprilTagsRearLeft;
-    private PhotonPoseEstimator photonEstimatorFrontRight;
-    private PhotonPoseEstimator photonEstimatorRearLeft;
+    // These get swapped out by the main thread while disabled, and read by the vision thread
+    private volatile PhotonPoseEstimator photonEstimatorFrontRight;
+    private volatile PhotonPoseEstimator photonEstimatorRearLeft;
 
+    // Measurements handed from the vision thread to the main loop
+    private final ConcurrentLinkedQueue<VisionMeasurement> visionMeasurements = new ConcurrentLinkedQueue<>();
+    private double lastFrontRightTimestamp = 0;
+    private double lastRearLeftTimestamp = 0;
 
-    private final PhotonCamera notesIndexer;
-    private PhotonPipelineResult lastNoteResult = null;
+
+    private final NoteCameraIO noteCameraIO;
+    private final NoteCameraIO.NoteCameraIOInputs noteCameraInputs = new NoteCameraIO.NoteCameraIOInputs();
+    private final InputLogger.InputsEntry noteCameraInputsEntry = InputLogger.getInstance().getInputsEntry("NoteCamera", noteCameraInputs);
     private boolean startTrackingNotes = false;
 
+    // Each logged measurement is the timestamp, x, y, rotation in radians, tag count, and average tag distance
+    private static final int VISION_SAMPLE_SIZE = 6;
+    private final InputLogger.SampleEntry visionSampleEntry = InputLogger.getInstance().getSampleEntry("Vision", VISION_SAMPLE_SIZE);
+    private final double[] visionSample = new double[VISION_SAMPLE_SIZE];
+
+
+    // Only set in simulation
+    private final VisionSim visionSim;
+
+    // How long the vision thread takes to estimate a pose from each frame. DataLog entries are safe to use from any thread
+    private final DoubleLogEntry frameProcessingLog = new DoubleLogEntry(DataLogManager.getLog(), "Vision/FrameProcessingMs");
 
     private static VisionModule instance;
 
@@ -79,7 +101,14 @@ public final class VisionModule implements Constants.PhotonVision, Constants.Swe
                         tagLayout, PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR, aprilTagsFrontRight, ROBOT_TO_TAG_FRONT_RIGHT_CAM_POS);
         photonEstimatorFrontRight.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
 
-        notesIndexer = new PhotonCamera(NOTES_INDEXER_CAMERA_NAME);
+        if (InputLogger.isReplay()) {
+            noteCameraIO = new NoteCameraIO() {};
+            visionSim = null;
+        } else {
+            NoteCameraIOPhoton noteCamera = new NoteCameraIOPhoton(NOTES_INDEXER_CAMERA_NAME);
+            noteCameraIO = noteCamera;
+            visionSim = RobotBase.isSimulation() ? new VisionSim(aprilTagsFrontRight, aprilTagsRearLeft, noteCamera.getCamera()) : null;
+        }
     }
 
     public static synchronized VisionModule getInstance() {
@@ -117,16 +146,30 @@ public final class VisionModule implements Constants.PhotonVision, Constants.Swe
         return photonEstimatorRearLeft;
     }
 
-    public PhotonCamera getNotesIndexerCamera() {
-        return notesIndexer;
+    /**
+     * Reads the latest targets from the note camera. This should be called once per loop, before the commands run
+     */
+    public void periodic() {
+        noteCameraIO.updateInputs(noteCameraInputs);
+        noteCameraInputsEntry.process();
     }
 
-    public PhotonPipelineResult getLastNoteResult() {
-        return lastNoteResult;
+    /**
+     * Renders new frames for the simulated cameras. This does nothing outside of simulation
+     *
+     * @param robotPose Where the simulated robot actually is on the field
+     */
+    public void simulationPeriodic(Pose2d robotPose) {
+        if (visionSim != null) {
+            visionSim.update(robotPose);
+        }
     }
 
-    protected void setLastNoteResult(PhotonPipelineResult lastNoteResult) {
-        this.lastNoteResult = lastNoteResult;
+    /**
+     * @return The notes the note camera saw as of the last {@link #periodic()}
+     */
+    public NoteCameraIO.NoteCameraIOInputs getNoteTargets() {
+        return noteCameraInputs;
     }
 
     public boolean isStartTrackingNotes() {
@@ -137,7 +180,90 @@ public final class VisionModule implements Constants.PhotonVision, Constants.Swe
         this.startTrackingNotes = startTrackingNotes;
     }
 
+    /**
+     * @return The oldest {@link VisionMeasurement} that hasn't been used yet, or null if there are none
+     */
+    public VisionMeasurement pollVisionMeasurement() {
+        if (InputLogger.isReplay()) {
+            return pollReplayedVisionMeasurement();
+        }
+
+        VisionMeasurement measurement = visionMeasurements.poll();
+        if (measurement != null) {
+            visionSample[0] = measurement.getTimestampSeconds();
+            visionSample[1] = measurement.getPose().getX();
+            visionSample[2] = measurement.getPose().getY();
+            visionSample[3] = measurement.getPose().getRotation().getRadians();
+            visionSample[4] = measurement.getNumTags();
+            visionSample[5] = measurement.getAvgTagDistance();
+            visionSampleEntry.record(visionSample);
+        }
+        return measurement;
+    }
+
+    /**
+     * The std devs aren't logged, they're worked out again from the tags, so changes to them can be tried out in replay
+     *
+     * @return The next measurement the main loop used during this loop of the replayed log, or null if there are no more
+     */
+    private VisionMeasurement pollReplayedVisionMeasurement() {
+        double[] sample = visionSampleEntry.pollReplayed();
+        if (sample == null) return null;
+
+        int numTags = (int) sample[4];
+        return new VisionMeasurement(new Pose2d(sample[1], sample[2], Rotation2d.fromRadians(sample[3])), sample[0],
+                PoseEstimator.getVisionEstimationStdDevs(numTags, sample[5]), numTags, sample[5]);
+    }
+
+    /**
+     * Throws away every {@link VisionMeasurement} that hasn't been used yet
+     */
+    public void clearVisionMeasurements() {
+        visionMeasurements.clear();
+    }
+
+    /**
+     * Runs the pose estimation for any new frames from the AprilTag cameras, and queues up the results
+     * for the main loop. This is called from the vision thread (see {@link VisionPipelineRunnable})
+     */
     public void trackPipelineResults() {
+        lastFrontRightTimestamp = processAprilTagResult(aprilTagsFrontRight, photonEstimatorFrontRight, lastFrontRightTimestamp);
+        lastRearLeftTimestamp = processAprilTagResult(aprilTagsRearLeft, photonEstimatorRearLeft, lastRearLeftTimestamp);
+    }
+
+    /**
+     * @param camera The {@link PhotonCamera} to get the latest result from
+     * @param estimator The {@link PhotonPoseEstimator} for that camera
+     * @param lastTimestamp The timestamp of the last frame we processed from this camera
+     * @return The timestamp of the latest frame from this camera
+     */
+    private double processAprilTagResult(PhotonCamera camera, PhotonPoseEstimator estimator, double lastTimestamp) {
+        PhotonPipelineResult result = camera.getLatestResult();
+        double latestTimestamp = result.getTimestampSeconds();
+
+        // Skip frames we've already seen, or that don't have any tags in them
+        if (Math.abs(latestTimestamp - lastTimestamp) < 1e-5 || !result.hasTargets()) return latestTimestamp;
+
+        long frameStartNanos = System.nanoTime();
+        estimator.update(result).ifPresent(est -> {
+            Pose2d estPose = est.estimatedPose.toPose2d();
+            int numTags = 0;
+            double avgDist = 0;
+            for (var tgt : est.targetsUsed) {
+                var tagPose = estimator.getFieldTags().getTagPose(tgt.getFiducialId());
+                if (tagPose.isEmpty()) continue;
+                numTags++;
+                avgDist += tagPose.get().toPose2d().getTranslation().getDistance(estPose.getTranslation());
+            }
+            if (numTags > 0) avgDist /= numTags;
+
+            // Change our trust in the measurement based on the tags we can see
+            visionMeasurements.offer(new VisionMeasurement(estPose, est.timestampSeconds,
+                    PoseEstimator.getVisionEstimationStdDevs(numTags, avgDist), numTags, avgDist));
+        });
+        frameProcessingLog.append((System.nanoTime() - frameStartNanos) / 1E6);
+
+        return latestTimestamp;
     }
 
 }
\ No newline at end of file
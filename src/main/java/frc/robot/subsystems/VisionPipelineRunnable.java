@@ -1,8 +1,8 @@
 package frc.robot.subsystems;
 
-import frc.robot.subsystems.VisionModule;
+import frc.robot.Constants;
 
-public class VisionPipelineRunnable implements Runnable {
+public class VisionPipelineRunnable implements Runnable, Constants.PhotonVision {
 
     VisionModule visionModule;
 
@@ -16,7 +16,7 @@ public class VisionPipelineRunnable implements Runnable {
         while(true) {
             visionModule.trackPipelineResults();
             try {
-                Thread.sleep(10); // we don't expect to ever get here, actually
+                Thread.sleep(VISION_THREAD_PERIOD_MS);
             } catch (InterruptedException e) {
                 throw new RuntimeException(e);
             }
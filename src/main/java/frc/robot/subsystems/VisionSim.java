@@ -0,0 +1,75 @@
+package frc.robot.subsystems;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants;
+import org.photonvision.PhotonCamera;
+import org.photonvision.simulation.PhotonCameraSim;
+import org.photonvision.simulation.SimCameraProperties;
+import org.photonvision.simulation.TargetModel;
+import org.photonvision.simulation.VisionSystemSim;
+import org.photonvision.simulation.VisionTargetSim;
+
+/**
+ * Simulates the cameras in {@link VisionModule}: the AprilTag cameras see the tags in {@link #tagLayout},
+ * and the indexer camera sees the notes at their starting positions. The simulated cameras publish
+ * through the same {@link PhotonCamera}s the robot code reads, so the whole vision pipeline runs like it does on the robot.
+ * The frame rate, latency, and noise are set in {@link Constants.PhotonVision}
+ */
+public class VisionSim implements Constants.PhotonVision, Constants.FieldCoordinates {
+
+    private static final String NOTE_TARGET_TYPE = "note";
+    // A note is a ring 14 inches across and 2 inches thick, which is close enough to a flat box for the camera
+    private static final TargetModel NOTE_MODEL =
+            new TargetModel(Units.inchesToMeters(14), Units.inchesToMeters(14), Units.inchesToMeters(2));
+
+    private final VisionSystemSim visionSystemSim = new VisionSystemSim("main");
+
+    public VisionSim(PhotonCamera frontRightCamera, PhotonCamera rearLeftCamera, PhotonCamera noteCamera) {
+        visionSystemSim.addAprilTags(tagLayout);
+
+        visionSystemSim.addCamera(createCameraSim(frontRightCamera, SIM_TAG_CAMERA_FPS), ROBOT_TO_TAG_FRONT_RIGHT_CAM_POS);
+        visionSystemSim.addCamera(createCameraSim(rearLeftCamera, SIM_TAG_CAMERA_FPS), ROBOT_TO_TAG_REAR_LEFT_CAM_POS);
+        visionSystemSim.addCamera(createCameraSim(noteCamera, SIM_NOTE_CAMERA_FPS), ROBOT_TO_NOTE_CAM_POS);
+
+        resetNotes();
+    }
+
+    private static PhotonCameraSim createCameraSim(PhotonCamera camera, double fps) {
+        SimCameraProperties properties = new SimCameraProperties();
+        properties.setCalibration(SIM_CAMERA_WIDTH_PX, SIM_CAMERA_HEIGHT_PX, Rotation2d.fromDegrees(SIM_CAMERA_DIAGONAL_FOV_DEGREES));
+        properties.setCalibError(SIM_CAMERA_AVG_ERROR_PX, SIM_CAMERA_ERROR_STD_DEV_PX);
+        properties.setFPS(fps);
+        properties.setAvgLatencyMs(SIM_CAMERA_AVG_LATENCY_MS);
+        properties.setLatencyStdDevMs(SIM_CAMERA_LATENCY_STD_DEV_MS);
+
+        PhotonCameraSim cameraSim = new PhotonCameraSim(camera, properties);
+        cameraSim.enableRawStream(SIM_CAMERA_STREAMS_ENABLED);
+        cameraSim.enableProcessedStream(SIM_CAMERA_STREAMS_ENABLED);
+        return cameraSim;
+    }
+
+    /**
+     * Puts every note back at its starting position
+     */
+    public void resetNotes() {
+        visionSystemSim.removeVisionTargets(NOTE_TARGET_TYPE);
+        for (Translation2d notePosition : FIELD_NOTE_POSITIONS) {
+            Pose3d notePose = new Pose3d(notePosition.getX(), notePosition.getY(), Units.inchesToMeters(1), new Rotation3d());
+            visionSystemSim.addVisionTargets(NOTE_TARGET_TYPE, new VisionTargetSim(notePose, NOTE_MODEL));
+        }
+    }
+
+    /**
+     * Renders a frame from each camera that is due for one, from where the robot actually is
+     *
+     * @param robotPose Where the simulated robot is on the field
+     */
+    public void update(Pose2d robotPose) {
+        visionSystemSim.update(robotPose);
+    }
+}
@@ -0,0 +1,54 @@
+package frc.robot.subsystems.noteplayer;
+
+import frc.lib.bluecrew.replay.LoggableInputs;
+
+/**
+ * The hardware under the {@link ArmModule}. The default methods do nothing, which is what replay uses,
+ * since the inputs come from the log instead
+ */
+public interface ArmIO {
+
+    class ArmIOInputs implements LoggableInputs {
+        public double absolutePositionRotations; // Of the shooter, from the CANcoder
+        public double motorPositionRotations; // From the left motor's encoder
+        public double appliedOutput;
+        public double currentAmps;
+
+        @Override
+        public int size() {
+            return 4;
+        }
+
+        @Override
+        public void toLog(double[] values) {
+            values[0] = absolutePositionRotations;
+            values[1] = motorPositionRotations;
+            values[2] = appliedOutput;
+            values[3] = currentAmps;
+        }
+
+        @Override
+        public void fromLog(double[] values) {
+            absolutePositionRotations = values[0];
+            motorPositionRotations = values[1];
+            appliedOutput = values[2];
+            currentAmps = values[3];
+        }
+    }
+
+    default void updateInputs(ArmIOInputs inputs) {}
+
+    /**
+     * Runs the arm motors in closed loop position control
+     *
+     * @param motorRotations The position to go to, in motor rotations
+     * @param pidSlot The PID slot to use
+     * @param feedForwardPercent The arbitrary feed forward, as a percent output
+     */
+    default void setPosition(double motorRotations, int pidSlot, double feedForwardPercent) {}
+
+    /**
+     * @param motorRotations What the motor encoder should read as its current position
+     */
+    default void setMotorEncoderPosition(double motorRotations) {}
+}
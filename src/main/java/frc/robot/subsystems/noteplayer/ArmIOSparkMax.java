@@ -0,0 +1,95 @@
+package frc.robot.subsystems.noteplayer;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.revrobotics.*;
+
+import frc.lib.bluecrew.util.CANSignalManager;
+import frc.robot.Constants;
+
+/**
+ * The {@link ArmIO} for the two SparkMax arm motors and the CANcoder on the shooter pivot
+ */
+public class ArmIOSparkMax implements ArmIO, Constants.NotePlayerConstants, Constants.CANSignalFrequencies {
+
+    private final CANSparkMax leftMotor;
+    private final CANSparkMax rightMotor;
+    private final SparkPIDController leftController;
+    private final SparkRelativeEncoder leftEncoder;
+
+    private final CANcoder armCANcoder;
+    private final StatusSignal<Double> absolutePositionSignal;
+
+    public ArmIOSparkMax() {
+        // Set up the motors:
+        leftMotor = new CANSparkMax(ARM_LEFT_MOTOR_ID, CANSparkLowLevel.MotorType.kBrushless);
+        rightMotor = new CANSparkMax(ARM_RIGHT_MOTOR_ID, CANSparkLowLevel.MotorType.kBrushless);
+
+        // Set up the PID controller
+        leftController = leftMotor.getPIDController();
+
+        // Set up the encoder
+        leftEncoder = (SparkRelativeEncoder) leftMotor.getEncoder();
+
+        // Set up the CANcoder
+        armCANcoder = new CANcoder(ARM_CAN_CODER_ID);
+        absolutePositionSignal = armCANcoder.getAbsolutePosition();
+        CANSignalManager.getInstance().register(armCANcoder, CONTROL_SIGNAL_FREQUENCY, absolutePositionSignal);
+
+        // Configure the motors
+        configureMotors();
+    }
+
+    @Override
+    public void updateInputs(ArmIOInputs inputs) {
+        inputs.absolutePositionRotations = absolutePositionSignal.refresh().getValueAsDouble();
+        inputs.motorPositionRotations = leftEncoder.getPosition();
+        inputs.appliedOutput = leftMotor.getAppliedOutput();
+        inputs.currentAmps = leftMotor.getOutputCurrent();
+    }
+
+    @Override
+    public void setPosition(double motorRotations, int pidSlot, double feedForwardPercent) {
+        leftController.setReference(motorRotations,
+                CANSparkBase.ControlType.kPosition, pidSlot, feedForwardPercent, SparkPIDController.ArbFFUnits.kPercentOut);
+    }
+
+    @Override
+    public void setMotorEncoderPosition(double motorRotations) {
+        leftEncoder.setPosition(motorRotations);
+    }
+
+    private void configureMotors() {
+
+        leftMotor.restoreFactoryDefaults();
+        rightMotor.restoreFactoryDefaults();
+
+        // PID Control loop parameters:
+        leftController.setP(ArmPID.p, ARM_PID_SLOT);
+        leftController.setI(ArmPID.i, ARM_PID_SLOT);
+        leftController.setD(ArmPID.d, ARM_PID_SLOT);
+        leftController.setIZone(ArmPID.iZ, ARM_PID_SLOT);
+        leftController.setOutputRange(ArmPID.minOutput, ArmPID.maxOutput, ARM_PID_SLOT);
+
+        // Voltage Compensation and current limits
+        leftMotor.enableVoltageCompensation(ARM_NOMINAL_VOLTAGE);
+        leftMotor.setSmartCurrentLimit(40);
+        rightMotor.setSmartCurrentLimit(40);
+
+        // Set soft limits
+        leftMotor.setSoftLimit(CANSparkBase.SoftLimitDirection.kForward, ARM_MAX_LIMIT);
+        leftMotor.setSoftLimit(CANSparkBase.SoftLimitDirection.kReverse, ARM_MIN_LIMIT);
+        leftMotor.enableSoftLimit(CANSparkBase.SoftLimitDirection.kForward, true);
+        leftMotor.enableSoftLimit(CANSparkBase.SoftLimitDirection.kReverse, true);
+
+        rightMotor.follow(leftMotor, true);
+
+        // Keep the breaks on so the arm doesn't slam down when disabled
+        leftMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
+        rightMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
+
+        // Save the settings on the controllers, so they stick through power cycles
+        leftMotor.burnFlash();
+        rightMotor.burnFlash();
+    }
+}
@@ -4,61 +4,63 @@
 
 package frc.robot.subsystems.noteplayer;
 
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.revrobotics.*;
-
-
+import edu.wpi.first.math.controller.ArmFeedforward;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.Encoder;
 import edu.wpi.first.wpilibj.RobotState;
+import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardComponent;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardContainer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.lib.bluecrew.replay.InputLogger;
 import frc.robot.Constants;
 
+/**
+ * The arm that angles the shooter. It moves along a trapezoid motion profile to wherever it's told to go, with a
+ * feed forward for gravity and for the profile's velocity and acceleration, so it gets there as fast as the profile
+ * allows without overshooting. Positions are in motor rotations, unless they say they're in shooter degrees.
+ */
 public class ArmModule implements Constants.NotePlayerConstants {
 
-    private final CANSparkMax leftMotor;
-    private final CANSparkMax rightMotor;
-    private final SparkPIDController leftController;
-    private final SparkRelativeEncoder leftEncoder;
-    private final SparkPIDController rightController;
-    private final SparkRelativeEncoder rightEncoder;
+    private final ArmIO io;
+    private final ArmIO.ArmIOInputs inputs = new ArmIO.ArmIOInputs();
+    private final InputLogger.InputsEntry inputsEntry = InputLogger.getInstance().getInputsEntry("Arm", inputs);
 
-    private final double gravityFF = 0.07;
+    private final TrapezoidProfile profile = new TrapezoidProfile(new TrapezoidProfile.Constraints(ARM_MAX_VELOCITY, ARM_MAX_ACCELERATION));
+    private final ArmFeedforward feedforward = new ArmFeedforward(ARM_KS, ARM_KG, ARM_KV, ARM_KA);
 
     private Double setPosition;
+    // Where the profile told the arm to be last loop, and the goal it's heading to
+    private TrapezoidProfile.State profileSetpoint;
+    private final TrapezoidProfile.State profileGoal = new TrapezoidProfile.State();
+    private double profileSecondsRemaining = 0;
 
     private double percentOut = 0;
 
     private double pseudoBottomLimit = -10;
     private double pseudoTopLimit = 5;
 
-    private final CANcoder armCANcoder;
-
-    public ArmModule() {
-        // Set up the motors:
-        leftMotor = new CANSparkMax(ARM_LEFT_MOTOR_ID, CANSparkLowLevel.MotorType.kBrushless);
-        rightMotor = new CANSparkMax(ARM_RIGHT_MOTOR_ID, CANSparkLowLevel.MotorType.kBrushless);
-
-        // Set up the PID controllers
-        leftController = leftMotor.getPIDController();
-        rightController = leftMotor.getPIDController();
-
-        // Set up the encoders
-        leftEncoder = (SparkRelativeEncoder) leftMotor.getEncoder();
-        rightEncoder = (SparkRelativeEncoder) rightMotor.getEncoder();
+    public ArmModule(ArmIO io) {
+        this.io = io;
 
-        // Set up the CANcoder
-        armCANcoder = new CANcoder(ARM_CAN_CODER_ID);
-        // Configure the motors
-        configureMotors();
+        updateInputs();
 
         // Reset the motor's integrated encoder based on the CANcoder
         resetMotorEncoderToAbsolute();
 
-        setPosition = leftEncoder.getPosition();
+        setPosition = inputs.motorPositionRotations;
+        profileSetpoint = new TrapezoidProfile.State(inputs.motorPositionRotations, 0);
+    }
+
+    /**
+     * Reads the arm inputs. This is called at the start of {@link #periodic()},
+     * everything else in this class reads the values from the last update
+     */
+    private void updateInputs() {
+        io.updateInputs(inputs);
+        inputsEntry.process();
     }
 
     public double shooterDegreesToMotorRotations(double degrees) {
@@ -69,7 +71,7 @@ public class ArmModule implements Constants.NotePlayerConstants {
     public void resetMotorEncoderToAbsolute() {
         double newPosition = getShooterDegrees() * ARM_MOTOR_ROTATIONS_PER_SHOOTER_DEGREE;
 
-        leftEncoder.setPosition(newPosition);
+        io.setMotorEncoderPosition(newPosition);
     }
 
     public void rotateToDegrees(double degrees) {
@@ -81,7 +83,14 @@ public class ArmModule implements Constants.NotePlayerConstants {
     }
 
     public double getShooterDegrees() {
-        return armCANcoder.getAbsolutePosition().getValue() * 360;
+        return inputs.absolutePositionRotations * 360;
+    }
+
+    /**
+     * @return The position the arm is trying to get to, in motor rotations, or NaN if it doesn't have one
+     */
+    public double getSetPosition() {
+        return setPosition == null ? Double.NaN : setPosition;
     }
 
     public void rotatePercentOut(double percentOut) {
@@ -89,7 +98,7 @@ public class ArmModule implements Constants.NotePlayerConstants {
     }
 
     public void setPseudoLimits(double position) {
-        double currentPosition = leftEncoder.getPosition();
+        double currentPosition = inputs.motorPositionRotations;
         if (currentPosition > position) {
             pseudoTopLimit = currentPosition;
             pseudoBottomLimit = position;
@@ -104,79 +113,40 @@ public class ArmModule implements Constants.NotePlayerConstants {
      * @return True if the position of the arm is within {@value ARM_POSITION_ERROR_TOLERANCE} degrees of the setpoint
      */
     public boolean isAtSetPosition() {
-        return leftEncoder.getPosition() >= setPosition - 0.75
-                && leftEncoder.getPosition() <= setPosition + 0.45;
+        return inputs.motorPositionRotations >= setPosition - 0.75
+                && inputs.motorPositionRotations <= setPosition + 0.45;
     }
 
-    private void configureMotors() {
-
-        leftMotor.restoreFactoryDefaults();
-        rightMotor.restoreFactoryDefaults();
-
-        // PID Control loop parameters:
-        leftController.setP(ArmUpwardsHighGravityPID.p, 0);
-        leftController.setI(ArmUpwardsHighGravityPID.i, 0);
-        leftController.setD(ArmUpwardsHighGravityPID.d, 0);
-        leftController.setIZone(ArmUpwardsHighGravityPID.iZ, 0);
-        leftController.setOutputRange(ArmUpwardsHighGravityPID.minOutput, ArmUpwardsHighGravityPID.maxOutput, 0);
-
-        leftController.setP(ArmUpwardsLowGravityPID.p, 1);
-        leftController.setI(ArmUpwardsLowGravityPID.i, 1);
-        leftController.setD(ArmUpwardsLowGravityPID.d, 1);
-        leftController.setIZone(ArmUpwardsLowGravityPID.iZ, 1);
-        leftController.setOutputRange(ArmUpwardsLowGravityPID.minOutput, ArmUpwardsLowGravityPID.maxOutput, 1);
-
-        leftController.setP(ArmDownwardsHighGravityPID.p, 2);
-        leftController.setI(ArmDownwardsHighGravityPID.i, 2);
-        leftController.setD(ArmDownwardsHighGravityPID.d, 2);
-        leftController.setIZone(ArmDownwardsHighGravityPID.iZ, 2);
-        leftController.setOutputRange(ArmDownwardsHighGravityPID.minOutput, ArmDownwardsHighGravityPID.maxOutput, 2);
-
-        leftController.setP(ArmDownwardsLowGravityPID.p, 3);
-        leftController.setI(ArmDownwardsLowGravityPID.i, 3);
-        leftController.setD(ArmDownwardsLowGravityPID.d, 3);
-        leftController.setIZone(ArmDownwardsLowGravityPID.iZ, 3);
-        leftController.setOutputRange(ArmDownwardsLowGravityPID.minOutput, ArmDownwardsLowGravityPID.maxOutput, 3);
-
-        // Voltage Compensation and current limits
-        leftMotor.enableVoltageCompensation(12);
-        leftMotor.setSmartCurrentLimit(40);
-        rightMotor.setSmartCurrentLimit(40);
-
-        // Set soft limits
-        leftMotor.setSoftLimit(CANSparkBase.SoftLimitDirection.kForward, ARM_MAX_LIMIT);
-        leftMotor.setSoftLimit(CANSparkBase.SoftLimitDirection.kReverse, ARM_MIN_LIMIT);
-        leftMotor.enableSoftLimit(CANSparkBase.SoftLimitDirection.kForward, true);
-        leftMotor.enableSoftLimit(CANSparkBase.SoftLimitDirection.kReverse, true);
-
-        rightMotor.follow(leftMotor, true);
-
-        // Keep the breaks on so the arm doesn't slam down when disabled
-        leftMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
-        rightMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
-
-        // Save the settings on the controllers, so they stick through power cycles
-        leftMotor.burnFlash();
-        rightMotor.burnFlash();
+    /**
+     * @return How long until the arm is at its set position, in seconds. That's however long is left on its motion
+     * profile, plus {@link Constants.NotePlayerConstants#ARM_SETTLE_SECONDS} to catch up to the end of it
+     */
+    public double getSecondsToSetPosition() {
+        if (isAtSetPosition()) return 0;
+        return profileSecondsRemaining + ARM_SETTLE_SECONDS;
     }
 
     public void periodic() {
-        if (setPosition != null) { // TODO: add && !isAtSetPosition()
-            // Calculate feed forward based on angle to counteract gravity
-            double sineScalar = Math.sin(Math.toRadians(getShooterDegrees() - ARM_BALANCE_DEGREES));
-            double feedForward = gravityFF * sineScalar;
-            int pidSlot = getPidSlot(sineScalar);
+        updateInputs();
 
-            //System.out.println("Current Position: " + leftEncoder.getPosition() + ", Set Position: " + setPosition + ", Profile slot: " + pidSlot);
+        if (setPosition != null) {
+            profileGoal.position = setPosition;
+            TrapezoidProfile.State nextSetpoint = profile.calculate(TimedRobot.kDefaultPeriod, profileSetpoint, profileGoal);
+            double acceleration = (nextSetpoint.velocity - profileSetpoint.velocity) / TimedRobot.kDefaultPeriod;
+            // The total time is from where this step started
+            profileSecondsRemaining = Math.max(0, profile.totalTime() - TimedRobot.kDefaultPeriod);
+            profileSetpoint = nextSetpoint;
 
-            leftController.setReference(setPosition,
-                    CANSparkBase.ControlType.kPosition, pidSlot, feedForward, SparkPIDController.ArbFFUnits.kPercentOut);
+            // Gravity pulls hardest when the arm's center of gravity is straight out from the pivot
+            double gravityAngleRadians = Math.toRadians(getShooterDegrees() - ARM_COG_PERPENDICULAR_DEGREES);
+            double feedForwardVolts = feedforward.calculate(gravityAngleRadians, nextSetpoint.velocity, acceleration);
+
+            io.setPosition(nextSetpoint.position, ARM_PID_SLOT, feedForwardVolts / ARM_NOMINAL_VOLTAGE);
 //            SmartDashboard.putNumber("Arm Motor Position", leftEncoder.getPosition());
 //            SmartDashboard.putNumber("Arm Set Position", setPosition);
-//            SmartDashboard.putNumber("Arm Profile Slot", pidSlot);
 //            SmartDashboard.putNumber("Arm Motor Output", leftMotor.getAppliedOutput());
 //            SmartDashboard.putNumber("Arm Motor Current", leftMotor.getOutputCurrent());
-//            SmartDashboard.putNumber("Arm Feedforward", feedForward);
+//            SmartDashboard.putNumber("Arm Feedforward", feedForwardVolts);
 //            SmartDashboard.putNumber("Shooter Degrees", getShooterDegrees());
         }
 
@@ -191,6 +161,9 @@ public class ArmModule implements Constants.NotePlayerConstants {
         if (RobotState.isDisabled()) {
             resetMotorEncoderToAbsolute();
             setPosition = getShooterDegrees() * ARM_MOTOR_ROTATIONS_PER_SHOOTER_DEGREE;
+            // Start the next profile from where the arm actually is, standing still
+            profileSetpoint = new TrapezoidProfile.State(setPosition, 0);
+            profileSecondsRemaining = 0;
         }
         //System.out.println("Shooter Angle: " + getShooterDegrees());
 //        if (isAtSetPosition()) {
@@ -199,31 +172,4 @@ public class ArmModule implements Constants.NotePlayerConstants {
 //            System.out.println("Arm set position: " + setPosition + ", Actual: " + leftEncoder.getPosition() + ", Arm Degrees: " + getArmDegrees() * motorRotationsPerArmDegree);
 //        }
     }
-
-    private int getPidSlot(double sineScalar) {
-        int pidSlot;
-        double error = setPosition - leftEncoder.getPosition();
-        if (error < 0) {
-            if (sineScalar < 0) {
-                pidSlot = 1;
-            }
-            else if (sineScalar < 0.7) {
-                pidSlot = 3;
-            }
-            else {
-                pidSlot = 2;
-            }
-        } else {
-            if (sineScalar < 0) {
-                pidSlot = 3;
-            }
-            else if (sineScalar < 0.7) {
-                pidSlot = 1;
-            }
-            else {
-                pidSlot = 0;
-            }
-        }
-        return pidSlot;
-    }
 }
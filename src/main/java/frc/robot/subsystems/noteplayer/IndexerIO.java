@@ -0,0 +1,52 @@
+package frc.robot.subsystems.noteplayer;
+
+import frc.lib.bluecrew.replay.LoggableInputs;
+
+/**
+ * The hardware under the {@link IndexerModule}. The default methods do nothing, which is what replay uses,
+ * since the inputs come from the log instead
+ */
+public interface IndexerIO {
+
+    class IndexerIOInputs implements LoggableInputs {
+        public double encoderPositionRotations;
+        public boolean noteInIndexer;
+        public boolean limitSwitchPressed;
+        public boolean limitSwitchEnabled;
+
+        @Override
+        public int size() {
+            return 4;
+        }
+
+        @Override
+        public void toLog(double[] values) {
+            values[0] = encoderPositionRotations;
+            values[1] = noteInIndexer ? 1 : 0;
+            values[2] = limitSwitchPressed ? 1 : 0;
+            values[3] = limitSwitchEnabled ? 1 : 0;
+        }
+
+        @Override
+        public void fromLog(double[] values) {
+            encoderPositionRotations = values[0];
+            noteInIndexer = values[1] != 0;
+            limitSwitchPressed = values[2] != 0;
+            limitSwitchEnabled = values[3] != 0;
+        }
+    }
+
+    default void updateInputs(IndexerIOInputs inputs) {}
+
+    /**
+     * @param speed The percent output to run the indexer at
+     */
+    default void spin(double speed) {}
+
+    default void stop() {}
+
+    /**
+     * @param enabled Whether the forward limit switch should stop the indexer
+     */
+    default void setLimitSwitchEnabled(boolean enabled) {}
+}
@@ -0,0 +1,47 @@
+package frc.robot.subsystems.noteplayer;
+
+import com.revrobotics.*;
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.robot.Constants;
+
+/**
+ * The {@link IndexerIO} for the SparkMax indexer motor, its forward limit switch, and the indexer beam break
+ */
+public class IndexerIOSparkMax implements IndexerIO, Constants.NotePlayerConstants {
+
+    private final CANSparkMax indexerMotor = new CANSparkMax(INDEXER_MOTOR_ID, CANSparkLowLevel.MotorType.kBrushless);
+    private final RelativeEncoder encoder = indexerMotor.getEncoder();
+    private final SparkLimitSwitch limitSwitch = indexerMotor.getForwardLimitSwitch(SparkLimitSwitch.Type.kNormallyOpen);
+
+    private final DigitalInput beamBreak = new DigitalInput(9);
+
+    public IndexerIOSparkMax() {
+        indexerMotor.setSmartCurrentLimit(30);
+        indexerMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
+        indexerMotor.enableVoltageCompensation(12);
+        limitSwitch.enableLimitSwitch(false);
+    }
+
+    @Override
+    public void updateInputs(IndexerIOInputs inputs) {
+        inputs.encoderPositionRotations = encoder.getPosition();
+        inputs.noteInIndexer = !beamBreak.get();
+        inputs.limitSwitchPressed = limitSwitch.isPressed();
+        inputs.limitSwitchEnabled = limitSwitch.isLimitSwitchEnabled();
+    }
+
+    @Override
+    public void spin(double speed) {
+        indexerMotor.set(speed);
+    }
+
+    @Override
+    public void stop() {
+        indexerMotor.stopMotor();
+    }
+
+    @Override
+    public void setLimitSwitchEnabled(boolean enabled) {
+        limitSwitch.enableLimitSwitch(enabled);
+    }
+}
@@ -4,60 +4,64 @@
 
 package frc.robot.subsystems.noteplayer;
 
-import com.revrobotics.*;
-import edu.wpi.first.wpilibj.DigitalInput;
+import frc.lib.bluecrew.replay.InputLogger;
 import frc.robot.Constants;
 
 
 public class IndexerModule implements Constants.NotePlayerConstants {
 
-    private final CANSparkMax indexerMotor = new CANSparkMax(INDEXER_MOTOR_ID, CANSparkLowLevel.MotorType.kBrushless);
-    private final SparkLimitSwitch limitSwitch = indexerMotor.getForwardLimitSwitch(SparkLimitSwitch.Type.kNormallyOpen);
-
-    private final DigitalInput beamBreak = new DigitalInput(9);
+    private final IndexerIO io;
+    private final IndexerIO.IndexerIOInputs inputs = new IndexerIO.IndexerIOInputs();
+    private final InputLogger.InputsEntry inputsEntry = InputLogger.getInstance().getInputsEntry("Indexer", inputs);
 
     private boolean limitSwitchState;
 
-    public IndexerModule() {
-        indexerMotor.setSmartCurrentLimit(30);
-        indexerMotor.setIdleMode(CANSparkBase.IdleMode.kBrake);
-        indexerMotor.enableVoltageCompensation(12);
-        limitSwitch.enableLimitSwitch(false);
+    public IndexerModule(IndexerIO io) {
+        this.io = io;
         limitSwitchState = false;
     }
 
+    /**
+     * Reads the indexer inputs. This should be called once per loop,
+     * everything else in this class reads the values from the last update
+     */
+    public void updateInputs() {
+        io.updateInputs(inputs);
+        inputsEntry.process();
+    }
+
     public void spin(double speed) {
 //        System.out.println("Spinning Indexer: " + speed);
-        indexerMotor.set(speed);
+        io.spin(speed);
     }
 
     public void stop() {
-        indexerMotor.stopMotor();
+        io.stop();
     }
 
     public double getEncoderPosition() {
-        return indexerMotor.getEncoder().getPosition();
+        return inputs.encoderPositionRotations;
     }
 
     /**
      * @return whether or not we "see" a note in the indexer (via beam-break)
      */
     public boolean noteInIndexer() {
-        return !beamBreak.get();
+        return inputs.noteInIndexer;
     }
 
     public void setEnableHardLimit(boolean enableHardLimit) {
         if (limitSwitchState != enableHardLimit) {
-            limitSwitch.enableLimitSwitch(enableHardLimit);
+            io.setLimitSwitchEnabled(enableHardLimit);
             limitSwitchState = enableHardLimit;
         }
     }
 
     public boolean isLimitSwitchEnabled() {
-        return limitSwitch.isLimitSwitchEnabled();
+        return inputs.limitSwitchEnabled;
     }
 
     public boolean limitSwitchState() {
-        return limitSwitch.isPressed();
+        return inputs.limitSwitchPressed;
     }
 }
@@ -0,0 +1,39 @@
+package frc.robot.subsystems.noteplayer;
+
+import frc.lib.bluecrew.replay.LoggableInputs;
+
+/**
+ * The hardware under the {@link IntakeModule}. The default methods do nothing, which is what replay uses,
+ * since the inputs come from the log instead
+ */
+public interface IntakeIO {
+
+    class IntakeIOInputs implements LoggableInputs {
+        public double velocityRPS;
+        public boolean noteInIntake;
+
+        @Override
+        public int size() {
+            return 2;
+        }
+
+        @Override
+        public void toLog(double[] values) {
+            values[0] = velocityRPS;
+            values[1] = noteInIntake ? 1 : 0;
+        }
+
+        @Override
+        public void fromLog(double[] values) {
+            velocityRPS = values[0];
+            noteInIntake = values[1] != 0;
+        }
+    }
+
+    default void updateInputs(IntakeIOInputs inputs) {}
+
+    /**
+     * @param speed The percent output to run the intake at
+     */
+    default void spin(double speed) {}
+}
@@ -0,0 +1,47 @@
+package frc.robot.subsystems.noteplayer;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import edu.wpi.first.wpilibj.DigitalInput;
+import frc.lib.bluecrew.util.CANSignalManager;
+import frc.robot.Constants;
+
+/**
+ * The {@link IntakeIO} for the TalonFX intake motor and the intake beam break
+ */
+public class IntakeIOTalonFX implements IntakeIO, Constants.NotePlayerConstants, Constants.CANSignalFrequencies {
+
+    private final TalonFX intakeMotor = new TalonFX(INTAKE_MOTOR_ID);
+
+    private final NotePlayerCTREConfigs ctreConfigs = new NotePlayerCTREConfigs();
+
+    private final DutyCycleOut dutyCycle = new DutyCycleOut(0);
+
+    private final StatusSignal<Double> velocitySignal;
+
+    private final DigitalInput beamBreak;
+
+    public IntakeIOTalonFX() {
+        intakeMotor.getConfigurator().apply(ctreConfigs.intakeConfig);
+
+        intakeMotor.setSafetyEnabled(false);
+
+        beamBreak = new DigitalInput(8);
+
+        velocitySignal = intakeMotor.getVelocity();
+        CANSignalManager.getInstance().register(intakeMotor, DIAGNOSTIC_SIGNAL_FREQUENCY, velocitySignal);
+    }
+
+    @Override
+    public void updateInputs(IntakeIOInputs inputs) {
+        inputs.velocityRPS = velocitySignal.refresh().getValueAsDouble();
+        inputs.noteInIntake = !beamBreak.get();
+    }
+
+    @Override
+    public void spin(double speed) {
+        dutyCycle.Output = speed;
+        intakeMotor.setControl(dutyCycle);
+    }
+}
@@ -4,46 +4,44 @@
 
 package frc.robot.subsystems.noteplayer;
 
-import com.ctre.phoenix6.controls.DutyCycleOut;
-import com.ctre.phoenix6.hardware.TalonFX;
-import edu.wpi.first.wpilibj.DataLogManager;
-import edu.wpi.first.wpilibj.DigitalInput;
+import frc.lib.bluecrew.replay.InputLogger;
 import frc.robot.Constants;
 
 public class IntakeModule implements Constants.NotePlayerConstants {
 
-    private TalonFX intakeMotor = new TalonFX(INTAKE_MOTOR_ID);
+    private final IntakeIO io;
+    private final IntakeIO.IntakeIOInputs inputs = new IntakeIO.IntakeIOInputs();
+    private final InputLogger.InputsEntry inputsEntry = InputLogger.getInstance().getInputsEntry("Intake", inputs);
 
-    private final NotePlayerCTREConfigs ctreConfigs = new NotePlayerCTREConfigs();
-    
-    private final DigitalInput beamBreak;
-
-    public IntakeModule() {
-
-        intakeMotor.getConfigurator().apply(ctreConfigs.intakeConfig);
-
-        intakeMotor.setSafetyEnabled(false);
+    public IntakeModule(IntakeIO io) {
+        this.io = io;
+    }
 
-        beamBreak = new DigitalInput(8);
+    /**
+     * Reads the intake inputs. This should be called once per loop,
+     * everything else in this class reads the values from the last update
+     */
+    public void updateInputs() {
+        io.updateInputs(inputs);
+        inputsEntry.process();
     }
 
     public void spin(double speed) {
-        intakeMotor.setControl(new DutyCycleOut(speed));
+        io.spin(speed);
     }
 
     public void stop() {
-        intakeMotor.setControl(new DutyCycleOut(0));
+        io.spin(0);
     }
 
     public double getIntakeVelocity() {
-        return intakeMotor.getVelocity().getValue();
+        return inputs.velocityRPS;
     }
 
     /**
      * @return whether or not a note can be seen in the intake
      */
     public boolean noteInIntake() {
-        boolean notePresent = !beamBreak.get();
-        return notePresent;
+        return inputs.noteInIntake;
     }
 }
@@ -1,37 +1,45 @@
 package frc.robot.subsystems.noteplayer;
 
-import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.GenericEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.shuffleboard.BuiltInWidgets;
 import edu.wpi.first.wpilibj.shuffleboard.Shuffleboard;
 import edu.wpi.first.wpilibj.shuffleboard.ShuffleboardTab;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.*;
+import frc.lib.bluecrew.replay.InputLogger;
 import frc.lib.bluecrew.util.FieldState;
+import frc.lib.bluecrew.util.LoopProfiler;
+import frc.lib.bluecrew.util.StateLogger;
+import frc.lib.bluecrew.util.Telemetry;
+import frc.lib.bluecrew.util.Telemetry.Verbosity;
 import frc.lib.bluecrew.util.RobotState;
 import frc.robot.Constants;
 
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import frc.robot.Robot;
 import frc.robot.subsystems.PoseEstimator;
 
 import java.util.Map;
 import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
 
 /**
  *
  */
 public class NotePlayerSubsystem extends SubsystemBase implements Constants.NotePlayerConstants, Constants.FieldCoordinates, Constants.GameStateConstants {
 
-    private IndexerModule indexer = new IndexerModule();
-    private IntakeModule intake = new IntakeModule();
-    private ArmModule arm = new ArmModule();
-    private ShooterModule shooter = new ShooterModule();
-
-    private double nextGuessAngle = TRAJECTORY_DEFAULT_INITIAL_ANGLE;
+    // When replaying, the modules get IO that does nothing, and their inputs come from the log
+    private IndexerModule indexer = new IndexerModule(InputLogger.isReplay() ? new IndexerIO() {} : new IndexerIOSparkMax());
+    private IntakeModule intake = new IntakeModule(InputLogger.isReplay() ? new IntakeIO() {} : new IntakeIOTalonFX());
+    private ArmModule arm = new ArmModule(InputLogger.isReplay() ? new ArmIO() {} : new ArmIOSparkMax());
+    private ShooterModule shooter = new ShooterModule(InputLogger.isReplay() ? new ShooterIO() {} : new ShooterIOTalonFX());
 
     private double shootingAngle = 90;
     private double shootingSpeed = 1;
@@ -53,27 +61,50 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
             .withProperties(Map.of("min", 0, "max", 4))
             .getEntry();
 
-    private final InterpolatingDoubleTreeMap speedInterpolator = new InterpolatingDoubleTreeMap();
-    private final InterpolatingDoubleTreeMap angleInterpolator = new InterpolatingDoubleTreeMap();
+    // Swapped for a refit grid from the shot learner's thread
+    private volatile ShotLookupGrid shotGrid;
+    private final ShotLearner shotLearner;
+    private final ShotReadinessPredictor readinessPredictor = new ShotReadinessPredictor();
+    private final Supplier<ChassisSpeeds> fieldRelativeSpeedsSupplier;
+    private boolean lastNoteInIndexer = false;
 
     private boolean moveArmInAuto = false;
 
-    public NotePlayerSubsystem() {
-        speedInterpolator.put(1.4d, 14.5d);
-        speedInterpolator.put(2d, 16d);
-        speedInterpolator.put(2.5d, 18d);
-        speedInterpolator.put(3d, 20d);
+    private final LoopProfiler.Section periodicSection = LoopProfiler.getInstance().getSection("NotePlayerSubsystem.periodic");
+    private final LoopProfiler.Section armPeriodicSection = LoopProfiler.getInstance().getSection("ArmModule.periodic");
+
+    /* DataLog entries */
+    private final int shooterTopSetpointLogEntry = StateLogger.getInstance().startEntry("Shooter/TopSetpointRPS", "double");
+    private final int shooterBottomSetpointLogEntry = StateLogger.getInstance().startEntry("Shooter/BottomSetpointRPS", "double");
+    private final int shooterTopVelocityLogEntry = StateLogger.getInstance().startEntry("Shooter/TopVelocityRPS", "double");
+    private final int shooterBottomVelocityLogEntry = StateLogger.getInstance().startEntry("Shooter/BottomVelocityRPS", "double");
+    private final int armSetPositionLogEntry = StateLogger.getInstance().startEntry("Arm/SetPositionRotations", "double");
+    private final int armDegreesLogEntry = StateLogger.getInstance().startEntry("Arm/ShooterDegrees", "double");
+    private final int secondsToReadyLogEntry = StateLogger.getInstance().startEntry("NotePlayer/SecondsToReady", "double");
+
+    private final Telemetry.BooleanSignal indexerHasNoteTelemetry = Telemetry.getInstance().getBooleanSignal("Indexer Has Note", Verbosity.COMPETITION);
+    private final Telemetry.BooleanSignal intakeHasNoteTelemetry = Telemetry.getInstance().getBooleanSignal("Intake Has Note", Verbosity.COMPETITION);
+    private final Telemetry.DoubleSignal secondsToReadyTelemetry = Telemetry.getInstance().getDoubleSignal("Seconds Until Shooter Ready", Verbosity.DEBUG);
+
+    /**
+     * @param fieldRelativeSpeedsSupplier The robot's field relative speeds, recorded with each shot
+     */
+    public NotePlayerSubsystem(Supplier<ChassisSpeeds> fieldRelativeSpeedsSupplier) {
+        this.fieldRelativeSpeedsSupplier = fieldRelativeSpeedsSupplier;
+
+        double startTime = Timer.getFPGATimestamp();
+        shotGrid = ShotLookupGrid.build(SHOT_TABLE_DISTANCES, SHOT_TABLE_SPEEDS, SHOT_TABLE_ANGLES);
+        DataLogManager.log("Built the shot lookup grid in " + Math.round((Timer.getFPGATimestamp() - startTime) * 1000) + " ms");
+
+        // Only real shots are worth learning from
+        shotLearner = SHOT_LEARNING_ENABLED && RobotBase.isReal() && !InputLogger.isReplay()
+                ? new ShotLearner(grid -> shotGrid = grid) : null;
 
 //        angleInterpolator.put(1.4d, 44d);
 //        angleInterpolator.put(2d, 35d);
 //        angleInterpolator.put(2.5d, 30d);
 //        angleInterpolator.put(3d, 26.5d);
 
-        angleInterpolator.put(1.4d, 47d);
-        angleInterpolator.put(2d, 34d);
-        angleInterpolator.put(2.5d, 28.5d);
-        angleInterpolator.put(3d, 25d);
-
         moveArmInAuto = false;
     }
 
@@ -95,8 +126,17 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
 
     @Override
     public void periodic() {
+        periodicSection.start();
+
+        intake.updateInputs();
+        indexer.updateInputs();
+        shooter.refreshSignals();
+        armPeriodicSection.start();
         arm.periodic();
+        armPeriodicSection.stop();
+        RobotState.getInstance().setSecondsUntilShooterReady(readinessPredictor.update(shooter, arm));
         setRobotStates();
+        recordSpeakerShots();
         if (edu.wpi.first.wpilibj.RobotState.isAutonomous()) {
             if (moveArmInAuto) {
                 shooter.spinMetersPerSecond(13);
@@ -115,8 +155,19 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
 //        SmartDashboard.putNumber("Top Shooter Speed", shooter.getShooterTopVelocityMPS());
 //        SmartDashboard.putNumber("Bottom Shooter Speed", shooter.getShooterBottomVelocityMPS());
 
-        SmartDashboard.putBoolean("Indexer Has Note", indexer.noteInIndexer());
-        SmartDashboard.putBoolean("Intake Has Note", intake.noteInIntake());
+        StateLogger.getInstance().recordDouble(shooterTopSetpointLogEntry, shooter.getShooterTopSetpoint());
+        StateLogger.getInstance().recordDouble(shooterBottomSetpointLogEntry, shooter.getShooterBottomSetpoint());
+        StateLogger.getInstance().recordDouble(shooterTopVelocityLogEntry, shooter.getShooterTopVelocity());
+        StateLogger.getInstance().recordDouble(shooterBottomVelocityLogEntry, shooter.getShooterBottomVelocity());
+        StateLogger.getInstance().recordDouble(armSetPositionLogEntry, arm.getSetPosition());
+        StateLogger.getInstance().recordDouble(armDegreesLogEntry, arm.getShooterDegrees());
+        StateLogger.getInstance().recordDouble(secondsToReadyLogEntry, readinessPredictor.getSecondsToReady());
+
+        indexerHasNoteTelemetry.set(indexer.noteInIndexer());
+        intakeHasNoteTelemetry.set(intake.noteInIntake());
+        secondsToReadyTelemetry.set(readinessPredictor.getSecondsToReady());
+
+        periodicSection.stop();
 
         /**
          * PODIUM ANGLE 27.3
@@ -127,12 +178,37 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
          */
     }
 
-    public InterpolatingDoubleTreeMap getAngleInterpolator() {
-        return angleInterpolator;
+    /**
+     * @return The shot lookup grid, which the shot learner replaces whenever it refits the shot table
+     */
+    public ShotLookupGrid getShotGrid() {
+        return shotGrid;
+    }
+
+    /**
+     * @return How long until the shooter wheels and the arm are ready, in seconds, as of this loop
+     */
+    public double getSecondsToShotReady() {
+        return readinessPredictor.getSecondsToReady();
     }
 
-    public InterpolatingDoubleTreeMap getSpeedInterpolator() {
-        return speedInterpolator;
+    /**
+     * Records a speaker shot for the shot learner when the note leaves the indexer
+     */
+    private void recordSpeakerShots() {
+        boolean noteInIndexer = indexer.noteInIndexer();
+        if (shotLearner != null && lastNoteInIndexer && !noteInIndexer
+                && RobotState.getInstance().getShooterMode() == ShooterMode.SPEAKER) {
+            Translation2d robotTranslation = PoseEstimator.getInstance().getPose().getTranslation();
+            ChassisSpeeds fieldRelativeSpeeds = fieldRelativeSpeedsSupplier.get();
+            // The speaker coords are still wherever the shot was aimed, which is the distance it was looked up at
+            shotLearner.recordShot(robotTranslation.getX(), robotTranslation.getY(),
+                    fieldRelativeSpeeds.vxMetersPerSecond, fieldRelativeSpeeds.vyMetersPerSecond,
+                    robotTranslation.getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()),
+                    arm.getShooterDegrees(),
+                    (shooter.getShooterTopVelocityMPS() + shooter.getShooterBottomVelocityMPS()) / 2);
+        }
+        lastNoteInIndexer = noteInIndexer;
     }
 
     /**
@@ -140,22 +216,23 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
      *
      * @param botPose    The {@link Translation2d} of the robot
      * @param targetPose The {@link Translation2d} of the target
-     * @return True if the target is within the range of the shooter
+     * @return True if we can score from here while standing still, within the arm's shooting angles and the shooter's top speed
      */
     public boolean isWithinRange(Translation2d botPose, Translation2d targetPose) {
-        return speedInterpolator.get(botPose.getDistance(targetPose)) <=
-                speedInterpolator.get(Double.MAX_VALUE);
+        return shotGrid.isReachable(botPose.getDistance(targetPose));
     }
 
     public void setRobotStates() {
 //         TODO: Implement the rest of the logic
         switch (RobotState.getInstance().getShooterMode()) {
             case SPEAKER -> {
+                Translation2d robotTranslation = PoseEstimator.getInstance().getPose().getTranslation();
                 RobotState.getInstance().setHasSpeakerTarget(
-                        isWithinRange(PoseEstimator.getInstance().getPose().getTranslation(),
+                        isWithinRange(robotTranslation,
                                 FieldState.getInstance().onRedAlliance() ? RED_SPEAKER.toTranslation2d() : BLUE_SPEAKER.toTranslation2d()));
+                // Ready as soon as a note fed now would get to the wheels once they're up to speed, not once they already are
                 RobotState.getInstance().setShooterStatus(
-                        (arm.isAtSetPosition() && shooter.targetVelocityReached() && PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()) < 3) ? ShooterStatus.READY : ShooterStatus.UNREADY);
+                        (readinessPredictor.isReadyIn(INDEXER_FEED_SECONDS) && robotTranslation.getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()) < 3) ? ShooterStatus.READY : ShooterStatus.UNREADY);
             }
             case AMP -> {
                 RobotState.getInstance().setShooterStatus(arm.isAtSetPosition() ? ShooterStatus.READY : ShooterStatus.UNREADY);
@@ -329,7 +406,7 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
     }
 
     public Command finishShooting() {
-        return (new RunCommand(() -> shooter.spinMetersPerSecond(speedInterpolator.get(PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d())))).raceWith(Commands.waitSeconds(0.1))).andThen(() -> shooter.stop());
+        return (new RunCommand(() -> shooter.spinMetersPerSecond(shotGrid.getWheelSpeed(PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d())))).raceWith(Commands.waitSeconds(0.1))).andThen(() -> shooter.stop());
     }
 
     public Command prepForPickup() {
@@ -343,7 +420,7 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
 
     public Command spinUpShooterForSpeaker() {
         return new RunCommand(
-                () -> shooter.spinMetersPerSecond(speedInterpolator.get(
+                () -> shooter.spinMetersPerSecond(shotGrid.getWheelSpeed(
                         Math.abs(PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()))))
         ).finallyDo(() -> shooter.stop());
     }
@@ -353,8 +430,8 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
                 () -> {
                     RobotState.getInstance().setShooterMode(ShooterMode.SPEAKER);
                     indexer.setEnableHardLimit(false);
-                    shooter.spinMetersPerSecond(speedInterpolator.get(Math.abs(PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()))));
-                    arm.rotateToDegrees(angleInterpolator.get(Math.abs(PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()))));
+                    shooter.spinMetersPerSecond(shotGrid.getWheelSpeed(Math.abs(PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()))));
+                    arm.rotateToDegrees(shotGrid.getArmDegrees(Math.abs(PoseEstimator.getInstance().getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d()))));
 //                    shooter.spinMetersPerSecond(speedInterpolator.get(distanceToSpeaker.getDouble(1.4)));
 //                    arm.rotateToDegrees(angleInterpolator.get(distanceToSpeaker.getDouble(1.4)));
 
@@ -386,6 +463,17 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
         });
     }
 
+    /**
+     * Marks how the last speaker shot went, for the shot learner
+     *
+     * @param outcome How the shot went
+     */
+    public Command markLastShot(ShotLearner.ShotOutcome outcome) {
+        return new InstantCommand(() -> {
+            if (shotLearner != null) shotLearner.markLastShot(outcome);
+        });
+    }
+
     public Command prepForAmp() {
         return rotateArmToDegrees(ARM_AMP_ANGLE)
                 .alongWith(new InstantCommand(
@@ -419,7 +507,7 @@ public class NotePlayerSubsystem extends SubsystemBase implements Constants.Note
 
     public Command autoPrepArmForShooting() {
         return new InstantCommand(
-                () -> arm.rotateToDegrees(angleInterpolator.get(1.4))
+                () -> arm.rotateToDegrees(shotGrid.getArmDegrees(1.4))
         );
     }
 
@@ -0,0 +1,125 @@
+package frc.robot.subsystems.noteplayer;
+
+import frc.robot.Constants;
+
+/**
+ * Simulates a note's flight from the shooter to the speaker, in the vertical plane through the robot and the speaker.
+ * The note leaves the shooter wheels at some fraction of their surface speed, and is slowed by drag and held up a
+ * little by the lift from its backspin. The robot's velocity isn't part of this, {@link ShotSolver} aims for it.
+ * <p>
+ * We don't know exactly how the arm angle we read relates to the angle the note leaves at, so {@link #calibrate} fits
+ * that to the measured shot table.
+ * <p>
+ * This is not thread safe, {@link #simulate} keeps the time of flight of the last shot.
+ */
+public final class NoteTrajectoryModel implements Constants.NotePlayerConstants, Constants.FieldCoordinates {
+
+    private static final double GRAVITY = 9.81;
+    private static final double TIME_STEP = 0.002;
+    private static final double MAX_FLIGHT_SECONDS = 3;
+
+    private static final double DRAG_PER_METER = 0.5 * AIR_DENSITY * NOTE_DRAG_COEFFICIENT * NOTE_FRONTAL_AREA / NOTE_MASS_KG;
+    private static final double LIFT_PER_METER = 0.5 * AIR_DENSITY * NOTE_LIFT_COEFFICIENT * NOTE_FRONTAL_AREA / NOTE_MASS_KG;
+    private static final double SHOOTER_EXIT_RADIUS = SHOOTER_ARM_LENGTH + SHOOTER_ARM_TO_WHEELS_LENGTH;
+
+    private final double exitVelocityRatio;
+    private final double launchAngleOffsetDegrees;
+
+    private double lastTimeOfFlight;
+
+    /**
+     * @param exitVelocityRatio How fast the note leaves compared to the shooter wheels' surface speed
+     * @param launchAngleOffsetDegrees How much steeper the note leaves than the arm angle, in degrees
+     */
+    public NoteTrajectoryModel(double exitVelocityRatio, double launchAngleOffsetDegrees) {
+        this.exitVelocityRatio = exitVelocityRatio;
+        this.launchAngleOffsetDegrees = launchAngleOffsetDegrees;
+    }
+
+    /**
+     * Fits the launch angle offset, so the shots in the shot table come as close to the speaker as they can.
+     * The shot table can't tell a faster, flatter shot from a slower, steeper one, so the exit velocity ratio isn't fit,
+     * it's {@link Constants.NotePlayerConstants#SHOOTER_EXIT_VELOCITY_RATIO}
+     *
+     * @param distances The shot table distances, in meters
+     * @param speeds The shooter speeds that score from each distance, in meters per second
+     * @param angles The arm angles that score from each distance, in degrees
+     * @return The fitted model
+     */
+    public static NoteTrajectoryModel calibrate(double[] distances, double[] speeds, double[] angles) {
+        NoteTrajectoryModel best = null;
+        double bestError = Double.POSITIVE_INFINITY;
+
+        for (double offset = TRAJECTORY_FIT_MIN_ANGLE_OFFSET; offset <= TRAJECTORY_FIT_MAX_ANGLE_OFFSET + 1E-9; offset += 0.25) {
+            NoteTrajectoryModel model = new NoteTrajectoryModel(SHOOTER_EXIT_VELOCITY_RATIO, offset);
+            double error = 0;
+            for (int i = 0; i < distances.length && error < bestError; i++) {
+                double miss = model.simulate(distances[i], angles[i], speeds[i]) - BLUE_SPEAKER.getZ();
+                // A shot that doesn't even get there is as bad as missing by a meter
+                error += Double.isNaN(miss) ? 1 : miss * miss;
+            }
+            if (error < bestError) {
+                bestError = error;
+                best = model;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Simulates a shot
+     *
+     * @param distance How far the speaker is from the center of the robot, in meters
+     * @param armDegrees The arm angle, in degrees
+     * @param wheelSpeed The shooter wheels' surface speed, in meters per second
+     * @return How high the note is when it gets to the speaker, in meters, or NaN if it hits the ground first
+     */
+    public double simulate(double distance, double armDegrees, double wheelSpeed) {
+        double armRadians = Math.toRadians(armDegrees);
+        double launchRadians = Math.toRadians(armDegrees + launchAngleOffsetDegrees);
+        double exitSpeed = exitVelocityRatio * wheelSpeed;
+
+        double x = SHOOTER_HORIZONTAL_OFFSET + SHOOTER_EXIT_RADIUS * Math.cos(armRadians);
+        double y = SHOOTER_VERTICAL_OFFSET + SHOOTER_EXIT_RADIUS * Math.sin(armRadians);
+        double vx = exitSpeed * Math.cos(launchRadians);
+        double vy = exitSpeed * Math.sin(launchRadians);
+
+        lastTimeOfFlight = Double.NaN;
+        for (double t = 0; t < MAX_FLIGHT_SECONDS; t += TIME_STEP) {
+            double speed = Math.hypot(vx, vy);
+            // Drag is against the velocity, lift from the backspin is perpendicular to it
+            double ax = -DRAG_PER_METER * speed * vx - LIFT_PER_METER * speed * vy;
+            double ay = -DRAG_PER_METER * speed * vy + LIFT_PER_METER * speed * vx - GRAVITY;
+            vx += ax * TIME_STEP;
+            vy += ay * TIME_STEP;
+            double nextX = x + vx * TIME_STEP;
+            double nextY = y + vy * TIME_STEP;
+
+            if (nextX >= distance) {
+                double fraction = (distance - x) / (nextX - x);
+                lastTimeOfFlight = t + fraction * TIME_STEP;
+                return y + (nextY - y) * fraction;
+            }
+            if (nextY < 0 || vx <= 0) return Double.NaN;
+            x = nextX;
+            y = nextY;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * @return How long the note from the last {@link #simulate} took to get to the speaker, in seconds, or NaN if it
+     * didn't get there
+     */
+    public double getLastTimeOfFlight() {
+        return lastTimeOfFlight;
+    }
+
+    public double getExitVelocityRatio() {
+        return exitVelocityRatio;
+    }
+
+    public double getLaunchAngleOffsetDegrees() {
+        return launchAngleOffsetDegrees;
+    }
+}
@@ -0,0 +1,59 @@
+package frc.robot.subsystems.noteplayer;
+
+import frc.lib.bluecrew.replay.LoggableInputs;
+
+/**
+ * The hardware under the {@link ShooterModule}. The default methods do nothing, which is what replay uses,
+ * since the inputs come from the log instead
+ */
+public interface ShooterIO {
+
+    class ShooterIOInputs implements LoggableInputs {
+        public double topVelocityRPS;
+        public double bottomVelocityRPS;
+        public double topErrorRPS;
+        public double bottomErrorRPS;
+        public double topPositionRotations;
+        public double bottomPositionRotations;
+        public double topCurrentAmps;
+        public double bottomCurrentAmps;
+
+        @Override
+        public int size() {
+            return 8;
+        }
+
+        @Override
+        public void toLog(double[] values) {
+            values[0] = topVelocityRPS;
+            values[1] = bottomVelocityRPS;
+            values[2] = topErrorRPS;
+            values[3] = bottomErrorRPS;
+            values[4] = topPositionRotations;
+            values[5] = bottomPositionRotations;
+            values[6] = topCurrentAmps;
+            values[7] = bottomCurrentAmps;
+        }
+
+        @Override
+        public void fromLog(double[] values) {
+            topVelocityRPS = values[0];
+            bottomVelocityRPS = values[1];
+            topErrorRPS = values[2];
+            bottomErrorRPS = values[3];
+            topPositionRotations = values[4];
+            bottomPositionRotations = values[5];
+            topCurrentAmps = values[6];
+            bottomCurrentAmps = values[7];
+        }
+    }
+
+    default void updateInputs(ShooterIOInputs inputs) {}
+
+    /**
+     * Runs both shooter motors in closed loop velocity control
+     */
+    default void setVelocity(double topRPS, double topFeedForwardVolts, double bottomRPS, double bottomFeedForwardVolts) {}
+
+    default void stop() {}
+}
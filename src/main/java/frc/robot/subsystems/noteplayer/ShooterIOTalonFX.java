@@ -0,0 +1,83 @@
+package frc.robot.subsystems.noteplayer;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.TalonFX;
+import frc.lib.bluecrew.util.CANSignalManager;
+import frc.robot.Constants;
+
+/**
+ * The {@link ShooterIO} for the two TalonFX shooter motors
+ */
+public class ShooterIOTalonFX implements ShooterIO, Constants.ShooterConstants, Constants.CANSignalFrequencies {
+
+    private final TalonFX topShooterMotor = new TalonFX(SHOOTER_TOP_MOTOR_ID);
+    private final TalonFX bottomShooterMotor = new TalonFX(SHOOTER_BOTTOM_MOTOR_ID);
+
+    private final NotePlayerCTREConfigs ctreConfigs = new NotePlayerCTREConfigs();
+
+    private final VelocityVoltage topShooterVelocity = new VelocityVoltage(0);
+    private final VelocityVoltage bottomShooterVelocity = new VelocityVoltage(0);
+
+    /* Status signals, all refreshed together once per loop */
+    private final StatusSignal<Double> topVelocitySignal = topShooterMotor.getVelocity();
+    private final StatusSignal<Double> bottomVelocitySignal = bottomShooterMotor.getVelocity();
+    private final StatusSignal<Double> topErrorSignal = topShooterMotor.getClosedLoopError();
+    private final StatusSignal<Double> bottomErrorSignal = bottomShooterMotor.getClosedLoopError();
+    private final StatusSignal<Double> topPositionSignal = topShooterMotor.getPosition();
+    private final StatusSignal<Double> bottomPositionSignal = bottomShooterMotor.getPosition();
+    private final StatusSignal<Double> topCurrentSignal = topShooterMotor.getSupplyCurrent();
+    private final StatusSignal<Double> bottomCurrentSignal = bottomShooterMotor.getSupplyCurrent();
+    private final BaseStatusSignal[] allSignals = {
+            topVelocitySignal, bottomVelocitySignal,
+            topErrorSignal, bottomErrorSignal,
+            topPositionSignal, bottomPositionSignal,
+            topCurrentSignal, bottomCurrentSignal
+    };
+
+    public ShooterIOTalonFX() {
+        topShooterMotor.getConfigurator().clearStickyFaults();
+        topShooterMotor.getConfigurator().apply(ctreConfigs.shooterConfig);
+        bottomShooterMotor.getConfigurator().clearStickyFaults();
+        bottomShooterMotor.getConfigurator().apply(ctreConfigs.shooterConfig);
+
+        CANSignalManager.getInstance().register(topShooterMotor, CONTROL_SIGNAL_FREQUENCY,
+                topVelocitySignal, topErrorSignal, topCurrentSignal);
+        CANSignalManager.getInstance().register(bottomShooterMotor, CONTROL_SIGNAL_FREQUENCY,
+                bottomVelocitySignal, bottomErrorSignal, bottomCurrentSignal);
+        CANSignalManager.getInstance().register(topShooterMotor, DIAGNOSTIC_SIGNAL_FREQUENCY, topPositionSignal);
+        CANSignalManager.getInstance().register(bottomShooterMotor, DIAGNOSTIC_SIGNAL_FREQUENCY, bottomPositionSignal);
+    }
+
+    @Override
+    public void updateInputs(ShooterIOInputs inputs) {
+        BaseStatusSignal.refreshAll(allSignals);
+
+        inputs.topVelocityRPS = topVelocitySignal.getValueAsDouble();
+        inputs.bottomVelocityRPS = bottomVelocitySignal.getValueAsDouble();
+        inputs.topErrorRPS = topErrorSignal.getValueAsDouble();
+        inputs.bottomErrorRPS = bottomErrorSignal.getValueAsDouble();
+        inputs.topPositionRotations = topPositionSignal.getValueAsDouble();
+        inputs.bottomPositionRotations = bottomPositionSignal.getValueAsDouble();
+        inputs.topCurrentAmps = topCurrentSignal.getValueAsDouble();
+        inputs.bottomCurrentAmps = bottomCurrentSignal.getValueAsDouble();
+    }
+
+    @Override
+    public void setVelocity(double topRPS, double topFeedForwardVolts, double bottomRPS, double bottomFeedForwardVolts) {
+        topShooterVelocity.Velocity = topRPS;
+        topShooterVelocity.FeedForward = topFeedForwardVolts;
+        bottomShooterVelocity.Velocity = bottomRPS;
+        bottomShooterVelocity.FeedForward = bottomFeedForwardVolts;
+
+        topShooterMotor.setControl(topShooterVelocity);
+        bottomShooterMotor.setControl(bottomShooterVelocity);
+    }
+
+    @Override
+    public void stop() {
+        topShooterMotor.stopMotor();
+        bottomShooterMotor.stopMotor();
+    }
+}
@@ -1,123 +1,133 @@
 package frc.robot.subsystems.noteplayer;
 
-import com.ctre.phoenix6.controls.DutyCycleOut;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.hardware.TalonFX;
-
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 
+import frc.lib.bluecrew.replay.InputLogger;
 import frc.robot.Constants;
 
 public class ShooterModule implements Constants.ShooterConstants {
 
-    private final TalonFX topShooterMotor = new TalonFX(SHOOTER_TOP_MOTOR_ID);
-    private final TalonFX bottomShooterMotor = new TalonFX(SHOOTER_BOTTOM_MOTOR_ID);
+    private final ShooterIO io;
+    private final ShooterIO.ShooterIOInputs inputs = new ShooterIO.ShooterIOInputs();
+    private final InputLogger.InputsEntry inputsEntry = InputLogger.getInstance().getInputsEntry("Shooter", inputs);
+
+    private final SimpleMotorFeedforward shooterFeedForward = new SimpleMotorFeedforward(shooterKS, shooterKV, shooterKA);
+
+    /* The velocities the motors were last told to spin at, in rotations per second */
+    private double topSetpointRPS = 0;
+    private double bottomSetpointRPS = 0;
 
-    private final NotePlayerCTREConfigs ctreConfigs = new NotePlayerCTREConfigs();
+    private boolean targetVelocityReached = false;
 
-    private VelocityVoltage topShooterVelocity = new VelocityVoltage(1);
-    private VelocityVoltage bottomShooterVelocity = new VelocityVoltage(1);
-    private SimpleMotorFeedforward shooterFeedForward = new SimpleMotorFeedforward(shooterKS, shooterKV, shooterKA);
+    public ShooterModule(ShooterIO io) {
+        this.io = io;
+    }
 
-    private final DutyCycleOut shooterDutyCycle = new DutyCycleOut(0);
+    /**
+     * Reads all the shooter inputs at once. This should be called once per loop,
+     * everything else in this class reads the values from the last refresh
+     */
+    public void refreshSignals() {
+        io.updateInputs(inputs);
+        inputsEntry.process();
 
-    public ShooterModule() {
-        topShooterMotor.getConfigurator().clearStickyFaults();
-        topShooterMotor.getConfigurator().apply(ctreConfigs.shooterConfig);
-        bottomShooterMotor.getConfigurator().clearStickyFaults();
-        bottomShooterMotor.getConfigurator().apply(ctreConfigs.shooterConfig);
+        targetVelocityReached = Math.abs(inputs.topErrorRPS)    < SHOOTER_SPEED_ERROR_TOLERANCE &&
+                                Math.abs(inputs.bottomErrorRPS) < SHOOTER_SPEED_ERROR_TOLERANCE;
     }
 
     public void stop() {
-        topShooterMotor.stopMotor();
-        bottomShooterMotor.stopMotor();
+        io.stop();
     }
 
     public void spinPercentage(double speed) {
-//        topShooterMotor.setControl(new DutyCycleOut(speed));
-//        bottomShooterMotor.setControl(new DutyCycleOut(speed));
-
-        topShooterVelocity = new VelocityVoltage(SHOOTER_MAX_ROTATIONS_PER_SECOND * speed);
-        shooterFeedForward = new SimpleMotorFeedforward(shooterKS, shooterKV, shooterKA);
-
-//        shooterVelocity.Velocity = SHOOTER_MAX_ROTATIONS_PER_SECOND * speed;
-        topShooterVelocity.FeedForward = shooterFeedForward.calculate(topShooterVelocity.Velocity * SHOOTER_METERS_PER_ROTATION);
-        //shooterVelocity.withAcceleration(25);
-
-        topShooterMotor.setControl(topShooterVelocity);
-        bottomShooterMotor.setControl(topShooterVelocity);
-
-        // leftShooterMotor.setControl(shooterDutyCycle.withOutput());
-        // rightShooterMotor.setControl(shooterDutyCycle.withOutput());
+        spinRotationsPerSecond(SHOOTER_MAX_ROTATIONS_PER_SECOND * speed, SHOOTER_MAX_ROTATIONS_PER_SECOND * speed);
     }
 
     public void spinPercentage(double topSpeed, double bottomSpeed) {
-//        topShooterMotor.setControl(new DutyCycleOut(speed));
-//        bottomShooterMotor.setControl(new DutyCycleOut(speed));
-
-        topShooterVelocity = new VelocityVoltage(SHOOTER_MAX_ROTATIONS_PER_SECOND * topSpeed);
-        shooterFeedForward = new SimpleMotorFeedforward(shooterKS, shooterKV, shooterKA);
-
-//        shooterVelocity.Velocity = SHOOTER_MAX_ROTATIONS_PER_SECOND * speed;
-        topShooterVelocity.FeedForward = shooterFeedForward.calculate(topShooterVelocity.Velocity * SHOOTER_METERS_PER_ROTATION);
-
-        bottomShooterVelocity = new VelocityVoltage(SHOOTER_MAX_ROTATIONS_PER_SECOND * bottomSpeed);
-        shooterFeedForward = new SimpleMotorFeedforward(shooterKS, shooterKV, shooterKA);
-
-//        shooterVelocity.Velocity = SHOOTER_MAX_ROTATIONS_PER_SECOND * speed;
-        bottomShooterVelocity.FeedForward = shooterFeedForward.calculate(bottomShooterVelocity.Velocity * SHOOTER_METERS_PER_ROTATION);
-        //shooterVelocity.withAcceleration(25);
-
-//        System.out.println(("Shooter velocity set to: " + shooterVelocity.Velocity));
-        topShooterMotor.setControl(topShooterVelocity);
-        bottomShooterMotor.setControl(bottomShooterVelocity);
-
-        // leftShooterMotor.setControl(shooterDutyCycle.withOutput());
-        // rightShooterMotor.setControl(shooterDutyCycle.withOutput());
+        spinRotationsPerSecond(SHOOTER_MAX_ROTATIONS_PER_SECOND * topSpeed, SHOOTER_MAX_ROTATIONS_PER_SECOND * bottomSpeed);
     }
 
     public void spinMetersPerSecond(double mps) {
-        topShooterVelocity.Velocity = mps/SHOOTER_METERS_PER_ROTATION;
-        topShooterVelocity.FeedForward = shooterFeedForward.calculate(mps);
-
-//        System.out.println("Shooter Velocity MPS set to: " + mps);
-        topShooterMotor.setControl(topShooterVelocity);
-        bottomShooterMotor.setControl(topShooterVelocity);
+        spinRotationsPerSecond(mps/SHOOTER_METERS_PER_ROTATION, mps/SHOOTER_METERS_PER_ROTATION);
     }
 
     public void spinMetersPerSecond(double topSpeed, double bottomSpeed) {
-        topShooterVelocity.Velocity = topSpeed/SHOOTER_METERS_PER_ROTATION;
-        topShooterVelocity.FeedForward = shooterFeedForward.calculate(topSpeed);
+        spinRotationsPerSecond(topSpeed/SHOOTER_METERS_PER_ROTATION, bottomSpeed/SHOOTER_METERS_PER_ROTATION);
+    }
+
+    private void spinRotationsPerSecond(double topRPS, double bottomRPS) {
+        topSetpointRPS = topRPS;
+        bottomSetpointRPS = bottomRPS;
+
+        // The feed forward is characterized in meters per second of the shooter wheels
+        io.setVelocity(topRPS, shooterFeedForward.calculate(topRPS * SHOOTER_METERS_PER_ROTATION),
+                bottomRPS, shooterFeedForward.calculate(bottomRPS * SHOOTER_METERS_PER_ROTATION));
+    }
 
-        bottomShooterVelocity.Velocity = bottomSpeed/SHOOTER_METERS_PER_ROTATION;
-        bottomShooterVelocity.FeedForward = shooterFeedForward.calculate(bottomSpeed);
+    /**
+     * @return The velocity the top motor was last told to spin at, in rotations per second
+     */
+    public double getShooterTopSetpoint() {
+        return topSetpointRPS;
+    }
 
-        topShooterMotor.setControl(topShooterVelocity);
-        bottomShooterMotor.setControl(bottomShooterVelocity);
+    /**
+     * @return The velocity the bottom motor was last told to spin at, in rotations per second
+     */
+    public double getShooterBottomSetpoint() {
+        return bottomSetpointRPS;
     }
 
     public double getShooterTopVelocity() {
-        return topShooterMotor.getVelocity().getValue().doubleValue();
+        return inputs.topVelocityRPS;
     }
 
     public double getShooterBottomVelocity() {
-        return topShooterMotor.getVelocity().getValue().doubleValue();
+        return inputs.bottomVelocityRPS;
     }
 
     public long getShooterTopEncoderPos() {
-        return (long) (topShooterMotor.getPosition().getValue() * 2048.0d);
+        return (long) (inputs.topPositionRotations * 2048.0d);
     }
 
     public long getShooterBottomEncoderPos() {
-        return (long) (topShooterMotor.getPosition().getValue() * 2048.0d);
+        return (long) (inputs.bottomPositionRotations * 2048.0d);
     }
 
     public double getShooterTopVelocityMPS() {
-        return topShooterMotor.getVelocity().getValue() * SHOOTER_METERS_PER_ROTATION;
+        return inputs.topVelocityRPS * SHOOTER_METERS_PER_ROTATION;
     }
 
     public double getShooterBottomVelocityMPS() {
-        return bottomShooterMotor.getVelocity().getValue() * SHOOTER_METERS_PER_ROTATION;
+        return inputs.bottomVelocityRPS * SHOOTER_METERS_PER_ROTATION;
+    }
+
+    /**
+     * @return The closed loop velocity error of the top motor, in rotations per second
+     */
+    public double getShooterTopError() {
+        return inputs.topErrorRPS;
+    }
+
+    /**
+     * @return The closed loop velocity error of the bottom motor, in rotations per second
+     */
+    public double getShooterBottomError() {
+        return inputs.bottomErrorRPS;
+    }
+
+    /**
+     * @return The supply current of the top motor, in amps
+     */
+    public double getShooterTopCurrent() {
+        return inputs.topCurrentAmps;
+    }
+
+    /**
+     * @return The supply current of the bottom motor, in amps
+     */
+    public double getShooterBottomCurrent() {
+        return inputs.bottomCurrentAmps;
     }
 
     /**
@@ -125,7 +135,6 @@ public class ShooterModule implements Constants.ShooterConstants {
      * @return Whether both the shooter motors are within {@value SHOOTER_SPEED_ERROR_TOLERANCE} rotations of the set velocity
      */
     public boolean targetVelocityReached() {
-        return  Math.abs(topShooterMotor.getClosedLoopError().getValue())    <  SHOOTER_SPEED_ERROR_TOLERANCE &&
-                Math.abs(bottomShooterMotor.getClosedLoopError().getValue()) <  SHOOTER_SPEED_ERROR_TOLERANCE;
+        return targetVelocityReached;
     }
 }
\ No newline at end of file
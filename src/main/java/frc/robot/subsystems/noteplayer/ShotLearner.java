@@ -0,0 +1,240 @@
+package frc.robot.subsystems.noteplayer;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Learns the shot table from the shots we take. Each speaker shot is recorded, and once the operator marks whether it
+ * went in, went over, or fell short, it's saved to a file on the robot and the shot table is refit with it. The refit
+ * table is built into a new {@link ShotLookupGrid} and handed back to be swapped in, so the loop never waits on it.
+ * <p>
+ * The hand-tuned shot table is the starting point. Each knot of the table moves toward the shots taken near its
+ * distance, weighted by how close they were, and the more shots there are the further it moves. Shots that went in
+ * pull the knot toward the angle and speed they were taken at, shots that missed pull the angle a step the other way.
+ * <p>
+ * Shots are recorded and marked on the main thread, and saved and learned from on a single background thread.
+ */
+public class ShotLearner implements Constants.NotePlayerConstants {
+
+    private static final int FILE_MAGIC = 0x53485431; // "SHT1"
+
+    public enum ShotOutcome {
+        UNMARKED,
+        MADE,
+        MISSED_HIGH,
+        MISSED_LOW
+    }
+
+    private record Shot(long timeMillis, double robotX, double robotY, double velocityX, double velocityY,
+                        double distance, double armDegrees, double wheelSpeed, ShotOutcome outcome) {
+
+        Shot withOutcome(ShotOutcome outcome) {
+            return new Shot(timeMillis, robotX, robotY, velocityX, velocityY, distance, armDegrees, wheelSpeed, outcome);
+        }
+    }
+
+    private final Consumer<ShotLookupGrid> onRefit;
+    private final File shotFile = new File(Filesystem.getOperatingDirectory(), SHOT_LEARNING_FILE);
+
+    private final ExecutorService learnerExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "shotLearnerThread");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /* Only used on the main thread */
+    private Shot pendingShot;
+    private double pendingShotTime;
+
+    /* Only used on the learner thread. How far the shots pull each knot, and how many shots are pulling it */
+    private final double[] angleResidualSums = new double[SHOT_TABLE_DISTANCES.length];
+    private final double[] angleWeights = new double[SHOT_TABLE_DISTANCES.length];
+    private final double[] speedResidualSums = new double[SHOT_TABLE_DISTANCES.length];
+    private final double[] speedWeights = new double[SHOT_TABLE_DISTANCES.length];
+    private int learnedShots = 0;
+
+    /**
+     * Starts loading the shots saved on the robot, and refits the shot table from them in the background
+     *
+     * @param onRefit Called from the background thread with each refit grid
+     */
+    public ShotLearner(Consumer<ShotLookupGrid> onRefit) {
+        this.onRefit = onRefit;
+        learnerExecutor.execute(this::loadShots);
+    }
+
+    /**
+     * Records a shot that was just taken. It isn't learned from until it's marked
+     *
+     * @param robotX The robot's field X position, in meters
+     * @param robotY The robot's field Y position, in meters
+     * @param velocityX The robot's field relative X velocity, in meters per second
+     * @param velocityY The robot's field relative Y velocity, in meters per second
+     * @param distance The distance the shot was looked up at, in meters
+     * @param armDegrees The arm angle it was shot at, in degrees
+     * @param wheelSpeed The shooter speed it was shot at, in meters per second
+     */
+    public void recordShot(double robotX, double robotY, double velocityX, double velocityY,
+                           double distance, double armDegrees, double wheelSpeed) {
+        // Nobody marked the last one, but it's still worth having in the file
+        if (pendingShot != null) {
+            save(pendingShot);
+        }
+        pendingShot = new Shot(System.currentTimeMillis(), robotX, robotY, velocityX, velocityY,
+                distance, armDegrees, wheelSpeed, ShotOutcome.UNMARKED);
+        pendingShotTime = Timer.getFPGATimestamp();
+    }
+
+    /**
+     * Marks how the last shot went, if it was taken recently enough that this is about it
+     *
+     * @param outcome How the shot went
+     */
+    public void markLastShot(ShotOutcome outcome) {
+        if (pendingShot == null || Timer.getFPGATimestamp() - pendingShotTime > SHOT_LEARNING_MARK_WINDOW_SECONDS) {
+            return;
+        }
+        Shot shot = pendingShot.withOutcome(outcome);
+        pendingShot = null;
+
+        learnerExecutor.execute(() -> {
+            append(shot);
+            learn(shot);
+            refit();
+        });
+    }
+
+    private void save(Shot shot) {
+        learnerExecutor.execute(() -> append(shot));
+    }
+
+    private void loadShots() {
+        if (!shotFile.exists()) return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(shotFile)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                DataLogManager.log("Shot file " + shotFile + " isn't in the expected format, not learning from it");
+                return;
+            }
+            while (true) {
+                learn(read(in));
+            }
+        } catch (EOFException e) {
+            // That's all of them
+        } catch (IOException e) {
+            DataLogManager.log("Failed to read the shot file: " + e.getMessage());
+        }
+
+        if (learnedShots > 0) refit();
+    }
+
+    private void append(Shot shot) {
+        boolean newFile = !shotFile.exists();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(shotFile, true)))) {
+            if (newFile) out.writeInt(FILE_MAGIC);
+            out.writeLong(shot.timeMillis());
+            out.writeFloat((float) shot.robotX());
+            out.writeFloat((float) shot.robotY());
+            out.writeFloat((float) shot.velocityX());
+            out.writeFloat((float) shot.velocityY());
+            out.writeFloat((float) shot.distance());
+            out.writeFloat((float) shot.armDegrees());
+            out.writeFloat((float) shot.wheelSpeed());
+            out.writeByte(shot.outcome().ordinal());
+        } catch (IOException e) {
+            DataLogManager.log("Failed to save a shot: " + e.getMessage());
+        }
+    }
+
+    private static Shot read(DataInputStream in) throws IOException {
+        return new Shot(in.readLong(), in.readFloat(), in.readFloat(), in.readFloat(), in.readFloat(),
+                in.readFloat(), in.readFloat(), in.readFloat(), ShotOutcome.values()[in.readByte()]);
+    }
+
+    /**
+     * Adds a marked shot's pull on each knot of the shot table
+     */
+    private void learn(Shot shot) {
+        double angleTarget;
+        double weight;
+        switch (shot.outcome()) {
+            case MADE -> {
+                angleTarget = shot.armDegrees();
+                weight = 1;
+            }
+            case MISSED_HIGH -> {
+                angleTarget = shot.armDegrees() - SHOT_LEARNING_MISS_STEP_DEGREES;
+                weight = SHOT_LEARNING_MISS_WEIGHT;
+            }
+            case MISSED_LOW -> {
+                angleTarget = shot.armDegrees() + SHOT_LEARNING_MISS_STEP_DEGREES;
+                weight = SHOT_LEARNING_MISS_WEIGHT;
+            }
+            default -> {
+                return;
+            }
+        }
+
+        double angleResidual = angleTarget - interpolate(SHOT_TABLE_ANGLES, shot.distance());
+        double speedResidual = shot.wheelSpeed() - interpolate(SHOT_TABLE_SPEEDS, shot.distance());
+        for (int i = 0; i < SHOT_TABLE_DISTANCES.length; i++) {
+            double kernelDistance = (shot.distance() - SHOT_TABLE_DISTANCES[i]) / SHOT_LEARNING_KERNEL_METERS;
+            double knotWeight = weight * Math.exp(-0.5 * kernelDistance * kernelDistance);
+            angleResidualSums[i] += knotWeight * angleResidual;
+            angleWeights[i] += knotWeight;
+            // A miss only says which way the angle was off, the speed it was shot at isn't any better or worse
+            if (shot.outcome() == ShotOutcome.MADE) {
+                speedResidualSums[i] += knotWeight * speedResidual;
+                speedWeights[i] += knotWeight;
+            }
+        }
+        learnedShots++;
+    }
+
+    /**
+     * Builds a grid from the hand-tuned shot table moved by the shots learned so far, and hands it back
+     */
+    private void refit() {
+        double[] angles = new double[SHOT_TABLE_DISTANCES.length];
+        double[] speeds = new double[SHOT_TABLE_DISTANCES.length];
+        for (int i = 0; i < SHOT_TABLE_DISTANCES.length; i++) {
+            angles[i] = SHOT_TABLE_ANGLES[i] + angleResidualSums[i] / (SHOT_LEARNING_PRIOR_WEIGHT + angleWeights[i]);
+            speeds[i] = SHOT_TABLE_SPEEDS[i] + speedResidualSums[i] / (SHOT_LEARNING_PRIOR_WEIGHT + speedWeights[i]);
+        }
+
+        onRefit.accept(ShotLookupGrid.build(SHOT_TABLE_DISTANCES, speeds, angles));
+        DataLogManager.log("Refit the shot table from " + learnedShots + " shots, angles "
+                + Arrays.toString(angles) + ", speeds " + Arrays.toString(speeds));
+    }
+
+    /**
+     * Linear interpolation through the hand-tuned shot table, clamped to the ends
+     */
+    private static double interpolate(double[] values, double distance) {
+        if (distance <= SHOT_TABLE_DISTANCES[0]) return values[0];
+        int last = SHOT_TABLE_DISTANCES.length - 1;
+        if (distance >= SHOT_TABLE_DISTANCES[last]) return values[last];
+
+        int upper = 1;
+        while (SHOT_TABLE_DISTANCES[upper] < distance) upper++;
+        return values[upper - 1] + (values[upper] - values[upper - 1])
+                * (distance - SHOT_TABLE_DISTANCES[upper - 1]) / (SHOT_TABLE_DISTANCES[upper] - SHOT_TABLE_DISTANCES[upper - 1]);
+    }
+}
@@ -0,0 +1,198 @@
+package frc.robot.subsystems.noteplayer;
+
+import frc.robot.Constants;
+
+/**
+ * The arm angle, shooter speed and time of flight that score from each distance to the speaker, standing still, worked
+ * out from a {@link NoteTrajectoryModel} when the grid is built. Looking a shot up is a linear interpolation between the
+ * two grid points around it.
+ * <p>
+ * There's no axis for how fast the robot is driving. {@link ShotSolver} aims at a spot moved against the robot's
+ * velocity, and from the robot the note flies to that spot just as it would standing still, so the shot is looked up
+ * at the distance to it.
+ * <p>
+ * The shooter speed only depends on the distance. It follows the shot table, carried on past its end at the same slope
+ * up to the shooter's top shot speed. The arm angle is whatever gets the note to the speaker
+ * at that speed, flattest arc first, corrected by how far the model is off at each shot table distance so the
+ * measured shots come back exactly.
+ */
+public final class ShotLookupGrid implements Constants.NotePlayerConstants, Constants.FieldCoordinates {
+
+    private static final double ANGLE_SEARCH_STEP = 1;
+    private static final double ANGLE_TOLERANCE = 0.01;
+
+    private final int distanceCount;
+    private final double[] armDegrees;
+    private final double[] wheelSpeeds;
+    private final double[] timesOfFlight;
+    private final boolean[] reachable;
+
+    private ShotLookupGrid(int distanceCount) {
+        this.distanceCount = distanceCount;
+        armDegrees = new double[distanceCount];
+        wheelSpeeds = new double[distanceCount];
+        timesOfFlight = new double[distanceCount];
+        reachable = new boolean[distanceCount];
+    }
+
+    /**
+     * Fits a {@link NoteTrajectoryModel} to the shot table and fills in the grid from it
+     *
+     * @param distances The shot table distances in meters, in increasing order
+     * @param speeds The shooter speed in meters per second that scores from each distance
+     * @param angles The arm angle in degrees that scores from each distance
+     * @return The grid
+     */
+    public static ShotLookupGrid build(double[] distances, double[] speeds, double[] angles) {
+        NoteTrajectoryModel model = NoteTrajectoryModel.calibrate(distances, speeds, angles);
+
+        // How far off the model is at each measured shot
+        double[] angleCorrections = new double[distances.length];
+        for (int i = 0; i < distances.length; i++) {
+            double modelAngle = solveAngle(model, distances[i], speeds[i], angles[i]);
+            angleCorrections[i] = Double.isNaN(modelAngle) ? 0 : angles[i] - modelAngle;
+        }
+
+        int distanceCount = (int) Math.round((SHOT_GRID_MAX_DISTANCE - SHOT_GRID_MIN_DISTANCE) / SHOT_GRID_DISTANCE_STEP) + 1;
+        ShotLookupGrid grid = new ShotLookupGrid(distanceCount);
+
+        // Each shot is close to the one just before it, so start looking there
+        double nextGuessAngle = TRAJECTORY_DEFAULT_INITIAL_ANGLE;
+        for (int d = 0; d < distanceCount; d++) {
+            double distance = SHOT_GRID_MIN_DISTANCE + d * SHOT_GRID_DISTANCE_STEP;
+            double wheelSpeed = Math.min(extrapolate(distances, speeds, distance), SHOT_MAX_WHEEL_SPEED);
+            double modelAngle = solveAngle(model, distance, wheelSpeed, nextGuessAngle);
+
+            grid.wheelSpeeds[d] = wheelSpeed;
+            if (Double.isNaN(modelAngle)) {
+                grid.armDegrees[d] = SHOT_MAX_ARM_DEGREES;
+                grid.timesOfFlight[d] = distance / wheelSpeed;
+                continue;
+            }
+
+            model.simulate(distance, modelAngle, wheelSpeed);
+            double angle = modelAngle + interpolate(distances, angleCorrections, distance);
+            grid.armDegrees[d] = Math.max(SHOT_MIN_ARM_DEGREES, Math.min(angle, SHOT_MAX_ARM_DEGREES));
+            grid.timesOfFlight[d] = model.getLastTimeOfFlight();
+            grid.reachable[d] = angle >= SHOT_MIN_ARM_DEGREES && angle <= SHOT_MAX_ARM_DEGREES;
+            nextGuessAngle = modelAngle;
+        }
+        return grid;
+    }
+
+    /**
+     * Finds the flattest arm angle that gets the note to the speaker height. Starting from the guess, this steps
+     * the angle until the note goes from under the speaker to over it, then bisects between the two
+     *
+     * @return The angle, in degrees, or NaN if no angle the arm can shoot at gets there
+     */
+    private static double solveAngle(NoteTrajectoryModel model, double distance, double wheelSpeed, double guess) {
+        double minAngle = SHOT_MIN_ARM_DEGREES - TRAJECTORY_MAX_ANGLE_CORRECTION;
+        double maxAngle = SHOT_MAX_ARM_DEGREES + TRAJECTORY_MAX_ANGLE_CORRECTION;
+        double low = Math.max(minAngle, Math.min(guess, maxAngle));
+        double high;
+
+        if (isUnder(model, distance, low, wheelSpeed)) {
+            // Too low, so step up until it's over
+            high = low;
+            do {
+                low = high;
+                high = low + ANGLE_SEARCH_STEP;
+                if (high > maxAngle) return Double.NaN;
+            } while (isUnder(model, distance, high, wheelSpeed));
+        } else {
+            // Over (or on) it, so step down until it's under, which also skips past the steep arc
+            do {
+                high = low;
+                low = high - ANGLE_SEARCH_STEP;
+                if (low < minAngle) return Double.NaN;
+            } while (!isUnder(model, distance, low, wheelSpeed));
+        }
+
+        while (high - low > ANGLE_TOLERANCE) {
+            double middle = (low + high) / 2;
+            if (isUnder(model, distance, middle, wheelSpeed)) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    /**
+     * @return Whether the note goes under the speaker, or hits the ground before it gets there
+     */
+    private static boolean isUnder(NoteTrajectoryModel model, double distance, double armDegrees, double wheelSpeed) {
+        return !(model.simulate(distance, armDegrees, wheelSpeed) >= BLUE_SPEAKER.getZ());
+    }
+
+    /**
+     * Linear interpolation through a table, clamped to the ends
+     */
+    private static double interpolate(double[] xs, double[] ys, double x) {
+        if (x <= xs[0]) return ys[0];
+        int last = xs.length - 1;
+        if (x >= xs[last]) return ys[last];
+
+        int upper = 1;
+        while (xs[upper] < x) upper++;
+        return ys[upper - 1] + (ys[upper] - ys[upper - 1]) * (x - xs[upper - 1]) / (xs[upper] - xs[upper - 1]);
+    }
+
+    /**
+     * Linear interpolation through a table, carried on past the far end at the slope of the last two points
+     */
+    private static double extrapolate(double[] xs, double[] ys, double x) {
+        int last = xs.length - 1;
+        if (x <= xs[last]) return interpolate(xs, ys, x);
+        return ys[last] + (ys[last] - ys[last - 1]) * (x - xs[last]) / (xs[last] - xs[last - 1]);
+    }
+
+    /**
+     * @param distance How far the speaker is from the center of the robot, in meters
+     * @return The arm angle to shoot at, in degrees
+     */
+    public double getArmDegrees(double distance) {
+        return lookup(armDegrees, distance);
+    }
+
+    /**
+     * @param distance How far the speaker is from the center of the robot, in meters
+     * @return The shooter speed to shoot at, in meters per second
+     */
+    public double getWheelSpeed(double distance) {
+        return lookup(wheelSpeeds, distance);
+    }
+
+    /**
+     * @param distance How far the speaker is from the center of the robot, in meters
+     * @return How long the note takes to get to the speaker, in seconds
+     */
+    public double getTimeOfFlight(double distance) {
+        return lookup(timesOfFlight, distance);
+    }
+
+    /**
+     * @param distance How far the speaker is from the center of the robot, in meters
+     * @return Whether we can score from here, within the arm's shooting angles and the shooter's top speed
+     */
+    public boolean isReachable(double distance) {
+        double distanceIndex = (distance - SHOT_GRID_MIN_DISTANCE) / SHOT_GRID_DISTANCE_STEP;
+        if (!(distanceIndex >= 0 && distanceIndex <= distanceCount - 1)) {
+            return false;
+        }
+
+        int d = Math.min((int) distanceIndex, distanceCount - 2);
+        return reachable[d] && reachable[d + 1];
+    }
+
+    /**
+     * Linear interpolation between the two grid points around the shot, clamped to the ends of the grid
+     */
+    private double lookup(double[] values, double distance) {
+        double distanceIndex = Math.max(0, Math.min((distance - SHOT_GRID_MIN_DISTANCE) / SHOT_GRID_DISTANCE_STEP, distanceCount - 1));
+        int d = Math.min((int) distanceIndex, distanceCount - 2);
+        return values[d] + (values[d + 1] - values[d]) * (distanceIndex - d);
+    }
+}
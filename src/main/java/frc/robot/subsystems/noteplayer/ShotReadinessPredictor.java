@@ -0,0 +1,94 @@
+package frc.robot.subsystems.noteplayer;
+
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants;
+
+/**
+ * Predicts how long until the shooter wheels are within {@link Constants.ShooterConstants#SHOOTER_SPEED_ERROR_TOLERANCE}
+ * of their set speed and the arm is at its set position, so the indexer can start feeding the note early enough that it
+ * gets to the wheels just as they're ready, instead of only starting once they are.
+ * <p>
+ * Each wheel's speed error is treated as dying away exponentially, as it does once the velocity loop is closing in.
+ * How fast it's dying away comes from how fast the wheel is speeding up toward its set speed, or from the
+ * shooter's feed forward if it isn't. That time is never shorter than the straight-line guess would be, so the note
+ * won't get there before the wheels are ready.
+ * <p>
+ * This should be updated once per loop. This is not thread safe.
+ */
+public final class ShotReadinessPredictor implements Constants.NotePlayerConstants, Constants.ShooterConstants {
+
+    // How long the wheels' speed error takes to die away to about a third, with nothing but the feed forward
+    private static final double SHOOTER_TIME_CONSTANT = shooterKA / shooterKV;
+
+    private final LinearFilter topAccelerationFilter = LinearFilter.singlePoleIIR(SHOT_READY_ACCELERATION_FILTER_SECONDS, TimedRobot.kDefaultPeriod);
+    private final LinearFilter bottomAccelerationFilter = LinearFilter.singlePoleIIR(SHOT_READY_ACCELERATION_FILTER_SECONDS, TimedRobot.kDefaultPeriod);
+
+    private double lastTopVelocity = Double.NaN;
+    private double lastBottomVelocity = Double.NaN;
+
+    private double shooterSecondsToReady;
+    private double secondsToReady;
+
+    /**
+     * Updates the prediction from this loop's shooter and arm
+     *
+     * @param shooter The shooter, after its signals were refreshed this loop
+     * @param arm The arm, after its periodic ran this loop
+     * @return How long until both are ready, in seconds
+     */
+    public double update(ShooterModule shooter, ArmModule arm) {
+        double topVelocity = shooter.getShooterTopVelocity();
+        double bottomVelocity = shooter.getShooterBottomVelocity();
+        // The first loop has nothing to tell how fast they're speeding up from
+        double topAcceleration = topAccelerationFilter.calculate(Double.isNaN(lastTopVelocity)
+                ? 0 : (topVelocity - lastTopVelocity) / TimedRobot.kDefaultPeriod);
+        double bottomAcceleration = bottomAccelerationFilter.calculate(Double.isNaN(lastBottomVelocity)
+                ? 0 : (bottomVelocity - lastBottomVelocity) / TimedRobot.kDefaultPeriod);
+        lastTopVelocity = topVelocity;
+        lastBottomVelocity = bottomVelocity;
+
+        shooterSecondsToReady = Math.max(
+                wheelSecondsToReady(shooter.getShooterTopError(), topAcceleration),
+                wheelSecondsToReady(shooter.getShooterBottomError(), bottomAcceleration));
+        secondsToReady = Math.max(shooterSecondsToReady, arm.getSecondsToSetPosition());
+        return secondsToReady;
+    }
+
+    /**
+     * @param errorRPS The wheel's closed loop velocity error, in rotations per second
+     * @param accelerationRPS The wheel's acceleration, in rotations per second squared
+     * @return How long until the error is within tolerance, in seconds
+     */
+    private static double wheelSecondsToReady(double errorRPS, double accelerationRPS) {
+        double error = Math.abs(errorRPS);
+        if (error < SHOOTER_SPEED_ERROR_TOLERANCE) return 0;
+
+        // How fast the error is shrinking. If it isn't, the feed forward is the best guess at how fast it will
+        double closingRate = Math.signum(errorRPS) * accelerationRPS;
+        double timeConstant = closingRate > 0 ? error / closingRate : SHOOTER_TIME_CONSTANT;
+        return timeConstant * Math.log(error / SHOOTER_SPEED_ERROR_TOLERANCE);
+    }
+
+    /**
+     * @param feedSeconds How long the note takes to get from the indexer to the shooter wheels, in seconds
+     * @return Whether a note fed now would get to the wheels once they, and the arm, are ready
+     */
+    public boolean isReadyIn(double feedSeconds) {
+        return secondsToReady <= feedSeconds;
+    }
+
+    /**
+     * @return How long until the shooter wheels and the arm are ready, in seconds, as of the last update
+     */
+    public double getSecondsToReady() {
+        return secondsToReady;
+    }
+
+    /**
+     * @return How long until just the shooter wheels are ready, in seconds, as of the last update
+     */
+    public double getShooterSecondsToReady() {
+        return shooterSecondsToReady;
+    }
+}
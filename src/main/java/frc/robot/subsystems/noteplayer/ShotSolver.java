@@ -0,0 +1,190 @@
+package frc.robot.subsystems.noteplayer;
+
+import frc.robot.Constants;
+
+import java.util.function.Supplier;
+
+/**
+ * Works out how to shoot into the speaker while driving: the arm angle, the shooter speed, and which way to face.
+ * <p>
+ * The note leaves the robot a fixed latency after we decide to shoot, plus however long the arm
+ * takes to get to the new angle, so the solve starts from where the robot will be (and how fast it will be going) by
+ * then, using its velocity and acceleration. The note keeps the robot's velocity once it's shot, so we aim at a
+ * spot moved against that velocity by however long the note is in the air. With a fixed note speed the time in the
+ * air has an exact solution, so each iteration solves that, then looks the note's speed up again at the new distance,
+ * until the distance stops changing.
+ * <p>
+ * Solving doesn't allocate anything, the results are kept in this object until the next solve.
+ * This is not thread safe.
+ */
+public final class ShotSolver implements Constants.NotePlayerConstants {
+
+    private final Supplier<ShotLookupGrid> shotGridSupplier;
+
+    private double armAngleDegrees;
+    private double shooterSpeed;
+    private double headingRadians;
+    private double distance;
+    private double timeOfFlight;
+    private double aimX;
+    private double aimY;
+    private int iterations;
+    private boolean converged;
+
+    /**
+     * @param shotGridSupplier The shots to look up, standing still at each distance. This is read at the start of each
+     *                         solve, so a grid swapped in by the shot learner is used from the next solve on
+     */
+    public ShotSolver(Supplier<ShotLookupGrid> shotGridSupplier) {
+        this.shotGridSupplier = shotGridSupplier;
+    }
+
+    /**
+     * Solves the shot. The results are read with the getters afterward
+     *
+     * @param robotX The robot's field X position, in meters
+     * @param robotY The robot's field Y position, in meters
+     * @param velocityX The robot's field relative X velocity, in meters per second
+     * @param velocityY The robot's field relative Y velocity, in meters per second
+     * @param accelerationX The robot's field relative X acceleration, in meters per second squared
+     * @param accelerationY The robot's field relative Y acceleration, in meters per second squared
+     * @param currentArmDegrees Where the arm is now, in degrees
+     * @param targetX The speaker's field X position, in meters
+     * @param targetY The speaker's field Y position, in meters
+     * @return Whether the solve converged within the iteration limit
+     */
+    public boolean solve(double robotX, double robotY, double velocityX, double velocityY,
+                         double accelerationX, double accelerationY, double currentArmDegrees,
+                         double targetX, double targetY) {
+        ShotLookupGrid shotGrid = shotGridSupplier.get();
+        double releaseX = robotX;
+        double releaseY = robotY;
+        double releaseVelocityX = velocityX;
+        double releaseVelocityY = velocityY;
+
+        distance = Math.hypot(targetX - robotX, targetY - robotY);
+        timeOfFlight = 0;
+        converged = false;
+
+        for (iterations = 1; iterations <= SHOT_SOLVER_MAX_ITERATIONS; iterations++) {
+            // Where the robot is, and how fast it's going, when the note leaves
+            double releaseDelay = SHOT_LATENCY_SECONDS + armTravelSeconds(Math.abs(shotGrid.getArmDegrees(distance) - currentArmDegrees));
+            releaseX = robotX + velocityX * releaseDelay + 0.5 * accelerationX * releaseDelay * releaseDelay;
+            releaseY = robotY + velocityY * releaseDelay + 0.5 * accelerationY * releaseDelay * releaseDelay;
+            releaseVelocityX = velocityX + accelerationX * releaseDelay;
+            releaseVelocityY = velocityY + accelerationY * releaseDelay;
+
+            // How fast the note covers the ground on average, from how long it takes to get there standing still
+            double speed = distance / shotGrid.getTimeOfFlight(distance);
+            timeOfFlight = solveTimeOfFlight(targetX - releaseX, targetY - releaseY, releaseVelocityX, releaseVelocityY, speed);
+
+            double nextDistance = speed * timeOfFlight;
+            boolean withinTolerance = Math.abs(nextDistance - distance) < SHOT_SOLVER_TOLERANCE_METERS;
+            distance = nextDistance;
+            if (withinTolerance) {
+                converged = true;
+                break;
+            }
+        }
+        iterations = Math.min(iterations, SHOT_SOLVER_MAX_ITERATIONS);
+
+        double virtualTargetX = targetX - releaseVelocityX * timeOfFlight;
+        double virtualTargetY = targetY - releaseVelocityY * timeOfFlight;
+        headingRadians = Math.atan2(virtualTargetY - releaseY, virtualTargetX - releaseX);
+        // Aiming from where the robot is now at this point gives the same heading and distance as from where it'll shoot
+        aimX = robotX + virtualTargetX - releaseX;
+        aimY = robotY + virtualTargetY - releaseY;
+
+        armAngleDegrees = shotGrid.getArmDegrees(distance);
+        shooterSpeed = shotGrid.getWheelSpeed(distance);
+        return converged;
+    }
+
+    /**
+     * @return How long the arm's motion profile takes to move this far from a stop to a stop, in seconds
+     */
+    private static double armTravelSeconds(double degrees) {
+        double rotations = degrees * Math.abs(ARM_MOTOR_ROTATIONS_PER_SHOOTER_DEGREE);
+        // If it can't get up to full speed, it accelerates halfway there and slows down the rest of the way
+        if (rotations < ARM_MAX_VELOCITY * ARM_MAX_VELOCITY / ARM_MAX_ACCELERATION) {
+            return 2 * Math.sqrt(rotations / ARM_MAX_ACCELERATION);
+        }
+        return rotations / ARM_MAX_VELOCITY + ARM_MAX_VELOCITY / ARM_MAX_ACCELERATION;
+    }
+
+    /**
+     * The note has to cover the distance to the target, less however far the robot's velocity carries it,
+     * at the shooter speed. That's |d - v t| = s t, which is a quadratic in t, and the positive root is the one we want
+     */
+    static double solveTimeOfFlight(double dx, double dy, double vx, double vy, double speed) {
+        double distanceSquared = dx * dx + dy * dy;
+        double a = speed * speed - (vx * vx + vy * vy);
+        double halfB = dx * vx + dy * vy;
+        // If we're driving as fast as the note flies there's no exact solution, so ignore the robot's velocity
+        if (a <= 1E-6) return Math.sqrt(distanceSquared) / speed;
+        return (-halfB + Math.sqrt(halfB * halfB + a * distanceSquared)) / a;
+    }
+
+    /**
+     * @return The arm angle to shoot at, in degrees
+     */
+    public double getArmAngleDegrees() {
+        return armAngleDegrees;
+    }
+
+    /**
+     * @return The shooter speed to shoot at, in meters per second
+     */
+    public double getShooterSpeed() {
+        return shooterSpeed;
+    }
+
+    /**
+     * @return The field relative heading to face when shooting, in radians
+     */
+    public double getHeadingRadians() {
+        return headingRadians;
+    }
+
+    /**
+     * @return The distance the shot is solved for, in meters
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return How long the note is in the air, in seconds
+     */
+    public double getTimeOfFlight() {
+        return timeOfFlight;
+    }
+
+    /**
+     * @return The field X of the point to aim at from where the robot is now
+     */
+    public double getAimX() {
+        return aimX;
+    }
+
+    /**
+     * @return The field Y of the point to aim at from where the robot is now
+     */
+    public double getAimY() {
+        return aimY;
+    }
+
+    /**
+     * @return How many iterations the last solve took
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return Whether the last solve converged
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+}
@@ -0,0 +1,26 @@
+package frc.robot.subsystems.swervedrive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * The gyro under the {@link SwerveDrive}. The default methods do nothing, which is what replay uses,
+ * since the yaw comes from the logged odometry samples instead
+ */
+public interface GyroIO {
+
+    /**
+     * @return The yaw of the robot, CCW+
+     */
+    default Rotation2d getYaw() {
+        return new Rotation2d();
+    }
+
+    /**
+     * @return The angular velocity of the robot, in degrees per second CCW+
+     */
+    default double getYawRateDegreesPerSecond() {
+        return 0;
+    }
+
+    default void reset() {}
+}
@@ -0,0 +1,29 @@
+package frc.robot.subsystems.swervedrive;
+
+import com.kauailabs.navx.frc.AHRS;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.Constants;
+import frc.robot.subsystems.NavX;
+
+/**
+ * The {@link GyroIO} for the NavX
+ */
+public class GyroIONavX implements GyroIO, Constants.Swerve {
+
+    private final AHRS navX = NavX.getNavX();
+
+    @Override
+    public Rotation2d getYaw() {
+        return invertGyro ? Rotation2d.fromDegrees(-navX.getYaw()) : Rotation2d.fromDegrees(navX.getYaw());
+    }
+
+    @Override
+    public double getYawRateDegreesPerSecond() {
+        return invertGyro ? -navX.getRawGyroZ() : navX.getRawGyroZ();
+    }
+
+    @Override
+    public void reset() {
+        navX.reset();
+    }
+}
@@ -0,0 +1,38 @@
+package frc.robot.subsystems.swervedrive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * The {@link GyroIO} used in simulation, in place of the NavX. The yaw is integrated from how fast the simulated
+ * drivetrain is actually turning (see {@link SwerveDriveSim})
+ */
+public class GyroIOSim implements GyroIO {
+
+    // Written by the main loop and read by the odometry thread
+    private volatile Rotation2d yaw = new Rotation2d();
+    private volatile double yawRateRadiansPerSecond = 0;
+
+    /**
+     * @param omegaRadiansPerSecond How fast the robot is turning, CCW+
+     * @param dtSeconds How long it has been turning at that rate
+     */
+    void update(double omegaRadiansPerSecond, double dtSeconds) {
+        yawRateRadiansPerSecond = omegaRadiansPerSecond;
+        yaw = Rotation2d.fromRadians(yaw.getRadians() + omegaRadiansPerSecond * dtSeconds);
+    }
+
+    @Override
+    public Rotation2d getYaw() {
+        return yaw;
+    }
+
+    @Override
+    public double getYawRateDegreesPerSecond() {
+        return Math.toDegrees(yawRateRadiansPerSecond);
+    }
+
+    @Override
+    public void reset() {
+        yaw = new Rotation2d();
+    }
+}
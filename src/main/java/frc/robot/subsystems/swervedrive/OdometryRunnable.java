@@ -0,0 +1,170 @@
+package frc.robot.subsystems.swervedrive;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.bluecrew.replay.InputLogger;
+import frc.robot.Constants;
+import frc.robot.subsystems.PoseEstimator;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Updates the {@link PoseEstimator} with the swerve module positions at {@value Constants.Swerve#odometryFrequency} Hz,
+ * waiting on all the module signals together so every sample lines up in time.
+ * <p>
+ * Every sample is also logged by the main loop, and when replaying there is no odometry thread, the logged samples
+ * are fed to the {@link PoseEstimator} from {@link #refreshModuleStates()} instead.
+ */
+public class OdometryRunnable implements Runnable, Constants.Swerve {
+
+    // Each sample is the timestamp, the yaw, then the drive rotations, drive RPS and angle rotations of each module
+    private static final int SAMPLE_HEADER_SIZE = 2;
+    private static final int SAMPLE_VALUES_PER_MODULE = 3;
+
+    private final SwerveModule[] swerveMods;
+    private final GyroIO gyro;
+    private final PoseEstimator poseEstimator;
+
+    private final BaseStatusSignal[] allSignals;
+    private final SwerveModulePosition[] modulePositions;
+
+    private volatile Rotation2d latestYaw;
+
+    /* Samples taken since the main loop last logged them */
+    private final double[][] pendingSamples;
+    private int pendingSampleCount = 0;
+    private final InputLogger.SampleEntry sampleEntry;
+
+    // The odometry thread holds the write lock while updating, the main loop holds the read lock while copying module states
+    private final ReentrantReadWriteLock odometryLock = new ReentrantReadWriteLock();
+
+    public OdometryRunnable(SwerveModule[] swerveMods, GyroIO gyro, PoseEstimator poseEstimator) {
+        this.swerveMods = swerveMods;
+        this.gyro = gyro;
+        this.poseEstimator = poseEstimator;
+
+        modulePositions = new SwerveModulePosition[swerveMods.length];
+
+        int signalsPerModule = swerveMods[0].getOdometrySignals().length;
+        allSignals = new BaseStatusSignal[swerveMods.length * signalsPerModule];
+        for (SwerveModule mod : swerveMods) {
+            System.arraycopy(mod.getOdometrySignals(), 0, allSignals, mod.moduleNumber * signalsPerModule, signalsPerModule);
+            modulePositions[mod.moduleNumber] = mod.getOdometryPosition();
+        }
+
+        latestYaw = gyro.getYaw();
+
+        int sampleSize = SAMPLE_HEADER_SIZE + SAMPLE_VALUES_PER_MODULE * swerveMods.length;
+        pendingSamples = new double[ODOMETRY_SAMPLE_BUFFER_SIZE][sampleSize];
+        sampleEntry = InputLogger.getInstance().getSampleEntry("Odometry", sampleSize);
+    }
+
+    @Override
+    public void run() {
+        Threads.setCurrentThreadPriority(true, 1);
+
+        while (true) {
+            // Wait for all the signals to come in, timing out after two periods so we keep running if a device drops off
+            BaseStatusSignal.waitForAll(2.0 / odometryFrequency, allSignals);
+
+            odometryLock.writeLock().lock();
+            try {
+                double averageLatency = 0;
+                for (SwerveModule mod : swerveMods) {
+                    modulePositions[mod.moduleNumber] = mod.updateOdometryPosition();
+                    averageLatency += mod.getOdometryLatency();
+                }
+                averageLatency /= swerveMods.length;
+
+                latestYaw = gyro.getYaw();
+                double timestamp = Timer.getFPGATimestamp() - averageLatency;
+                poseEstimator.updateSwerveEstimator(timestamp, latestYaw, modulePositions);
+
+                bufferSample(timestamp);
+            } finally {
+                odometryLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Holds on to a sample until the main loop logs it. This must be called while holding the write lock
+     */
+    private void bufferSample(double timestamp) {
+        // If the main loop has stalled, drop samples rather than make more room
+        if (pendingSampleCount == pendingSamples.length) return;
+
+        double[] sample = pendingSamples[pendingSampleCount++];
+        sample[0] = timestamp;
+        sample[1] = latestYaw.getRadians();
+        for (SwerveModule mod : swerveMods) {
+            mod.writeOdometrySample(sample, SAMPLE_HEADER_SIZE + mod.moduleNumber * SAMPLE_VALUES_PER_MODULE);
+        }
+    }
+
+    /**
+     * Copies the latest odometry values into each {@link SwerveModule}'s state, so the main loop sees one consistent snapshot,
+     * and logs the samples taken since the last loop. When replaying, this runs the samples logged this loop instead.
+     */
+    public void refreshModuleStates() {
+        if (InputLogger.isReplay()) {
+            replaySamples();
+            for (SwerveModule mod : swerveMods) {
+                mod.refreshState();
+            }
+            return;
+        }
+
+        odometryLock.readLock().lock();
+        try {
+            for (SwerveModule mod : swerveMods) {
+                mod.refreshState();
+            }
+
+            // Only the main loop reads, and the odometry thread can't add samples while we hold the read lock
+            for (int i = 0; i < pendingSampleCount; i++) {
+                sampleEntry.record(pendingSamples[i]);
+            }
+            pendingSampleCount = 0;
+        } finally {
+            odometryLock.readLock().unlock();
+        }
+    }
+
+    private void replaySamples() {
+        double[] sample;
+        while ((sample = sampleEntry.pollReplayed()) != null) {
+            for (SwerveModule mod : swerveMods) {
+                modulePositions[mod.moduleNumber] =
+                        mod.applyOdometrySample(sample, SAMPLE_HEADER_SIZE + mod.moduleNumber * SAMPLE_VALUES_PER_MODULE);
+            }
+            latestYaw = Rotation2d.fromRadians(sample[1]);
+            poseEstimator.updateSwerveEstimator(sample[0], latestYaw, modulePositions);
+        }
+    }
+
+    /**
+     * @return The gyro yaw from the latest odometry sample
+     */
+    public Rotation2d getLatestYaw() {
+        return latestYaw;
+    }
+
+    /**
+     * Resets the {@link PoseEstimator} using the module positions and yaw from the latest odometry sample
+     *
+     * @param pose The {@link Pose2d} to reset to
+     */
+    public void resetPose(Pose2d pose) {
+        odometryLock.writeLock().lock();
+        try {
+            poseEstimator.setPose(latestYaw, modulePositions, pose);
+        } finally {
+            odometryLock.writeLock().unlock();
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package frc.robot.subsystems.swervedrive;
 
-import com.kauailabs.navx.frc.AHRS;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.controllers.PPHolonomicDriveController;
@@ -12,10 +11,18 @@ import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj.RobotState;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj2.command.*;
+import frc.lib.bluecrew.pathplanner.PathRepository;
+import frc.lib.bluecrew.replay.InputLogger;
 import frc.lib.bluecrew.util.FieldState;
+import frc.lib.bluecrew.util.LoopProfiler;
+import frc.lib.bluecrew.util.StateLogger;
+import frc.lib.bluecrew.util.Telemetry;
+import frc.lib.bluecrew.util.Telemetry.Verbosity;
+import frc.lib.util.SwerveModuleConstants;
 import frc.robot.Constants;
 
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
@@ -26,8 +33,6 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
-import frc.robot.subsystems.NavX;
 import frc.robot.subsystems.PoseEstimator;
 
 import java.util.Optional;
@@ -40,10 +45,37 @@ import java.util.function.DoubleSupplier;
  */
 public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Constants.PathPlannerConstants, Constants.DriverControls {
     public SwerveModule[] swerveMods;
-    private final AHRS gyro;
+    private final GyroIO gyro;
+
+    /* Snapshots of the module states, refreshed in place once per loop by refreshModuleStates() */
+    private final SwerveModuleState[] moduleStates = new SwerveModuleState[4];
+    private final SwerveModulePosition[] modulePositions = new SwerveModulePosition[4];
 
     private final PoseEstimator poseEstimator;
 
+    private final OdometryRunnable odometry;
+
+    // Only set in simulation
+    private final SwerveDriveSim driveSim;
+
+    private final LoopProfiler.Section periodicSection = LoopProfiler.getInstance().getSection("SwerveDrive.periodic");
+
+    /* DataLog entries */
+    private final int poseLogEntry = StateLogger.getInstance().startStructEntry("Swerve/Pose", Pose2d.struct, false);
+    private final int measuredStatesLogEntry =
+            StateLogger.getInstance().startStructEntry("Swerve/MeasuredStates", SwerveModuleState.struct, true);
+    private final int desiredStatesLogEntry =
+            StateLogger.getInstance().startStructEntry("Swerve/DesiredStates", SwerveModuleState.struct, true);
+
+    /* Telemetry */
+    private final Telemetry.DoubleSignal distanceToSpeakerTelemetry =
+            Telemetry.getInstance().getDoubleSignal("Distance To Speaker", Verbosity.COMPETITION, 0.01, Constants.TelemetryConstants.DEFAULT_PUBLISH_PERIOD_LOOPS);
+    private final Telemetry.DoubleSignal currentHeadingTelemetry =
+            Telemetry.getInstance().getDoubleSignal("Current Heading", Verbosity.COMPETITION, 0.1, Constants.TelemetryConstants.DEFAULT_PUBLISH_PERIOD_LOOPS);
+    private final Telemetry.DoubleSignal holdHeadingTelemetry = Telemetry.getInstance().getDoubleSignal("Hold Heading", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal rotationTelemetry = Telemetry.getInstance().getDoubleSignal("Rotation", Verbosity.DEBUG);
+    private final Telemetry.DoubleSignal offsetAngleTelemetry = Telemetry.getInstance().getDoubleSignal("Offset Angle", Verbosity.DEBUG);
+
     private final Field2d field = new Field2d();
 
     private final StructPublisher<Pose2d> posePublisher = NetworkTableInstance.getDefault()
@@ -60,20 +92,50 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
     private int controlsInvert;
 
     public SwerveDrive() {
-        gyro = NavX.getNavX();
+        // When replaying a log there is no hardware, the odometry samples come from the log instead.
+        // In simulation the devices are still made, and SwerveDriveSim does the physics for them
+        boolean simulated = RobotBase.isSimulation() && !InputLogger.isReplay();
+        GyroIOSim gyroSim = simulated ? new GyroIOSim() : null;
+        if (InputLogger.isReplay()) {
+            gyro = new GyroIO() {};
+        } else {
+            gyro = simulated ? gyroSim : new GyroIONavX();
+        }
         gyro.reset();
 
-        swerveMods = new SwerveModule[]{
-                new SwerveModule(0, Mod0.constants),
-                new SwerveModule(1, Mod1.constants),
-                new SwerveModule(2, Mod2.constants),
-                new SwerveModule(3, Mod3.constants)
-        };
+        SwerveModuleConstants[] moduleConstants = {Mod0.constants, Mod1.constants, Mod2.constants, Mod3.constants};
+        SwerveModuleSim[] moduleSims = new SwerveModuleSim[moduleConstants.length];
+        swerveMods = new SwerveModule[moduleConstants.length];
+        for (int i = 0; i < moduleConstants.length; i++) {
+            SwerveModuleIO io;
+            if (InputLogger.isReplay()) {
+                io = new SwerveModuleIO() {};
+            } else {
+                SwerveModuleIOTalonFX talonFXIO = new SwerveModuleIOTalonFX(moduleConstants[i]);
+                if (simulated) moduleSims[i] = talonFXIO.createSimulation(moduleConstants[i]);
+                io = talonFXIO;
+            }
+            swerveMods[i] = new SwerveModule(i, moduleConstants[i], io);
+        }
+        driveSim = simulated ? new SwerveDriveSim(moduleSims, gyroSim) : null;
+
+        for (SwerveModule mod : swerveMods) {
+            moduleStates[mod.moduleNumber] = mod.getState();
+            modulePositions[mod.moduleNumber] = mod.getPosition();
+        }
 
         resetModulesToAbsolute();
 
         poseEstimator = PoseEstimator.getInstance();
 
+        // Run odometry on its own thread, so it can update faster than the main loop
+        odometry = new OdometryRunnable(swerveMods, gyro, poseEstimator);
+        if (!InputLogger.isReplay()) {
+            Thread odometryThread = new Thread(odometry, "odometryThread");
+            odometryThread.setDaemon(true);
+            odometryThread.start();
+        }
+
         rotationPIDController = new PIDController(0.04d, 0.00001d, 0.004d);
         rotationPIDController.setIZone(1);
         rotationPIDController.enableContinuousInput(-180, 180);
@@ -124,26 +186,35 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
      * @param isOpenLoop    Controls whether it drives in open loop
      */
     public void drive(Translation2d translation, double rotation, boolean fieldRelative, boolean isOpenLoop) {
-        SwerveModuleState[] swerveModuleStates =
-                swerveKinematics.toSwerveModuleStates(
-                        fieldRelative ? ChassisSpeeds.fromFieldRelativeSpeeds(
-                                translation.getX(),
-                                translation.getY(),
-                                rotation,
-                                getHeading()
-                        )
-                                : new ChassisSpeeds(
-                                translation.getX(),
-                                translation.getY(),
-                                rotation)
-                );
-        SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, maxSpeed);
+        SwerveModuleState[] swerveModuleStates = toModuleStates(
+                fieldRelative ? ChassisSpeeds.fromFieldRelativeSpeeds(
+                        translation.getX(),
+                        translation.getY(),
+                        rotation,
+                        getHeading()
+                )
+                        : new ChassisSpeeds(
+                        translation.getX(),
+                        translation.getY(),
+                        rotation)
+        );
+        StateLogger.getInstance().recordModuleStates(desiredStatesLogEntry, swerveModuleStates);
 
         for (SwerveModule mod : swerveMods) {
             mod.setDesiredState(swerveModuleStates[mod.moduleNumber], isOpenLoop);
         }
     }
 
+    /**
+     * @param speeds The robot relative {@link ChassisSpeeds} to drive at
+     * @return The {@link SwerveModuleState} for each module, scaled down so none of them are faster than the max speed
+     */
+    public static SwerveModuleState[] toModuleStates(ChassisSpeeds speeds) {
+        SwerveModuleState[] swerveModuleStates = swerveKinematics.toSwerveModuleStates(speeds);
+        SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, maxSpeed);
+        return swerveModuleStates;
+    }
+
     /**
      * Sets the states of each module
      *
@@ -151,6 +222,7 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
      */
     public void setModuleStates(SwerveModuleState[] desiredStates) {
         SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, maxSpeed);
+        StateLogger.getInstance().recordModuleStates(desiredStatesLogEntry, desiredStates);
 
         for (SwerveModule mod : swerveMods) {
             mod.setDesiredState(desiredStates[mod.moduleNumber], false);
@@ -175,32 +247,36 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
     }
 
     /**
-     * @return An array containing the {@link SwerveModuleState} of each {@link SwerveModule}
+     * Copies the latest odometry values into every {@link SwerveModule} once, so everything else this loop sees the same module states
+     */
+    public void refreshModuleStates() {
+        odometry.refreshModuleStates();
+    }
+
+    /**
+     * @return An array containing the {@link SwerveModuleState} of each {@link SwerveModule} as of the last
+     * {@link #refreshModuleStates()}. This is the same array every time, so don't modify it
      */
     public SwerveModuleState[] getModuleStates() {
-        SwerveModuleState[] states = new SwerveModuleState[4];
-        for (SwerveModule mod : swerveMods) {
-            states[mod.moduleNumber] = mod.getState();
-        }
-        return states;
+        return moduleStates;
     }
 
     /**
-     * @return An array of the {@link SwerveModulePosition} of each {@link SwerveModule}
+     * @return An array of the {@link SwerveModulePosition} of each {@link SwerveModule} as of the last
+     * {@link #refreshModuleStates()}. This is the same array every time, so don't modify it
      */
     public SwerveModulePosition[] getModulePositions() {
-        SwerveModulePosition[] positions = new SwerveModulePosition[4];
-        for (SwerveModule mod : swerveMods) {
-            positions[mod.moduleNumber] = mod.getPosition();
-        }
-        return positions;
+        return modulePositions;
     }
 
     /**
      * @param pose The {@link Pose2d} to set the {@link SwerveDrivePoseEstimator} to
      */
     public void setPose(Pose2d pose) {
-        poseEstimator.setPose(getGyroYaw(), getModulePositions(), pose);
+        odometry.resetPose(pose);
+        if (driveSim != null) {
+            driveSim.resetPose(pose);
+        }
     }
 
     /**
@@ -216,9 +292,7 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
      * @param speeds the ChassisSpeeds to drive the robot with
      */
     public void driveRobotRelative(ChassisSpeeds speeds) {
-        SwerveModuleState[] states = swerveKinematics.toSwerveModuleStates(speeds);
-        SwerveDriveKinematics.desaturateWheelSpeeds(states, maxSpeed);
-        setModuleStates(states);
+        setModuleStates(toModuleStates(speeds));
     }
 
     public ChassisSpeeds getFieldRelativeSpeeds() {
@@ -238,7 +312,7 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
      * @param heading The heading of the robot
      */
     public void setHeading(Rotation2d heading) {
-        poseEstimator.setPose(getGyroYaw(), getModulePositions(), new Pose2d(poseEstimator.getPose().getTranslation(), heading));
+        odometry.resetPose(new Pose2d(poseEstimator.getPose().getTranslation(), heading));
     }
 
     /**
@@ -246,7 +320,7 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
      */
 
     public void zeroHeading(){
-        poseEstimator.setPose(getGyroYaw(), getModulePositions(), new Pose2d(poseEstimator.getPose().getTranslation(), new Rotation2d()));
+        odometry.resetPose(new Pose2d(poseEstimator.getPose().getTranslation(), new Rotation2d()));
     }
 
     public void setHoldHeading(Rotation2d holdHeading) {
@@ -274,17 +348,17 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
     }
 
     /**
-     * @return The Robot yaw as reported by the NavX
+     * @return The Robot yaw as reported by the NavX, as of the latest odometry sample
      */
     public Rotation2d getGyroYaw() {
-        return invertGyro ? (Rotation2d.fromDegrees(-gyro.getYaw())) : Rotation2d.fromDegrees(gyro.getYaw());
+        return odometry.getLatestYaw();
     }
 
     /**
      * @return The angular velocity of the robot as reported by the NavX
      */
-    public float getGyroYawSpeed() {
-        return invertGyro ? -gyro.getRawGyroZ() : gyro.getRawGyroZ();
+    public double getGyroYawSpeed() {
+        return gyro.getYawRateDegreesPerSecond();
     }
 
     /**
@@ -340,7 +414,7 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
             // TODO: find the actual angle
             offsetAngleToSpeaker = offsetAngleToSpeaker.div((50d/2d)).plus(Rotation2d.fromDegrees(4.5));
 
-            SmartDashboard.putNumber("Offset Angle", offsetAngleToSpeaker.getDegrees());
+            offsetAngleTelemetry.set(offsetAngleToSpeaker.getDegrees());
 
             holdHeading = getAngleToPose(FieldState.getInstance().getSpeakerCoords().toTranslation2d());//.plus(offsetAngleToSpeaker);
         }
@@ -443,20 +517,20 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
     }
 
     public Command alignWithAmp() {
-        AtomicReference<PathPlannerPath> pathToAmp = new AtomicReference<>(PathPlannerPath.fromPathFile("AlignAmpX"));
+        AtomicReference<PathPlannerPath> pathToAmp = new AtomicReference<>(PathRepository.getInstance().getPath("AlignAmpX"));
 
         return new InstantCommand(() -> {
             if (FieldState.getInstance().onRedAlliance()) {
                 if (PoseEstimator.getInstance().getPose().getX() > Units.inchesToMeters(578.77-24)) {
-                    pathToAmp.set(PathPlannerPath.fromPathFile("AlignAmpY"));
+                    pathToAmp.set(PathRepository.getInstance().getPath("AlignAmpY"));
                 } else {
-                    pathToAmp.set(PathPlannerPath.fromPathFile("AlignAmpX"));
+                    pathToAmp.set(PathRepository.getInstance().getPath("AlignAmpX"));
                 }
             } else {
                 if (PoseEstimator.getInstance().getPose().getX() < Units.inchesToMeters(72.5+24)) {
-                    pathToAmp.set(PathPlannerPath.fromPathFile("AlignAmpY"));
+                    pathToAmp.set(PathRepository.getInstance().getPath("AlignAmpY"));
                 } else {
-                    pathToAmp.set(PathPlannerPath.fromPathFile("AlignAmpX"));
+                    pathToAmp.set(PathRepository.getInstance().getPath("AlignAmpX"));
                 }
             }
         }).andThen(AutoBuilder.followPath(pathToAmp.get())).withName("AlignWithAmp");
@@ -497,26 +571,35 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
 
     @Override
     public void periodic() {
-        poseEstimator.updateSwerveEstimator(getGyroYaw(), getModulePositions());
+        periodicSection.start();
+
+        // The odometry thread keeps the pose estimator updated, we just need a snapshot of the modules for this loop
+        refreshModuleStates();
 
         // Correct pose estimate with vision measurements
         if (shouldUseVision) {
             poseEstimator.updateWithVision();
+        } else {
+            poseEstimator.discardVisionMeasurements();
         }
 
         posePublisher.set(poseEstimator.getPose());
+        StateLogger.getInstance().recordPose2d(poseLogEntry, poseEstimator.getPose());
+        StateLogger.getInstance().recordModuleStates(measuredStatesLogEntry, moduleStates);
 
-        SmartDashboard.putNumber("Distance To Speaker", Math.abs(poseEstimator.getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d())));
-        SmartDashboard.putNumber("Hold Heading", holdHeading.getDegrees());
-        SmartDashboard.putNumber("Current Heading", getHeading().getDegrees());
+        distanceToSpeakerTelemetry.set(Math.abs(poseEstimator.getPose().getTranslation().getDistance(FieldState.getInstance().getSpeakerCoords().toTranslation2d())));
+        holdHeadingTelemetry.set(holdHeading.getDegrees());
+        currentHeadingTelemetry.set(getHeading().getDegrees());
 
         if (RobotState.isDisabled()) {
             setHoldHeading(getHeading());
 
             invertJoystickInputs = FieldState.getInstance().onRedAlliance() ? 1 : -1;
-            SmartDashboard.putNumber("Rotation", getHeading().getDegrees());
+            rotationTelemetry.set(getHeading().getDegrees());
         }
 
+        periodicSection.stop();
+
 //        SmartDashboard.putNumber("Swerve Estimator X", poseEstimator.getPose().getX());
 //        SmartDashboard.putNumber("Swerve Estimator Y", poseEstimator.getPose().getY());
 //
@@ -530,4 +613,18 @@ public class SwerveDrive extends SubsystemBase implements Constants.Swerve, Cons
         }
 */
     }
+
+    /**
+     * @return Where the simulated robot actually is, or the pose estimate if we aren't simulating the drivetrain
+     */
+    public Pose2d getSimulatedPose() {
+        return driveSim != null ? driveSim.getPose() : poseEstimator.getPose();
+    }
+
+    @Override
+    public void simulationPeriodic() {
+        if (driveSim != null) {
+            driveSim.update();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package frc.robot.subsystems.swervedrive;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants;
+
+/**
+ * Simulates the whole drivetrain: steps each {@link SwerveModuleSim}, then moves the robot and turns the gyro by however fast
+ * the modules are actually moving it. The time step comes from the robot clock, so when the clock
+ * is stepped by hand (see {@link edu.wpi.first.wpilibj.simulation.SimHooks}) the physics follows it.
+ */
+public class SwerveDriveSim implements Constants.Swerve {
+
+    private final SwerveModuleSim[] moduleSims;
+    private final GyroIOSim gyroSim;
+
+    private final SwerveModuleState[] moduleStates;
+
+    // Where the robot actually is on the field, which the simulated cameras see from
+    private Pose2d pose = new Pose2d();
+
+    private double lastUpdateTime = Double.NaN;
+
+    public SwerveDriveSim(SwerveModuleSim[] moduleSims, GyroIOSim gyroSim) {
+        this.moduleSims = moduleSims;
+        this.gyroSim = gyroSim;
+
+        moduleStates = new SwerveModuleState[moduleSims.length];
+        for (int i = 0; i < moduleSims.length; i++) {
+            moduleStates[i] = moduleSims[i].getState();
+        }
+    }
+
+    /**
+     * Steps the simulation forward to the current robot time. This should be called once per loop
+     */
+    public void update() {
+        double now = Timer.getFPGATimestamp();
+        double dt = Double.isNaN(lastUpdateTime) ? 0 : now - lastUpdateTime;
+        lastUpdateTime = now;
+
+        double batteryVolts = RobotController.getBatteryVoltage();
+        for (SwerveModuleSim moduleSim : moduleSims) {
+            moduleSim.update(dt, batteryVolts);
+        }
+
+        // The module sims update their states in place, so these are the new ones
+        ChassisSpeeds speeds = swerveKinematics.toChassisSpeeds(moduleStates);
+        gyroSim.update(speeds.omegaRadiansPerSecond, dt);
+        pose = pose.exp(new Twist2d(speeds.vxMetersPerSecond * dt, speeds.vyMetersPerSecond * dt, speeds.omegaRadiansPerSecond * dt));
+    }
+
+    /**
+     * @return Where the simulated robot actually is, which drifts from the pose estimate the same way it would on a real robot
+     */
+    public Pose2d getPose() {
+        return pose;
+    }
+
+    /**
+     * Moves the simulated robot. This is done whenever the robot code resets its pose, such as at the start of an auto,
+     * since that's when the robot would have been placed there
+     *
+     * @param pose Where to put the robot
+     */
+    public void resetPose(Pose2d pose) {
+        this.pose = pose;
+    }
+}
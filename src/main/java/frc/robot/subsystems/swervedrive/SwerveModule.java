@@ -1,10 +1,6 @@
 package frc.robot.subsystems.swervedrive;
 
-import com.ctre.phoenix6.controls.DutyCycleOut;
-import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.controls.VelocityVoltage;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.BaseStatusSignal;
 
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -13,50 +9,122 @@ import edu.wpi.first.math.kinematics.SwerveModuleState;
 import frc.lib.math.Conversions;
 import frc.lib.util.SwerveModuleConstants;
 import frc.robot.Constants;
-import frc.robot.Robot;
 
 /**
  * Represents a Swerve Module on the Swerve Drivetrain
  */
 public class SwerveModule implements Constants.Swerve {
+    // Rotation2d can't be changed in place, so every angle a module can report is made once up front
+    private static final Rotation2d[] ODOMETRY_ANGLES = new Rotation2d[ODOMETRY_ANGLE_STEPS];
+    static {
+        for (int i = 0; i < ODOMETRY_ANGLE_STEPS; i++) {
+            ODOMETRY_ANGLES[i] = Rotation2d.fromRotations((double) i / ODOMETRY_ANGLE_STEPS);
+        }
+    }
+
     public int moduleNumber;
     private Rotation2d angleOffset;
 
-    private TalonFX mAngleMotor;
-    private TalonFX mDriveMotor;
-    private CANcoder angleEncoder;
-
-    private SwerveCTREConfigs ctreConfigs = new SwerveCTREConfigs();
+    private final SwerveModuleIO io;
+    private final SwerveModuleIO.OdometryInputs odometryInputs = new SwerveModuleIO.OdometryInputs();
 
     private final SimpleMotorFeedforward driveFeedForward = new SimpleMotorFeedforward(driveKS, driveKV, driveKA);
 
-    /* drive motor control requests */
-    private final DutyCycleOut driveDutyCycle = new DutyCycleOut(0);
-    private final VelocityVoltage driveVelocity = new VelocityVoltage(0);
+    /* Latest odometry values, written by the odometry thread */
+    private final SwerveModulePosition odometryPosition = new SwerveModulePosition();
+    private double latestDriveRotations = 0;
+    private double latestDriveRPS = 0;
+    private double latestAngleRotations = 0;
+    private Rotation2d latestAngle = ODOMETRY_ANGLES[0];
 
-    /* angle motor control requests */
-    private final PositionVoltage anglePosition = new PositionVoltage(0);
+    /* Reused every loop, so reading the module state doesn't create garbage */
+    private final SwerveModulePosition currentPosition = new SwerveModulePosition();
+    private final SwerveModuleState currentState = new SwerveModuleState();
 
-    public SwerveModule(int moduleNumber, SwerveModuleConstants moduleConstants){
+    public SwerveModule(int moduleNumber, SwerveModuleConstants moduleConstants, SwerveModuleIO io){
         this.moduleNumber = moduleNumber;
         this.angleOffset = moduleConstants.angleOffset;
-        
-        /* Angle Encoder Config */
-        angleEncoder = new CANcoder(moduleConstants.cancoderID);
-        angleEncoder.getConfigurator().apply(ctreConfigs.swerveCANcoderConfig);
-
-        /* Angle Motor Config */
-        mAngleMotor = new TalonFX(moduleConstants.angleMotorID);
-        mAngleMotor.getConfigurator().apply(ctreConfigs.swerveAngleFXConfig);
+        this.io = io;
+
         resetToAbsolute();
+    }
+
+    /**
+     * @return The drive position, drive velocity, and angle position signals, to be refreshed together by the odometry thread
+     */
+    BaseStatusSignal[] getOdometrySignals() {
+        return io.getOdometrySignals();
+    }
+
+    /**
+     * @return How old the drive position signal was when it was last read, in seconds
+     */
+    double getOdometryLatency() {
+        return odometryInputs.latencySeconds;
+    }
+
+    /**
+     * Updates the odometry position from the signals the odometry thread just refreshed.
+     * The drive position is compensated for latency using the drive velocity.
+     *
+     * @return The {@link SwerveModulePosition} used by the odometry thread
+     */
+    SwerveModulePosition updateOdometryPosition() {
+        io.updateOdometryInputs(odometryInputs);
+        return setOdometryValues(odometryInputs.driveRotations, odometryInputs.driveRPS, odometryInputs.angleRotations);
+    }
+
+    /**
+     * @return The {@link SwerveModulePosition} from the last odometry update, used by the odometry thread
+     */
+    SwerveModulePosition getOdometryPosition() {
+        return odometryPosition;
+    }
 
-        /* Drive Motor Config */
-        mDriveMotor = new TalonFX(moduleConstants.driveMotorID);
-        mDriveMotor.getConfigurator().apply(ctreConfigs.swerveDriveFXConfig);
-        mDriveMotor.getConfigurator().setPosition(0.0);
+    /**
+     * Writes the latest odometry values into an odometry sample, so they can be logged
+     *
+     * @param sample The sample to write into
+     * @param offset Where this module's three values go in the sample
+     */
+    void writeOdometrySample(double[] sample, int offset) {
+        sample[offset] = latestDriveRotations;
+        sample[offset + 1] = latestDriveRPS;
+        sample[offset + 2] = latestAngleRotations;
+    }
+
+    /**
+     * Updates the odometry position from a logged odometry sample, for replay
+     *
+     * @param sample The logged sample, written by {@link #writeOdometrySample}
+     * @param offset Where this module's three values are in the sample
+     * @return The {@link SwerveModulePosition} used by the odometry
+     */
+    SwerveModulePosition applyOdometrySample(double[] sample, int offset) {
+        return setOdometryValues(sample[offset], sample[offset + 1], sample[offset + 2]);
+    }
+
+    private SwerveModulePosition setOdometryValues(double driveRotations, double driveRPS, double angleRotations) {
+        latestDriveRotations = driveRotations;
+        latestDriveRPS = driveRPS;
+
+        latestAngleRotations = angleRotations;
+        latestAngle = ODOMETRY_ANGLES[Math.floorMod(Math.round(angleRotations * ODOMETRY_ANGLE_STEPS), ODOMETRY_ANGLE_STEPS)];
+
+        odometryPosition.distanceMeters = Conversions.rotationsToMeters(latestDriveRotations, wheelCircumference);
+        odometryPosition.angle = latestAngle;
+        return odometryPosition;
+    }
 
-        mDriveMotor.setSafetyEnabled(true);
-        mAngleMotor.setSafetyEnabled(true);
+    /**
+     * Copies the latest values from the odometry thread into the {@link SwerveModuleState} and {@link SwerveModulePosition}
+     * returned by {@link #getState()} and {@link #getPosition()}. This should be called once per loop, while holding the odometry lock.
+     */
+    void refreshState() {
+        currentPosition.distanceMeters = Conversions.rotationsToMeters(latestDriveRotations, wheelCircumference);
+        currentPosition.angle = latestAngle;
+        currentState.speedMetersPerSecond = Conversions.RPSToMPS(latestDriveRPS, wheelCircumference);
+        currentState.angle = latestAngle;
     }
 
     /**
@@ -64,28 +132,38 @@ public class SwerveModule implements Constants.Swerve {
      * @param isOpenLoop Controls driving in open or closed loop
      */
     public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop){
-        desiredState = SwerveModuleState.optimize(desiredState, getState().angle); 
-        mAngleMotor.setControl(anglePosition.withPosition(desiredState.angle.getRotations()));
+        desiredState = optimize(desiredState, currentState.angle);
+        io.setAnglePosition(desiredState.angle.getRotations());
         setSpeed(desiredState, isOpenLoop);
     }
 
+    /**
+     * Turns the desired state so the wheel never has to turn more than 90 degrees, and scales its speed down by how
+     * far the wheel is from the new angle
+     * @param desiredState The desired {@link SwerveModuleState}
+     * @param currentAngle The angle the wheel is at now
+     * @return The {@link SwerveModuleState} to drive the module at
+     */
+    public static SwerveModuleState optimize(SwerveModuleState desiredState, Rotation2d currentAngle){
+        SwerveModuleState optimizedState = SwerveModuleState.optimize(desiredState, currentAngle);
+        // Scale speed by cosine of angle error. This scales down movement perpendicular to the desired
+        // direction of travel that can occur when modules change directions. This results in smoother driving.
+        optimizedState.speedMetersPerSecond *= optimizedState.angle.minus(currentAngle).getCos();
+        return optimizedState;
+    }
+
     /**
      * Sets the speed of the drive motor
      * @param desiredState The desired {@link SwerveModuleState}
      * @param isOpenLoop Controls driving in open or closed loop
      */
     private void setSpeed(SwerveModuleState desiredState, boolean isOpenLoop){
-        // Scale speed by cosine of angle error. This scales down movement perpendicular to the desired
-        // direction of travel that can occur when modules change directions. This results in smoother driving.
-        desiredState.speedMetersPerSecond *= desiredState.angle.minus(Rotation2d.fromRotations(mAngleMotor.getPosition().getValue())).getCos();
         if(isOpenLoop){
-            driveDutyCycle.Output = desiredState.speedMetersPerSecond / maxSpeed;
-            mDriveMotor.setControl(driveDutyCycle);
+            io.setDriveDutyCycle(desiredState.speedMetersPerSecond / maxSpeed);
         }
         else {
-            driveVelocity.Velocity = Conversions.MPSToRPS(desiredState.speedMetersPerSecond, wheelCircumference);
-            driveVelocity.FeedForward = driveFeedForward.calculate(desiredState.speedMetersPerSecond);
-            mDriveMotor.setControl(driveVelocity);
+            io.setDriveVelocity(Conversions.MPSToRPS(desiredState.speedMetersPerSecond, wheelCircumference),
+                    driveFeedForward.calculate(desiredState.speedMetersPerSecond));
         }
     }
 
@@ -94,57 +172,53 @@ public class SwerveModule implements Constants.Swerve {
      * @param desiredState The desired {@link SwerveModuleState}
      */
     public void setAngle(SwerveModuleState desiredState){
-        mAngleMotor.setControl(anglePosition.withPosition(desiredState.angle.getRotations()));
+        io.setAnglePosition(desiredState.angle.getRotations());
     }
 
     /**
-     * @return The angle of the {@link CANcoder}
+     * @return The angle of the CANcoder
      */
     public Rotation2d getCANcoder(){
-        return Rotation2d.fromRotations(angleEncoder.getAbsolutePosition().getValue());
+        return Rotation2d.fromRotations(io.getAbsolutePositionRotations());
     }
 
     /**
-     * Resets the {@link SwerveModule} based on the {@link CANcoder} and angle offset
+     * Resets the {@link SwerveModule} based on the CANcoder and angle offset
      */
     public void resetToAbsolute(){
         double absolutePosition = getCANcoder().getRotations() - angleOffset.getRotations();
-        mAngleMotor.setPosition(absolutePosition);
+        io.resetAnglePosition(absolutePosition);
     }
 
     /**
-     * @return The {@link SwerveModuleState} of the {@link SwerveModule}
+     * @return The {@link SwerveModuleState} of the {@link SwerveModule} as of the last {@link #refreshState()}.
+     * This is the same object every time, so don't modify it
      */
     public SwerveModuleState getState(){
-        return new SwerveModuleState(
-            Conversions.RPSToMPS(mDriveMotor.getVelocity().getValue(), wheelCircumference),
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValue())
-        );
+        return currentState;
     }
 
     /**
-     * @return The {@link SwerveModulePosition} of the {@link SwerveModule}
+     * @return The {@link SwerveModulePosition} of the {@link SwerveModule} as of the last {@link #refreshState()}.
+     * This is the same object every time, so don't modify it
      */
     public SwerveModulePosition getPosition(){
-        return new SwerveModulePosition(
-            Conversions.rotationsToMeters(mDriveMotor.getPosition().getValue(), wheelCircumference),
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValue())
-        );
+        return currentPosition;
     }
 
     public void setDriveVoltage(double voltage) {
-        mDriveMotor.setVoltage(voltage);
+        io.setDriveVoltage(voltage);
     }
 
     public double getAngleError() {
-        return mAngleMotor.getClosedLoopError().getValue();
+        return io.getAngleError();
     }
 
     public double getDriveVoltage() {
-        return mDriveMotor.getMotorVoltage().getValue();
+        return io.getDriveVoltage();
     }
 
     public double getDriveSpeedError() {
-        return mDriveMotor.getClosedLoopError().getValue();
+        return io.getDriveSpeedError();
     }
 }
\ No newline at end of file
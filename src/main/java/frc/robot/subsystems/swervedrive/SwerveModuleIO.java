@@ -0,0 +1,66 @@
+package frc.robot.subsystems.swervedrive;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+/**
+ * The hardware under a {@link SwerveModule}. The default methods do nothing, which is what replay uses,
+ * since the module positions come from the logged odometry samples instead
+ */
+public interface SwerveModuleIO {
+
+    /**
+     * The values the odometry thread reads from a module every sample
+     */
+    class OdometryInputs {
+        public double driveRotations; // Latency compensated using the drive velocity
+        public double driveRPS;
+        public double angleRotations;
+        public double latencySeconds; // How old the drive position was when it was read
+    }
+
+    /**
+     * @return The signals the odometry thread waits on, or none if there is no hardware
+     */
+    default BaseStatusSignal[] getOdometrySignals() {
+        return new BaseStatusSignal[0];
+    }
+
+    /**
+     * Reads the odometry signals the odometry thread just refreshed
+     *
+     * @param inputs The {@link OdometryInputs} to update
+     */
+    default void updateOdometryInputs(OdometryInputs inputs) {}
+
+    /**
+     * @return The absolute angle of the module from the CANcoder, in rotations
+     */
+    default double getAbsolutePositionRotations() {
+        return 0;
+    }
+
+    /**
+     * @param rotations What the angle motor should read as its current position, in rotations
+     */
+    default void resetAnglePosition(double rotations) {}
+
+    default void setAnglePosition(double rotations) {}
+
+    default void setDriveDutyCycle(double output) {}
+
+    default void setDriveVelocity(double rotationsPerSecond, double feedForwardVolts) {}
+
+    default void setDriveVoltage(double volts) {}
+
+    default double getAngleError() {
+        return 0;
+    }
+
+    default double getDriveVoltage() {
+        return 0;
+    }
+
+    default double getDriveSpeedError() {
+        return 0;
+    }
+}
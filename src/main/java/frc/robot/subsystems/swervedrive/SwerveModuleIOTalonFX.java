@@ -0,0 +1,136 @@
+package frc.robot.subsystems.swervedrive;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import frc.lib.bluecrew.util.CANSignalManager;
+import frc.lib.util.SwerveModuleConstants;
+import frc.robot.Constants;
+
+/**
+ * The {@link SwerveModuleIO} for a module with a TalonFX drive motor, a TalonFX angle motor, and a CANcoder
+ */
+public class SwerveModuleIOTalonFX implements SwerveModuleIO, Constants.Swerve, Constants.CANSignalFrequencies {
+
+    private final TalonFX mAngleMotor;
+    private final TalonFX mDriveMotor;
+    private final CANcoder angleEncoder;
+
+    private final SwerveCTREConfigs ctreConfigs = new SwerveCTREConfigs();
+
+    /* drive motor control requests */
+    private final DutyCycleOut driveDutyCycle = new DutyCycleOut(0);
+    private final VelocityVoltage driveVelocity = new VelocityVoltage(0);
+
+    /* angle motor control requests */
+    private final PositionVoltage anglePosition = new PositionVoltage(0);
+
+    /* status signals used for odometry */
+    private final StatusSignal<Double> drivePositionSignal;
+    private final StatusSignal<Double> driveVelocitySignal;
+    private final StatusSignal<Double> anglePositionSignal;
+    private final BaseStatusSignal[] odometrySignals;
+
+    public SwerveModuleIOTalonFX(SwerveModuleConstants moduleConstants) {
+        /* Angle Encoder Config */
+        angleEncoder = new CANcoder(moduleConstants.cancoderID);
+        angleEncoder.getConfigurator().apply(ctreConfigs.swerveCANcoderConfig);
+
+        /* Angle Motor Config */
+        mAngleMotor = new TalonFX(moduleConstants.angleMotorID);
+        mAngleMotor.getConfigurator().apply(ctreConfigs.swerveAngleFXConfig);
+
+        /* Drive Motor Config */
+        mDriveMotor = new TalonFX(moduleConstants.driveMotorID);
+        mDriveMotor.getConfigurator().apply(ctreConfigs.swerveDriveFXConfig);
+        mDriveMotor.getConfigurator().setPosition(0.0);
+
+        mDriveMotor.setSafetyEnabled(true);
+        mAngleMotor.setSafetyEnabled(true);
+
+        drivePositionSignal = mDriveMotor.getPosition();
+        driveVelocitySignal = mDriveMotor.getVelocity();
+        anglePositionSignal = mAngleMotor.getPosition();
+        odometrySignals = new BaseStatusSignal[]{drivePositionSignal, driveVelocitySignal, anglePositionSignal};
+
+        CANSignalManager.getInstance().register(mDriveMotor, odometryFrequency, drivePositionSignal, driveVelocitySignal);
+        CANSignalManager.getInstance().register(mAngleMotor, odometryFrequency, anglePositionSignal);
+        CANSignalManager.getInstance().register(mDriveMotor, DIAGNOSTIC_SIGNAL_FREQUENCY,
+                mDriveMotor.getClosedLoopError(), mDriveMotor.getMotorVoltage());
+        CANSignalManager.getInstance().register(mAngleMotor, DIAGNOSTIC_SIGNAL_FREQUENCY, mAngleMotor.getClosedLoopError());
+        CANSignalManager.getInstance().register(angleEncoder, DIAGNOSTIC_SIGNAL_FREQUENCY, angleEncoder.getAbsolutePosition());
+    }
+
+    /**
+     * @param moduleConstants The constants this module was made with
+     * @return A {@link SwerveModuleSim} for this module's devices. This only works in simulation
+     */
+    public SwerveModuleSim createSimulation(SwerveModuleConstants moduleConstants) {
+        return new SwerveModuleSim(mDriveMotor, mAngleMotor, angleEncoder, moduleConstants.angleOffset);
+    }
+
+    @Override
+    public BaseStatusSignal[] getOdometrySignals() {
+        return odometrySignals;
+    }
+
+    @Override
+    public void updateOdometryInputs(OdometryInputs inputs) {
+        inputs.driveRotations = BaseStatusSignal.getLatencyCompensatedValue(drivePositionSignal, driveVelocitySignal);
+        inputs.driveRPS = driveVelocitySignal.getValueAsDouble();
+        inputs.angleRotations = anglePositionSignal.getValueAsDouble();
+        inputs.latencySeconds = drivePositionSignal.getTimestamp().getLatency();
+    }
+
+    @Override
+    public double getAbsolutePositionRotations() {
+        return angleEncoder.getAbsolutePosition().getValue();
+    }
+
+    @Override
+    public void resetAnglePosition(double rotations) {
+        mAngleMotor.setPosition(rotations);
+    }
+
+    @Override
+    public void setAnglePosition(double rotations) {
+        mAngleMotor.setControl(anglePosition.withPosition(rotations));
+    }
+
+    @Override
+    public void setDriveDutyCycle(double output) {
+        driveDutyCycle.Output = output;
+        mDriveMotor.setControl(driveDutyCycle);
+    }
+
+    @Override
+    public void setDriveVelocity(double rotationsPerSecond, double feedForwardVolts) {
+        driveVelocity.Velocity = rotationsPerSecond;
+        driveVelocity.FeedForward = feedForwardVolts;
+        mDriveMotor.setControl(driveVelocity);
+    }
+
+    @Override
+    public void setDriveVoltage(double volts) {
+        mDriveMotor.setVoltage(volts);
+    }
+
+    @Override
+    public double getAngleError() {
+        return mAngleMotor.getClosedLoopError().getValue();
+    }
+
+    @Override
+    public double getDriveVoltage() {
+        return mDriveMotor.getMotorVoltage().getValue();
+    }
+
+    @Override
+    public double getDriveSpeedError() {
+        return mDriveMotor.getClosedLoopError().getValue();
+    }
+}
@@ -0,0 +1,92 @@
+package frc.robot.subsystems.swervedrive;
+
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.signals.SensorDirectionValue;
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.robot.Constants;
+
+/**
+ * The physics of one swerve module in simulation. The drive and angle motors are each a {@link DCMotorSim},
+ * driven by the voltage the simulated TalonFXs put out, and the results are written back to the TalonFXs and the CANcoder
+ * so the robot code reads them like it would on the robot
+ */
+public class SwerveModuleSim implements Constants.Swerve {
+
+    private final TalonFXSimState driveSimState;
+    private final TalonFXSimState angleSimState;
+    private final CANcoderSimState angleEncoderSimState;
+
+    private final DCMotorSim driveMotorSim = new DCMotorSim(DCMotor.getFalcon500(1), driveGearRatio, SIM_DRIVE_MOMENT_OF_INERTIA);
+    private final DCMotorSim angleMotorSim = new DCMotorSim(DCMotor.getFalcon500(1), angleGearRatio, SIM_ANGLE_MOMENT_OF_INERTIA);
+
+    private final double angleOffsetRotations;
+
+    private final SwerveModuleState state = new SwerveModuleState();
+
+    public SwerveModuleSim(TalonFX driveMotor, TalonFX angleMotor, CANcoder angleEncoder, Rotation2d angleOffset) {
+        driveSimState = driveMotor.getSimState();
+        angleSimState = angleMotor.getSimState();
+        angleEncoderSimState = angleEncoder.getSimState();
+
+        // The sim states take positions as the mechanism sees them, so they have to know which way the devices are inverted
+        driveSimState.Orientation = driveMotorInvert == InvertedValue.Clockwise_Positive
+                ? ChassisReference.Clockwise_Positive : ChassisReference.CounterClockwise_Positive;
+        angleSimState.Orientation = angleMotorInvert == InvertedValue.Clockwise_Positive
+                ? ChassisReference.Clockwise_Positive : ChassisReference.CounterClockwise_Positive;
+        angleEncoderSimState.Orientation = cancoderInvert == SensorDirectionValue.Clockwise_Positive
+                ? ChassisReference.Clockwise_Positive : ChassisReference.CounterClockwise_Positive;
+
+        angleOffsetRotations = angleOffset.getRotations();
+        update(0, 12);
+    }
+
+    /**
+     * Steps the physics forward and writes the new positions and velocities to the simulated devices
+     *
+     * @param dtSeconds How long to step forward
+     * @param batteryVolts The battery voltage the motors are running off of
+     */
+    public void update(double dtSeconds, double batteryVolts) {
+        driveSimState.setSupplyVoltage(batteryVolts);
+        angleSimState.setSupplyVoltage(batteryVolts);
+        angleEncoderSimState.setSupplyVoltage(batteryVolts);
+
+        driveMotorSim.setInputVoltage(driveSimState.getMotorVoltage());
+        angleMotorSim.setInputVoltage(angleSimState.getMotorVoltage());
+        driveMotorSim.update(dtSeconds);
+        angleMotorSim.update(dtSeconds);
+
+        // The motor sims are in wheel rotations and module rotations, the TalonFXs want rotor rotations
+        double wheelRotations = driveMotorSim.getAngularPositionRotations();
+        double wheelRPS = driveMotorSim.getAngularVelocityRadPerSec() / (2 * Math.PI);
+        double moduleRotations = angleMotorSim.getAngularPositionRotations();
+        double moduleRPS = angleMotorSim.getAngularVelocityRadPerSec() / (2 * Math.PI);
+
+        driveSimState.setRawRotorPosition(wheelRotations * driveGearRatio);
+        driveSimState.setRotorVelocity(wheelRPS * driveGearRatio);
+        angleSimState.setRawRotorPosition(moduleRotations * angleGearRatio);
+        angleSimState.setRotorVelocity(moduleRPS * angleGearRatio);
+
+        // The CANcoder reads the module angle plus its offset, which SwerveModule.resetToAbsolute() takes back out
+        angleEncoderSimState.setRawPosition(moduleRotations + angleOffsetRotations);
+        angleEncoderSimState.setVelocity(moduleRPS);
+
+        state.speedMetersPerSecond = wheelRPS * wheelCircumference;
+        state.angle = Rotation2d.fromRotations(moduleRotations);
+    }
+
+    /**
+     * @return The actual state of the module as of the last {@link #update}. This is the same object every time
+     */
+    public SwerveModuleState getState() {
+        return state;
+    }
+}
@@ -0,0 +1,51 @@
+package frc.robot.subsystems.noteplayer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the time of flight the solver finds really is when the note gets to the target, |d - v t| = s t
+ */
+class ShotSolverTest {
+
+    private static final double SPEED = 12;
+    private static final double DX = 4;
+    private static final double DY = 3;
+
+    @Test
+    void drivingTowardTheTarget() {
+        // Part of the way there is covered by the robot, so it's in the air for less time than standing still
+        double timeOfFlight = assertSolves(2.4, 1.8);
+        assertTrue(timeOfFlight < 5 / SPEED);
+    }
+
+    @Test
+    void drivingAwayFromTheTarget() {
+        double timeOfFlight = assertSolves(-2.4, -1.8);
+        assertTrue(timeOfFlight > 5 / SPEED);
+    }
+
+    @Test
+    void drivingAcrossTheTarget() {
+        double timeOfFlight = assertSolves(-1.8, 2.4);
+        assertTrue(timeOfFlight > 5 / SPEED);
+    }
+
+    @Test
+    void standingStill() {
+        assertEquals(5 / SPEED, assertSolves(0, 0), 1E-9);
+    }
+
+    /**
+     * @return The time of flight, after checking it puts the note at the target
+     */
+    private static double assertSolves(double vx, double vy) {
+        double t = ShotSolver.solveTimeOfFlight(DX, DY, vx, vy, SPEED);
+        assertTrue(t > 0);
+        double residual = Math.hypot(DX - vx * t, DY - vy * t) - SPEED * t;
+        assertEquals(0, residual, 1E-9);
+        return t;
+    }
+}
@@ -0,0 +1,76 @@
+package frc.robot.subsystems.swervedrive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.lib.util.SwerveModuleConstants;
+import frc.robot.Constants;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that reading a module's state every loop doesn't create garbage, even while the module is steering
+ */
+class SwerveModuleAllocationTest {
+
+    private static final int WARMUP_LOOPS = 20_000;
+    private static final int MEASURED_LOOPS = 100_000;
+
+    private final SwerveModule module = new SwerveModule(0, new SwerveModuleConstants(0, 0, 0, new Rotation2d()), new SwerveModuleIO() {});
+    private final double[] sample = new double[3];
+
+    @Test
+    void refreshingStateDoesNotAllocate() {
+        for (int i = 0; i < WARMUP_LOOPS; i++) {
+            loop(i);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_LOOPS; i++) {
+            loop(WARMUP_LOOPS + i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        double bytesPerLoop = (double) allocated / MEASURED_LOOPS;
+        assertTrue(bytesPerLoop < 1, "Allocated " + bytesPerLoop + " bytes per loop");
+    }
+
+    @Test
+    void stateIsTheSameObjectEveryLoop() {
+        loop(0);
+        SwerveModulePosition position = module.getPosition();
+        SwerveModuleState state = module.getState();
+        loop(1);
+        assertSame(position, module.getPosition());
+        assertSame(state, module.getState());
+    }
+
+    @Test
+    void angleIsWithinHalfAStep() {
+        for (int i = 0; i < 1000; i++) {
+            loop(i);
+            double error = module.getState().angle.minus(Rotation2d.fromRotations(sample[2])).getRotations();
+            assertTrue(Math.abs(error) <= 0.5 / Constants.Swerve.ODOMETRY_ANGLE_STEPS + 1E-9, "Off by " + error + " rotations");
+        }
+    }
+
+    /**
+     * One loop of driving while steering: the odometry thread writes a sample, then the main loop refreshes and reads the state
+     */
+    private void loop(int i) {
+        sample[0] = i * 0.01;
+        sample[1] = 2;
+        sample[2] = i * 0.0013 - 3;
+        module.applyOdometrySample(sample, 0);
+        module.refreshState();
+        if (module.getPosition().distanceMeters < 0 || module.getState().speedMetersPerSecond < 0) {
+            throw new AssertionError("The module should be driving forward");
+        }
+    }
+}